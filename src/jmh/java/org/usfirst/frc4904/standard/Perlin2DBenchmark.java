@@ -0,0 +1,77 @@
+package org.usfirst.frc4904.standard;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one row of fire noise, the way the light subsystem samples it, through
+ * {@link Perlin2D#noise(float, float)} per sample, {@link Perlin2D#fill} and {@link PerlinAtlas#fill}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Perlin2DBenchmark {
+
+    /**
+     * Samples per row, the longest strip and the whole LED strip.
+     */
+    @Param({ "37", "107" })
+    public int length;
+
+    private Perlin2D perlin;
+    private PerlinAtlas atlas;
+    private float[] row;
+    private float time;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        perlin = new Perlin2D(12345678987654321L);
+        atlas = new PerlinAtlas(perlin, 16, 64, 16);
+        row = new float[length];
+    }
+
+    /**
+     * Advance time like a 50 Hz loop so rows land in different cells, wrapping before float precision runs out.
+     */
+    private float nextTime() {
+        time = (time + 0.02f) % 1000;
+        return time;
+    }
+
+    @Benchmark
+    public float[] perSample() {
+        float t = nextTime();
+        for (int i = 0; i < length; i++) {
+            row[i] = perlin.noise(t, -i * 0.13f + t * 2);
+        }
+        return row;
+    }
+
+    @Benchmark
+    public float[] batched() {
+        float t = nextTime();
+        perlin.fill(t, t * 2, 0, -0.13f, row, 0, length);
+        return row;
+    }
+
+    @Benchmark
+    public float[] atlas() {
+        float t = nextTime();
+        atlas.fill(t, t * 2, 0, -0.13f, row, 0, length);
+        return row;
+    }
+}
@@ -0,0 +1,45 @@
+package swervelib;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link SwerveDrive#getPose()} while the odometry thread is updating, the way the robot loop, PathPlanner and
+ * vision alignment read the pose while the odometry notifier runs. Compare {@code contended:getPose} against
+ * {@code uncontended} to see how long readers wait on odometry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OdometryContentionBenchmark {
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void updateOdometry(SimulatedSwerveDrive state) {
+        state.swerveDrive.updateOdometry();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public Pose2d getPose(SimulatedSwerveDrive state) {
+        return state.swerveDrive.getPose();
+    }
+
+    @Benchmark
+    public Pose2d uncontended(SimulatedSwerveDrive state) {
+        return state.swerveDrive.getPose();
+    }
+}
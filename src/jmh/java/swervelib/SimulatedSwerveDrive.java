@@ -0,0 +1,46 @@
+package swervelib;
+
+import edu.wpi.first.hal.HAL;
+import java.io.File;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import swervelib.parser.SwerveParser;
+import swervelib.telemetry.SwerveDriveTelemetry;
+import swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
+
+/**
+ * JMH state holding a {@link SwerveDrive} built from the deployed swerve configuration and backed by MapleSim modules.
+ */
+@State(Scope.Benchmark)
+public class SimulatedSwerveDrive {
+
+    /**
+     * Maximum speed of the robot in meters per second, matches the robot configuration.
+     */
+    public static final double MAX_SPEED = 3;
+    /**
+     * Swerve drive under test.
+     */
+    public SwerveDrive swerveDrive;
+
+    /**
+     * Start the simulated HAL and create the swerve drive from the deploy directory.
+     *
+     * @throws IOException if the swerve configuration could not be read.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        HAL.initialize(500, 0);
+        SwerveDriveTelemetry.verbosity = TelemetryVerbosity.NONE;
+        swerveDrive = new SwerveParser(new File("src/main/deploy/swerve")).createSwerveDrive(
+            MAX_SPEED,
+            360,
+            0.0473
+        );
+        // Odometry is benchmarked explicitly, the notifier would only add noise.
+        swerveDrive.stopOdometryThread();
+    }
+}
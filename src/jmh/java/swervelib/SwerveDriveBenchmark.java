@@ -0,0 +1,92 @@
+package swervelib;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import swervelib.math.Matter;
+import swervelib.math.SwerveMath;
+
+/**
+ * Per-loop cost of the {@link SwerveDrive} control path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SwerveDriveBenchmark {
+
+    /**
+     * Commanded robot relative speeds, translating while rotating.
+     */
+    private static final ChassisSpeeds SPEEDS = new ChassisSpeeds(1.5, 0.75, 1.0);
+    /**
+     * Commanded field relative velocity for {@link SwerveMath#limitVelocity}.
+     */
+    private static final Translation2d COMMANDED_VELOCITY = new Translation2d(2.5, -1.0);
+    /**
+     * Current field relative velocity for {@link SwerveMath#limitVelocity}.
+     */
+    private static final ChassisSpeeds FIELD_VELOCITY = new ChassisSpeeds(0.5, 0.25, 0);
+    /**
+     * Robot pose for {@link SwerveMath#limitVelocity}.
+     */
+    private static final Pose2d POSE = new Pose2d(3, 4, Rotation2d.fromDegrees(30));
+    /**
+     * Robot mass distribution for {@link SwerveMath#limitVelocity}.
+     */
+    private static final List<Matter> MATTER = List.of(
+        new Matter(new Translation3d(0, 0, 0.2), 50),
+        new Matter(new Translation3d(0.1, 0, 0.8), 5)
+    );
+
+    @Benchmark
+    public void drive(SimulatedSwerveDrive state) {
+        state.swerveDrive.drive(SPEEDS, false, Translation2d.kZero);
+    }
+
+    @Benchmark
+    public SwerveModuleState[] movementOptimizations(SimulatedSwerveDrive state) {
+        // toServeModuleStates runs movementOptimizations before kinematics when optimize is set.
+        state.swerveDrive.chassisVelocityCorrection = true;
+        state.swerveDrive.angularVelocityCorrection = true;
+        state.swerveDrive.angularVelocityCoefficient = 0.1;
+        return state.swerveDrive.toServeModuleStates(SPEEDS, true);
+    }
+
+    @Benchmark
+    public ChassisSpeeds angularVelocitySkewCorrection(SimulatedSwerveDrive state) {
+        state.swerveDrive.angularVelocityCoefficient = 0.1;
+        return state.swerveDrive.angularVelocitySkewCorrection(SPEEDS);
+    }
+
+    @Benchmark
+    public Translation2d limitVelocity(SimulatedSwerveDrive state) {
+        return SwerveMath.limitVelocity(
+            COMMANDED_VELOCITY,
+            FIELD_VELOCITY,
+            POSE,
+            0.02,
+            55,
+            MATTER,
+            state.swerveDrive.swerveDriveConfiguration
+        );
+    }
+
+    @Benchmark
+    public void updateOdometry(SimulatedSwerveDrive state) {
+        state.swerveDrive.updateOdometry();
+    }
+}
@@ -0,0 +1,65 @@
+package swervelib;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-loop cost of turning controller axes into {@link ChassisSpeeds} through {@link SwerveInputStream#get()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SwerveInputStreamBenchmark {
+
+    /**
+     * Input stream using angular velocity control.
+     */
+    private SwerveInputStream angularVelocityStream;
+    /**
+     * Input stream using heading control.
+     */
+    private SwerveInputStream headingStream;
+
+    /**
+     * Build the input streams on top of the simulated drive.
+     *
+     * @param drive Simulated swerve drive.
+     */
+    @Setup(Level.Trial)
+    public void setup(SimulatedSwerveDrive drive) {
+        angularVelocityStream = SwerveInputStream.of(drive.swerveDrive, () -> 0.6, () -> -0.3)
+            .withControllerRotationAxis(() -> 0.4)
+            .deadband(0.05)
+            .scaleTranslation(0.8)
+            .cubeTranslationControllerAxis(true)
+            .allianceRelativeControl(false);
+        headingStream = angularVelocityStream
+            .copy()
+            .withControllerHeadingAxis(() -> 0.7, () -> 0.7)
+            .headingWhile(true);
+    }
+
+    @Benchmark
+    public ChassisSpeeds angularVelocity() {
+        return angularVelocityStream.get();
+    }
+
+    @Benchmark
+    public ChassisSpeeds heading() {
+        return headingStream.get();
+    }
+}
@@ -0,0 +1,72 @@
+package swervelib.math;
+
+import edu.wpi.first.util.DoubleCircularBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of adding an IMU reading and reading back the average, through the running sum
+ * {@link IMULinearMovingAverageFilter} and the previous implementation that re-summed a {@link DoubleCircularBuffer} on
+ * every calculate().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IMULinearMovingAverageFilterBenchmark {
+
+    /**
+     * Filter taps, the default and a long filter.
+     */
+    @Param({"5", "50"})
+    public int taps;
+
+    private IMULinearMovingAverageFilter filter;
+    private DoubleCircularBuffer buffer;
+    private double gain;
+    private double reading;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        filter = new IMULinearMovingAverageFilter(taps);
+        buffer = new DoubleCircularBuffer(taps);
+        gain = 1.0 / taps;
+    }
+
+    /**
+     * Next gyro reading, varying so the sums can't be folded away.
+     */
+    private double nextReading() {
+        reading = (reading + 0.37) % 10;
+        return reading;
+    }
+
+    @Benchmark
+    public double runningSum() {
+        filter.addValue(nextReading());
+        return filter.calculate();
+    }
+
+    @Benchmark
+    public double resum() {
+        buffer.addFirst(nextReading());
+        double average = 0.0;
+        for (int i = 0; i < buffer.size(); i++) {
+            average += buffer.get(i) * gain;
+        }
+        return average;
+    }
+}
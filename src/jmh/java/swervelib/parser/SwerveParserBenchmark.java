@@ -0,0 +1,79 @@
+package swervelib.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to load the deployed swerve configuration with Jackson and from the {@link SwerveConfigurationSnapshot}
+ * compiled by the swerveConfigSnapshot task. The cold benchmarks time the first load in a fresh JVM, which is what the
+ * robot pays on boot; the others time a warmed up load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SwerveParserBenchmark {
+
+    /**
+     * Deployed swerve configuration directory.
+     */
+    private final File directory = new File("src/main/deploy/swerve");
+    /**
+     * Snapshot written by the swerveConfigSnapshot task.
+     */
+    private final File snapshot = new File("build/generated/swerve", SwerveConfigurationSnapshot.FILE_NAME);
+
+    /**
+     * Check the snapshot exists without loading anything, so the cold benchmarks stay cold.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        if (!snapshot.exists()) {
+            throw new IllegalStateException("Run the swerveConfigSnapshot task before benchmarking.");
+        }
+    }
+
+    @Benchmark
+    public SwerveConfigurationSnapshot json() throws IOException {
+        return SwerveConfigurationSnapshot.parseJson(directory);
+    }
+
+    @Benchmark
+    public SwerveConfigurationSnapshot snapshot() {
+        return SwerveConfigurationSnapshot.read(directory, snapshot).orElseThrow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public SwerveConfigurationSnapshot jsonCold() throws IOException {
+        return SwerveConfigurationSnapshot.parseJson(directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public SwerveConfigurationSnapshot snapshotCold() {
+        return SwerveConfigurationSnapshot.read(directory, snapshot).orElseThrow();
+    }
+}
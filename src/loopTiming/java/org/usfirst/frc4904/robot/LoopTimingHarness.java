@@ -0,0 +1,266 @@
+package org.usfirst.frc4904.robot;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import org.usfirst.frc4904.robot.RobotMap.Component;
+import org.usfirst.frc4904.standard.LoopHistogram;
+import org.usfirst.frc4904.standard.LoopProfiler;
+
+import swervelib.SwerveInputStream;
+
+/**
+ * Boots {@link Robot} under HAL simulation, drives a scripted disabled, auton and
+ * teleop session in real time, and checks the {@link LoopProfiler} timings against
+ * {@code loop-timing-baseline.properties}. Exits with status 1 if any timing exceeds
+ * its budget times the tolerance, so CI can run {@code ./gradlew loopTiming} as a
+ * separate step. It is not part of {@code check}, since the timings depend on the
+ * machine running the build.
+ * <p>
+ * The tolerance is the {@code tolerance} key in the baseline, overridden by the
+ * {@code loopTiming.tolerance} system property ({@code -PloopTimingTolerance} in
+ * Gradle) on runners slower than the machine the baseline was measured on.
+ * <p>
+ * A warm-up session runs first and is not measured, so class loading and JIT
+ * compilation don't count against the budgets. Only p50 and p99 are checked; single
+ * slow loops from GC or the desktop scheduler are too noisy to fail a build on, so
+ * max is only reported.
+ * <p>
+ * Usage: {@code LoopTimingHarness [report file]}
+ */
+public class LoopTimingHarness {
+    private static final String BASELINE = "/loop-timing-baseline.properties";
+    private static final String TOLERANCE = "tolerance";
+    private static final double DEFAULT_TOLERANCE = 2;
+    private static final double PERIOD = 0.02; // seconds
+    // max is reported but not checked
+    private static final String[] METRICS = { "p50", "p99" };
+
+    /** A robot whose loop can be stepped by the harness */
+    private static class SteppedRobot extends Robot {
+        void step() {
+            loopFunc();
+        }
+    }
+
+    private enum Mode {
+        DISABLED,
+        AUTONOMOUS,
+        TELEOP
+    }
+
+    private record Phase(String name, Mode mode, double seconds, Runnable onStart) {}
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path report = Path.of(args.length > 0 ? args[0] : "build/reports/loopTiming/results.txt");
+        Properties budgets = loadBudgets();
+
+        HAL.initialize(500, 0);
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+
+        SteppedRobot robot = new SteppedRobot();
+        robot.robotInit();
+        LoopProfiler.setEnabled(true);
+
+        run(robot, warmUpPhases());
+        LoopProfiler.reset();
+        run(robot, phases());
+
+        double tolerance = toleranceFor(budgets);
+        List<String> violations = check(budgets, tolerance);
+        writeReport(report, violations, tolerance);
+
+        if (!violations.isEmpty()) {
+            System.err.println("Loop timing budgets exceeded:");
+            for (String violation : violations) {
+                System.err.println("  " + violation);
+            }
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /** Exercise the auton and teleop paths before measuring */
+    private static List<Phase> warmUpPhases() {
+        List<Phase> phases = new ArrayList<>();
+        phases.add(new Phase("warm-up auton", Mode.AUTONOMOUS, 3, () -> {}));
+        phases.add(new Phase("warm-up teleop", Mode.TELEOP, 5, () -> {}));
+        return phases;
+    }
+
+    private static List<Phase> phases() {
+        List<Phase> phases = new ArrayList<>();
+        phases.add(new Phase("disabled", Mode.DISABLED, 1, () -> {}));
+        phases.add(new Phase("auton", Mode.AUTONOMOUS, 15, () -> {}));
+        phases.add(new Phase("disabled", Mode.DISABLED, 0.5, () -> {}));
+        phases.add(new Phase("teleop joysticks", Mode.TELEOP, 10, () -> {}));
+        phases.add(new Phase("teleop input stream", Mode.TELEOP, 10, LoopTimingHarness::scheduleInputStream));
+        phases.add(new Phase("disabled", Mode.DISABLED, 0.5, () -> {}));
+        return phases;
+    }
+
+    /** Drive with a {@link SwerveInputStream} fed by the same scripted axes as the joysticks */
+    private static void scheduleInputStream() {
+        Supplier<Double> time = () -> System.nanoTime() / 1e9;
+        SwerveInputStream stream = SwerveInputStream.of(
+            Component.chassis.swerveDrive,
+            () -> 0.6 * Math.sin(time.get()),
+            () -> 0.6 * Math.cos(time.get() * 0.7)
+        )
+            .withControllerRotationAxis(() -> 0.4 * Math.sin(time.get() * 1.3))
+            .deadband(0.05)
+            .allianceRelativeControl(false);
+
+        Command command = Component.chassis.run(() -> Component.chassis.swerveDrive.driveFieldOriented(stream.get()));
+        command.setName("SwerveInputStream drive");
+        CommandScheduler.getInstance().schedule(command);
+    }
+
+    private static void run(SteppedRobot robot, List<Phase> phases) throws InterruptedException {
+        long periodNanos = (long) (PERIOD * 1e9);
+
+        for (Phase phase : phases) {
+            System.out.println("Loop timing: " + phase.name + " for " + phase.seconds + "s");
+            setMode(phase.mode);
+            robot.step(); // let the robot see the mode change before starting the phase
+            phase.onStart.run();
+
+            long ticks = Math.round(phase.seconds / PERIOD);
+            long next = System.nanoTime();
+            for (long tick = 0; tick < ticks; tick++) {
+                scriptJoysticks(tick * PERIOD);
+
+                long start = System.nanoTime();
+                robot.step();
+                LoopProfiler.record("loopFunc", System.nanoTime() - start);
+
+                next += periodNanos;
+                long sleep = next - System.nanoTime();
+                if (sleep > 0) {
+                    Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+                } else {
+                    next = System.nanoTime();
+                }
+            }
+        }
+    }
+
+    private static void setMode(Mode mode) {
+        DriverStationSim.setEnabled(mode != Mode.DISABLED);
+        DriverStationSim.setAutonomous(mode == Mode.AUTONOMOUS);
+        DriverStationSim.setTest(false);
+        DriverStationSim.notifyNewData();
+    }
+
+    /** Sweep the driver and operator joysticks through smooth, overlapping motions */
+    private static void scriptJoysticks(double t) {
+        DriverStationSim.setJoystickAxisCount(RobotMap.Port.HumanInput.xyJoystickPort, 4);
+        DriverStationSim.setJoystickAxisCount(RobotMap.Port.HumanInput.zJoystickPort, 4);
+        DriverStationSim.setJoystickAxisCount(RobotMap.Port.HumanInput.joystick, 4);
+
+        DriverStationSim.setJoystickAxis(RobotMap.Port.HumanInput.xyJoystickPort, 0, 0.8 * Math.sin(t * 0.9));
+        DriverStationSim.setJoystickAxis(RobotMap.Port.HumanInput.xyJoystickPort, 1, 0.8 * Math.cos(t * 0.6));
+        DriverStationSim.setJoystickAxis(RobotMap.Port.HumanInput.zJoystickPort, 0, 0.5 * Math.sin(t * 1.7));
+        DriverStationSim.setJoystickAxis(RobotMap.Port.HumanInput.joystick, 1, 0.3 * Math.sin(t * 0.4));
+        DriverStationSim.notifyNewData();
+    }
+
+    private static Properties loadBudgets() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = LoopTimingHarness.class.getResourceAsStream(BASELINE)) {
+            if (in == null) throw new IOException("Missing " + BASELINE);
+            budgets.load(in);
+        }
+        return budgets;
+    }
+
+    /**
+     * @return How far over its budget a timing may be before it fails, as a multiple of the budget
+     */
+    private static double toleranceFor(Properties budgets) {
+        String value = System.getProperty("loopTiming." + TOLERANCE, budgets.getProperty(TOLERANCE));
+        return value != null ? Double.parseDouble(value.trim()) : DEFAULT_TOLERANCE;
+    }
+
+    /**
+     * @return The budget for a metric in microseconds, falling back to the {@code *.periodic()} or
+     *         {@code *.execute()} wildcard, or null if there is none
+     */
+    private static Long budgetFor(Properties budgets, String name, String metric) {
+        String value = budgets.getProperty(name + "." + metric);
+        if (value == null) {
+            int dot = name.lastIndexOf('.');
+            if (dot > 0) value = budgets.getProperty("*" + name.substring(dot) + "." + metric);
+        }
+        return value != null ? Long.parseLong(value.trim()) : null;
+    }
+
+    private static long valueOf(LoopHistogram histogram, String metric) {
+        return switch (metric) {
+            case "p50" -> histogram.getPercentile(50);
+            case "p99" -> histogram.getPercentile(99);
+            default -> histogram.getMax();
+        };
+    }
+
+    private static List<String> check(Properties budgets, double tolerance) {
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<String, LoopHistogram> entry : LoopProfiler.getHistograms().entrySet()) {
+            for (String metric : METRICS) {
+                Long budget = budgetFor(budgets, entry.getKey(), metric);
+                if (budget == null) continue;
+
+                long micros = valueOf(entry.getValue(), metric) / 1000;
+                double ratio = (double) micros / budget;
+                if (ratio > tolerance) {
+                    violations.add(String.format(
+                        "%s %s %dus is %.2fx budget %dus, tolerance %.2fx",
+                        entry.getKey(), metric, micros, ratio, budget, tolerance
+                    ));
+                }
+            }
+        }
+        return violations;
+    }
+
+    private static void writeReport(Path report, List<String> violations, double tolerance) throws IOException {
+        if (report.getParent() != null) Files.createDirectories(report.getParent());
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(report))) {
+            out.printf("%-48s %8s %10s %10s %10s%n", "name", "count", "p50 us", "p99 us", "max us");
+            for (Map.Entry<String, LoopHistogram> entry : LoopProfiler.getHistograms().entrySet()) {
+                LoopHistogram histogram = entry.getValue();
+                out.printf(
+                    "%-48s %8d %10d %10d %10d%n",
+                    entry.getKey(),
+                    histogram.getCount(),
+                    histogram.getPercentile(50) / 1000,
+                    histogram.getPercentile(99) / 1000,
+                    histogram.getMax() / 1000
+                );
+            }
+            out.println();
+            out.printf("Measured after warm-up; only p50 and p99 are checked, at up to %.2fx their budgets.%n", tolerance);
+            out.println(violations.isEmpty() ? "All budgets met" : "Budgets exceeded:");
+            for (String violation : violations) {
+                out.println("  " + violation);
+            }
+        }
+        System.out.println(Files.readString(report));
+    }
+}
@@ -12,6 +12,8 @@ import org.usfirst.frc4904.robot.RobotMap.Component;
 import org.usfirst.frc4904.robot.humaninterface.drivers.SwerveGain;
 import org.usfirst.frc4904.robot.humaninterface.operators.DefaultOperator;
 import org.usfirst.frc4904.standard.CommandRobotBase;
+import org.usfirst.frc4904.standard.LogKitten;
+import org.usfirst.frc4904.standard.LogKitten.KittenLevel;
 import org.usfirst.frc4904.standard.humaninput.Driver;
 
 import edu.wpi.first.wpilibj.DutyCycleEncoder;
@@ -67,10 +69,7 @@ public class Robot extends CommandRobotBase {
 
     @Override
     public void teleopExecute() {
-        System.out.println("enc: " + enc.get());
-
-        // TODO maybe unnecessary
-        Component.vision.periodic();
+        LogKitten.log(KittenLevel.DEBUG, "enc: %f", enc.get());
 
         double y = RobotMap.HumanInput.Operator.joystick.getY();
 
@@ -11,6 +11,7 @@ import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.AddressableLED;
 import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
 import org.photonvision.PhotonCamera;
 import org.usfirst.frc4904.robot.humaninterface.HumanInterfaceConfig;
 import org.usfirst.frc4904.robot.subsystems.*;
@@ -20,6 +21,7 @@ import org.usfirst.frc4904.standard.custom.controllers.CustomCommandXbox;
 import org.usfirst.frc4904.standard.custom.motorcontrollers.CANTalonFX;
 import org.usfirst.frc4904.standard.custom.motorcontrollers.CustomCANSparkMax;
 import org.usfirst.frc4904.standard.custom.motorcontrollers.SmartMotorController;
+import org.usfirst.frc4904.standard.custom.sensors.PDP;
 
 import java.io.File;
 
@@ -76,6 +78,7 @@ public class RobotMap {
         public static CustomEncoder elevatorEncoder;
 
         public static AHRS navx;
+        public static PDP pdp;
 
         // subsystems
         public static SwerveSubsystem chassis;
@@ -151,6 +154,14 @@ public class RobotMap {
         ); //BENSPEED IS 5, NOTBENSPEED IS 3
         // Component.chassis.swerveDrive.setGyroOffset(new Rotation3d(0, 0, Units.degreesToRadians(180)));
 
+        // there's no PDP on the CAN bus in simulation
+        if (RobotBase.isReal()) {
+            Component.pdp = new PDP();
+            Component.chassis.setTractionController(
+                new TractionController(Component.pdp, Component.chassis.swerveDrive)
+            );
+        }
+
         Component.cameraLeft = new PhotonCamera("dauntless-left");
         Component.cameraRight = new PhotonCamera("dauntless-right");
         Component.vision = new VisionSubsystem(
@@ -1,57 +1,96 @@
-// package org.usfirst.frc4904.robot.commands.net;
+package org.usfirst.frc4904.robot.commands.net;
 
-// import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Optional;
 
-// import org.usfirst.frc4904.robot.subsystems.Turret;
-// import org.usfirst.frc4904.robot.subsystems.net.RobotUDP;
-// import org.usfirst.frc4904.robot.subsystems.net.messages.OdometryUpdate;
-// import org.usfirst.frc4904.standard.Util;
-// import org.usfirst.frc4904.standard.custom.sensors.NavX;
-// import org.usfirst.frc4904.standard.subsystems.chassis.SensorDrive;
+import org.usfirst.frc4904.robot.subsystems.net.RobotUDP;
+import org.usfirst.frc4904.robot.subsystems.net.messages.OdometryUpdate;
+import org.usfirst.frc4904.standard.LogKitten;
+import org.usfirst.frc4904.standard.subsystems.net.UDPSocket;
 
-// import edu.wpi.first.math.geometry.Pose2d;
-// import edu.wpi.first.math.geometry.Rotation2d;
-// import edu.wpi.first.wpilibj.RobotController;
-// import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+import swervelib.SwerveDrive;
+import swervelib.odometry.OdometrySnapshot;
 
-// public class OdometrySend extends Command {
-//     private final static double SECS_PER_MICROSEC = Util.timeConversionFactor(TimeUnit.MICROSECONDS, TimeUnit.SECONDS);
+/**
+ * Streams the robot's pose, velocity and acceleration to the coprocessor as
+ * {@link OdometryUpdate}s. Sends from its own {@link Notifier}, so the rate isn't
+ * limited by the 50 Hz robot loop.
+ */
+public class OdometrySend extends Command {
+    public static final double MAX_RATE = 250; // Hz
 
-//     private final RobotUDP net;
+    private final RobotUDP net;
+    private final SwerveDrive swerveDrive;
+    private final double period;
 
-//     private final SensorDrive sensorDrive;
-//     private final NavX navx;
-//     private final Turret turret;
+    private final Notifier notifier;
+    // only touched by the notifier thread
+    private final OdometryUpdate update = new OdometryUpdate();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(UDPSocket.MAX_PACKET_SIZE);
+    private int sequence = 0;
 
-//     private long lastTimestamp;
+    /**
+     * @param net         The link to the coprocessor
+     * @param swerveDrive The drive to read odometry from
+     * @param rate        Updates per second, up to {@link #MAX_RATE}
+     */
+    public OdometrySend(RobotUDP net, SwerveDrive swerveDrive, double rate) {
+        if (rate <= 0 || rate > MAX_RATE) {
+            throw new IllegalArgumentException("OdometrySend rate must be between 0 and " + MAX_RATE + " Hz, got " + rate);
+        }
+        this.net = net;
+        this.swerveDrive = swerveDrive;
+        this.period = 1 / rate;
 
-//     public OdometrySend(RobotUDP net, SensorDrive sensorDrive, NavX navx, Turret turret) {
-//         this.net = net;
+        notifier = new Notifier(this::send);
+        notifier.setName("OdometrySend");
+    }
 
-//         this.sensorDrive = sensorDrive;
-//         this.navx = navx;
-//         this.turret = turret;
-//     }
+    private void send() {
+        // pose and velocity from the same odometry update
+        final OdometrySnapshot odometry = swerveDrive.getOdometrySnapshot();
+        final Pose2d pose = odometry.getPose();
+        final ChassisSpeeds velocity = odometry.getRobotVelocity();
+        final Optional<Translation3d> accel = swerveDrive.getAccel();
 
-//     @Override
-//     public void execute() {
-//         final long timestamp = RobotController.getFPGATime();
+        update.sequence = sequence++;
+        update.timestampMicros = RobotController.getFPGATime();
+        update.x = pose.getX();
+        update.y = pose.getY();
+        update.theta = pose.getRotation().getRadians();
+        update.vx = velocity.vxMetersPerSecond;
+        update.vy = velocity.vyMetersPerSecond;
+        update.omega = velocity.omegaRadiansPerSecond;
+        update.ax = accel.isPresent() ? accel.get().getX() : Double.NaN;
+        update.ay = accel.isPresent() ? accel.get().getY() : Double.NaN;
+        update.az = accel.isPresent() ? accel.get().getZ() : Double.NaN;
 
-//         final double dt = lastTimestamp == 0 ? 0 : (timestamp - lastTimestamp) * SECS_PER_MICROSEC;
-//         final var accelYawDegrees = dt == 0 ? 0 : navx.getRate() / dt;
+        try {
+            net.sendOdometry(update, buffer);
+        } catch (IOException ex) {
+            LogKitten.ex(ex);
+        }
+    }
 
-//         final var accel = new Pose2d(
-//                 navx.getWorldLinearAccelX(),
-//                 navx.getWorldLinearAccelY(),
-//                 Rotation2d.fromDegrees(accelYawDegrees));
+    @Override
+    public void initialize() {
+        notifier.startPeriodic(period);
+    }
 
-//         final var update = new OdometryUpdate(
-//                 sensorDrive.getPose(),
-//                 accel,
-//                 turret.getAngle(),
-//                 timestamp);
+    @Override
+    public void end(boolean interrupted) {
+        notifier.stop();
+    }
 
-//         net.updateOdometry(update);
-//         lastTimestamp = timestamp;
-//     }
-// }
+    @Override
+    public boolean runsWhenDisabled() {
+        return true;
+    }
+}
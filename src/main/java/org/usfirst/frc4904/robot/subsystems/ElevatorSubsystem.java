@@ -1,20 +1,23 @@
 package org.usfirst.frc4904.robot.subsystems;
 
-import edu.wpi.first.math.Pair;
 import edu.wpi.first.math.controller.ElevatorFeedforward;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.*;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.function.DoubleSupplier;
 
 import org.usfirst.frc4904.robot.RobotMap.Component;
+import org.usfirst.frc4904.standard.LogKitten;
+import org.usfirst.frc4904.standard.LogKitten.KittenLevel;
 import org.usfirst.frc4904.standard.commands.CreateOnInitialize;
 import org.usfirst.frc4904.standard.commands.NoOp;
 import org.usfirst.frc4904.standard.custom.CustomEncoder;
+import org.usfirst.frc4904.standard.custom.motioncontrollers.TrapezoidProfileTable;
 import org.usfirst.frc4904.standard.custom.motioncontrollers.ezControl;
 import org.usfirst.frc4904.standard.custom.motioncontrollers.ezMotion;
+import org.usfirst.frc4904.standard.custom.motioncontrollers.ezSetpoint;
 import org.usfirst.frc4904.standard.custom.motorcontrollers.SmartMotorController;
 
 public class ElevatorSubsystem extends MotorSubsystem {
@@ -32,6 +35,13 @@ public class ElevatorSubsystem extends MotorSubsystem {
     public static final double MAX_VEL = 8;
     public static final double MAX_ACCEL = MAX_VEL * 4; // accelerate to max speed in 1/4 of a second
 
+    public static final TrapezoidProfile.Constraints PROFILE_CONSTRAINTS = new TrapezoidProfile.Constraints(MAX_VEL, MAX_ACCEL);
+
+    // precomputed profiles are sampled this often
+    public static final double PROFILE_TABLE_DT = 0.005; // seconds
+    // use a precomputed profile if the elevator starts within this distance of the profile's start position
+    public static final double PROFILE_START_TOLERANCE = 0.05;
+
     public static final double MIN_HEIGHT = 0;
     public static final double MAX_HEIGHT = 12.5; //12.5 normal, 6 w/o 3rd stage
 
@@ -47,6 +57,9 @@ public class ElevatorSubsystem extends MotorSubsystem {
 
     public static HashMap<Position, Double> positions = new HashMap<>();
 
+    // precomputed profiles between every pair of positions, indexed by [from][to]
+    private final EnumMap<Position, EnumMap<Position, TrapezoidProfileTable>> profileTables = new EnumMap<>(Position.class);
+
     public ElevatorSubsystem(SmartMotorController motor1, SmartMotorController motor2, CustomEncoder encoder) {
         super(
             new SmartMotorController[] { motor1, motor2 },
@@ -71,6 +84,47 @@ public class ElevatorSubsystem extends MotorSubsystem {
                 );
             }
         }
+
+        buildProfileTables();
+    }
+
+    /** Precompute profiles between every pair of defined positions */
+    private void buildProfileTables() {
+        for (var from : Position.values()) {
+            Double fromHeight = positions.get(from);
+            if (fromHeight == null) continue;
+
+            var tables = new EnumMap<Position, TrapezoidProfileTable>(Position.class);
+            for (var to : Position.values()) {
+                Double toHeight = positions.get(to);
+                if (toHeight == null || to == from) continue;
+
+                tables.put(to, new TrapezoidProfileTable(
+                    PROFILE_CONSTRAINTS,
+                    new TrapezoidProfile.State(fromHeight, 0),
+                    new TrapezoidProfile.State(toHeight, 0),
+                    PROFILE_TABLE_DT
+                ));
+            }
+            profileTables.put(from, tables);
+        }
+    }
+
+    /**
+     * Find a precomputed profile to a position from the current height
+     *
+     * @param startHeight The height the profile should start at
+     * @param to          The position to go to
+     * @return The profile, or null if the elevator is not close enough to any defined position
+     */
+    private TrapezoidProfileTable getProfileTable(double startHeight, Position to) {
+        for (var entry : profileTables.entrySet()) {
+            double fromHeight = positions.get(entry.getKey());
+            if (Math.abs(startHeight - fromHeight) <= PROFILE_START_TOLERANCE) {
+                return entry.getValue().get(to);
+            }
+        }
+        return null;
     }
 
     /**
@@ -164,7 +218,7 @@ public class ElevatorSubsystem extends MotorSubsystem {
     public Command c_controlVelocity(DoubleSupplier metersPerSecDealer) {
         var cmd = this.run(() -> {
             var ff = this.feedforward.calculate(metersPerSecDealer.getAsDouble());
-            SmartDashboard.putNumber("feedforward", ff);
+            LogKitten.log(KittenLevel.DEBUG, "elevator feedforward: %.3f", ff);
             this.setVoltage(ff);
         });
         cmd.setName("elevator - c_controlVelocity");
@@ -180,48 +234,52 @@ public class ElevatorSubsystem extends MotorSubsystem {
             return new NoOp();
         }
 
-        return c_gotoHeight(height);
+        return new CreateOnInitialize(() -> this.getRawHeightCommand(height, pos));
     }
 
     public Command c_gotoHeight(double height) {
-        return new CreateOnInitialize(() -> this.getRawHeightCommand(height));
+        return new CreateOnInitialize(() -> this.getRawHeightCommand(height, null));
     }
 
-    private Command getRawHeightCommand(double height) {
+    /**
+     * @param height The height to go to
+     * @param pos    The position matching {@code height}, used to look up a precomputed profile.
+     *               null for arbitrary heights, which are profiled online.
+     */
+    private Command getRawHeightCommand(double height, Position pos) {
         ezControl controller = new ezControl(
             kP, kI, kD,
             (position, velocityMetersPerSec) -> this.feedforward.calculate(velocityMetersPerSec),
             0.02
         );
 
-        TrapezoidProfile profile = new TrapezoidProfile(
-            new TrapezoidProfile.Constraints(MAX_VEL, MAX_ACCEL)
-        );
+        double startHeight = getHeight();
+        TrapezoidProfileTable table = pos != null ? getProfileTable(startHeight, pos) : null;
+
+        if (table == null) {
+            // arbitrary start or target, so sample a profile now instead of computing one every tick
+            table = new TrapezoidProfileTable(
+                PROFILE_CONSTRAINTS,
+                new TrapezoidProfile.State(startHeight, 0), // TODO why are we assuming the velocity is 0
+                new TrapezoidProfile.State(height, 0),
+                PROFILE_TABLE_DT
+            );
+        }
 
-        Command cmd = getEzMotion(
-            controller,
-            profile,
-            new TrapezoidProfile.State(getHeight(), 0), // TODO why are we assuming the velocity is 0
-            new TrapezoidProfile.State(height, 0)
-        );
+        Command cmd = getEzMotion(controller, table);
         cmd.setName("elevator - c_gotoHeight");
         cmd.addRequirements(this);
         return cmd;
     }
 
-    private ezMotion getEzMotion(
-        ezControl controller,
-        TrapezoidProfile profile,
-        TrapezoidProfile.State current,
-        TrapezoidProfile.State goal
-    ) {
+    private ezMotion getEzMotion(ezControl controller, TrapezoidProfileTable table) {
         return new ezMotion(
             controller,
             this::getHeight,
             this::setVoltage,
-            (double t) -> {
-                TrapezoidProfile.State result = profile.calculate(t, current, goal);
-                return new Pair<>(result.position, result.velocity);
+            (double t, ezSetpoint out) -> {
+                out.set(table.getPosition(t), table.getVelocity(t));
+                return false;
             },
             this
         ) {
@@ -2,11 +2,11 @@ package org.usfirst.frc4904.robot.subsystems;
 
 import edu.wpi.first.units.Units;
 import edu.wpi.first.wpilibj.*;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import org.usfirst.frc4904.standard.Perlin2D;
 import org.usfirst.frc4904.standard.Util;
+import org.usfirst.frc4904.standard.subsystems.ProfiledSubsystem;
 
-public class LightSubsystem extends SubsystemBase {
+public class LightSubsystem extends ProfiledSubsystem {
 
     public static class Color {
 
@@ -29,37 +29,70 @@ public class LightSubsystem extends SubsystemBase {
 
     double lastUpdateTime;
 
-    private static class BufferViewData {
+    // progress bars are drawn over the fire, but are turned off for now
+    private static final boolean SHOW_PROGRESS = false;
 
-        public final float[][] colorArray;
+    // gamma correction lookup, from linear brightness to the value sent to the LEDs
+    private static final int GAMMA_STEPS = 1024;
+    private static final int[] GAMMA = new int[GAMMA_STEPS];
+
+    static {
+        for (int i = 0; i < GAMMA_STEPS; i++) {
+            float linear = (float) i / (GAMMA_STEPS - 1);
+            GAMMA[i] = (int) (linear * linear * 255);
+        }
+    }
+
+    /** Gamma correct a linear brightness from 0-1 to 0-255 */
+    private static int gamma(float value) {
+        int index = (int) (value * (GAMMA_STEPS - 1) + 0.5f);
+        return GAMMA[Math.max(0, Math.min(GAMMA_STEPS - 1, index))];
+    }
+
+    private static class Strip {
+
+        public final int length;
+        /** Base layer as flat RGBA floats from 0-1, 4 per LED */
+        public final float[] colors;
+        /** RGB bytes last written to the view, 3 per LED */
+        public final byte[] frame;
         public final AddressableLEDBufferView view;
+        /** Whether {@link #frame} matches what is in the LED buffer */
+        public boolean frameValid = false;
 
-        public BufferViewData(AddressableLEDBuffer buffer, int start, int length, boolean reverse) {
-            colorArray = new float[length][4];
+        public Strip(AddressableLEDBuffer buffer, int start, int length, boolean reverse) {
+            this.length = length;
+            colors = new float[length * 4];
+            frame = new byte[length * 3];
 
             int end = start + length - 1;
             view = buffer.createView(reverse ? end : start, reverse ? start : end);
         }
 
-        public void copyColorsToBuffer() {
-            for (int i = 0; i < colorArray.length; i++) {
-                float[] color = colorArray[i];
-                float a = color[3];
-
-                view.setRGB(
-                    i,
-                    (int) (Math.pow(color[0] * a, 2) * 255),
-                    (int) (Math.pow(color[1] * a, 2) * 255),
-                    (int) (Math.pow(color[2] * a, 2) * 255)
-                );
+        /**
+         * Write a pixel to the LED buffer if it differs from the last frame.
+         *
+         * @return Whether the pixel changed
+         */
+        public boolean set(int i, int r, int g, int b) {
+            int j = i * 3;
+            if (frameValid && frame[j] == (byte) r && frame[j + 1] == (byte) g && frame[j + 2] == (byte) b) {
+                return false;
             }
+            frame[j] = (byte) r;
+            frame[j + 1] = (byte) g;
+            frame[j + 2] = (byte) b;
+            view.setRGB(i, r, g, b);
+            return true;
         }
 
     }
 
     final AddressableLED led;
     final AddressableLEDBuffer buffer;
-    final BufferViewData[] views;
+    final Strip[] strips;
+    // fire noise for the strip being drawn, sized for the longest strip
+    private final float[] noiseRow;
 
     public LightSubsystem(AddressableLED led, int ledLength, int[] lengths, boolean[] reverse) {
         this.led = led;
@@ -68,69 +101,97 @@ public class LightSubsystem extends SubsystemBase {
         led.setLength(ledLength);
         led.start();
 
-        this.views = new BufferViewData[lengths.length];
+        this.strips = new Strip[lengths.length];
         int start = 0;
+        int longest = 0;
         for (int i = 0; i < lengths.length; i++) {
-            this.views[i] = new BufferViewData(buffer, start, lengths[i], reverse[i]);
+            this.strips[i] = new Strip(buffer, start, lengths[i], reverse[i]);
             start += lengths[i];
+            longest = Math.max(longest, lengths[i]);
         }
+        noiseRow = new float[longest];
 
         lastUpdateTime = Timer.getFPGATimestamp();
     }
 
-    private void alphaBlend(float[][] colors, float[] c2, float mix) {
-        float a2 = c2[3] * mix;
-
-        for (float[] c1 : colors) {
-            float a1 = c1[3];
-            float a = a2 + a1 * (1 - a2);
-
-            c1[0] = (c2[0] * a2 + c1[0] * a1 * (1 - a2)) / a;
-            c1[1] = (c2[1] * a2 + c1[1] * a1 * (1 - a2)) / a;
-            c1[2] = (c2[2] * a2 + c1[2] * a1 * (1 - a2)) / a;
-            c1[3] = a;
-        }
-    }
-
-    private void progressBar(float[][] colors, float progress, int[] color) {
-        int length = colors.length;
-
-        for (int i = 0; i < length; i++) {
-            float strength = Util.clamp(progress * length - i, 0, 1);
-            if (strength > 0) {
-                colors[i][0] = color[0] / 255f;
-                colors[i][1] = color[1] / 255f;
-                colors[i][2] = color[2] / 255f;
-            }
-            float alpha = color.length == 4 ? color[3] : 1;
-            colors[i][3] = alpha * strength;
-        }
-    }
-
     private final Perlin2D fireNoise = new Perlin2D(12345678987654321L);
 
-    private void fire(float[][] colors, boolean blue) {
+    private void fire(Strip strip, boolean blue) {
+        float[] colors = strip.colors;
         float time = (float) lastUpdateTime;
+        fireNoise.fill(time, time * 2, 0, -0.13f, noiseRow, 0, strip.length);
 
-        for (int i = 0; i < colors.length; i++) {
-            float height = 1 - (float) i / (colors.length - 1);
-            float noise = fireNoise.noise(time, -i * 0.13f + time * 2);
-            float strength = (float) Math.pow(noise, 2.5) * 1.3f + height - 0.55f;
+        for (int i = 0; i < strip.length; i++) {
+            float height = 1 - (float) i / (strip.length - 1);
+            float noise = noiseRow[i];
+            float strength = noise * noise * (float) Math.sqrt(noise) * 1.3f + height - 0.55f; // noise^2.5
 
             float r = 1;
             float g = Util.clamp(strength * 2 - 0.5f, 0, 1);
             float b = Util.clamp(strength * 4 - 3, 0, 1);
             float a = Util.clamp(strength * 4, 0, 1);
 
-
             //TODO: make "blue" and "!blue depending on alliance colour"
-            colors[i][0] = !blue ? b : r;
-            colors[i][1] = g * 0.8f; // green LEDs are brighter
-            colors[i][2] = !blue ? r : b;
-            colors[i][3] = a;
+            int j = i * 4;
+            colors[j] = !blue ? b : r;
+            colors[j + 1] = g * 0.8f; // green LEDs are brighter
+            colors[j + 2] = !blue ? r : b;
+            colors[j + 3] = a;
         }
     }
 
+    /**
+     * Draw a strip in one pass: the base layer, then the progress bar, then the flash,
+     * gamma corrected and written only where the frame changed.
+     *
+     * @param progress Progress from 0-1, or -1 for no progress bar
+     * @param flashMix How much of the flash color to blend in, from 0-1
+     * @return Whether any pixel changed
+     */
+    private boolean composite(Strip strip, float progress, int[] progressColor, float flashMix) {
+        float[] colors = strip.colors;
+        int length = strip.length;
+
+        float progressR = 0, progressG = 0, progressB = 0, progressA = 0;
+        if (progress != -1) {
+            progressR = progressColor[0] / 255f;
+            progressG = progressColor[1] / 255f;
+            progressB = progressColor[2] / 255f;
+            progressA = progressColor.length == 4 ? progressColor[3] / 255f : 1;
+        }
+        float flashA = flashColor[3] * flashMix;
+
+        boolean changed = false;
+        for (int i = 0; i < length; i++) {
+            int j = i * 4;
+            float r = colors[j];
+            float g = colors[j + 1];
+            float b = colors[j + 2];
+            float a = colors[j + 3];
+
+            if (progress != -1) {
+                float a2 = progressA * Util.clamp(progress * length - i, 0, 1);
+                float blended = a2 + a * (1 - a2);
+                r = (progressR * a2 + r * a * (1 - a2)) / blended;
+                g = (progressG * a2 + g * a * (1 - a2)) / blended;
+                b = (progressB * a2 + b * a * (1 - a2)) / blended;
+                a = blended;
+            }
+
+            if (flashA > 0) {
+                float blended = flashA + a * (1 - flashA);
+                r = (flashColor[0] * flashA + r * a * (1 - flashA)) / blended;
+                g = (flashColor[1] * flashA + g * a * (1 - flashA)) / blended;
+                b = (flashColor[2] * flashA + b * a * (1 - flashA)) / blended;
+                a = blended;
+            }
+
+            changed |= strip.set(i, gamma(r * a), gamma(g * a), gamma(b * a));
+        }
+        strip.frameValid = true;
+        return changed;
+    }
+
     /**
      * Flash an RGB color for about a second. Color is an array of 3 (RGB) or 4 (RGBA) ints from 0-255.
      */
@@ -167,35 +228,43 @@ public class LightSubsystem extends SubsystemBase {
                                                         );
 
     @Override
-    public void periodic() {
+    protected void profiledPeriodic() {
         double time = Timer.getFPGATimestamp();
         double deltaTime = time - lastUpdateTime;
         lastUpdateTime = time;
 
         if (DriverStation.isDisabled()) {
             rainbowPattern.applyTo(buffer);
-        } else {
-            for (var view : views) {
-                float[][] colors = view.colorArray;
-
-                // if (visionProgress != -1) {
-                //     progressBar(colors, (float) visionProgress, Color.VISION);
-                // } else if (elevatorProgress != -1) {
-                //     progressBar(colors, (float) elevatorProgress, Color.ELEVATOR);
-                // } else {
-                    fire(colors, DriverStation.isAutonomous());
-                // }
-
-                if (flashStrength > 0) {
-                    alphaBlend(colors, flashColor, (float) Math.sqrt(flashStrength));
-                    flashStrength -= (float) deltaTime / 1.5;
-                }
-
-                view.copyColorsToBuffer();
+            for (var strip : strips) {
+                strip.frameValid = false;
             }
+            led.setData(buffer);
+            return;
+        }
+
+        float progress = -1;
+        int[] progressColor = null;
+        if (SHOW_PROGRESS && visionProgress != -1) {
+            progress = (float) visionProgress;
+            progressColor = Color.VISION;
+        } else if (SHOW_PROGRESS && elevatorProgress != -1) {
+            progress = (float) elevatorProgress;
+            progressColor = Color.ELEVATOR;
+        }
+
+        float flashMix = 0;
+        if (flashStrength > 0) {
+            flashMix = (float) Math.sqrt(flashStrength);
+            flashStrength -= (float) deltaTime / 1.5;
+        }
+
+        boolean changed = false;
+        for (var strip : strips) {
+            fire(strip, DriverStation.isAutonomous());
+            changed |= composite(strip, progress, progressColor, flashMix);
         }
 
-        led.setData(buffer);
+        if (changed) led.setData(buffer);
     }
 
 }
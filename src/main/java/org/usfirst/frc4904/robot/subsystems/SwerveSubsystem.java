@@ -22,17 +22,21 @@ import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import java.io.File;
 import java.util.function.DoubleSupplier;
+import org.usfirst.frc4904.standard.LogKitten;
+import org.usfirst.frc4904.standard.LogKitten.KittenLevel;
+import org.usfirst.frc4904.standard.LoopProfiler;
+import org.usfirst.frc4904.standard.subsystems.ProfiledSubsystem;
 import swervelib.SwerveController;
 import swervelib.SwerveDrive;
+import swervelib.math.SwerveSetpointLimiter;
 import swervelib.parser.SwerveDriveConfiguration;
 import swervelib.parser.SwerveParser;
 import swervelib.telemetry.SwerveDriveTelemetry;
 import swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
 
-public class SwerveSubsystem extends SubsystemBase {
+public class SwerveSubsystem extends ProfiledSubsystem {
 
     /**
      * Angle conversion factor.
@@ -51,6 +55,10 @@ public class SwerveSubsystem extends SubsystemBase {
      * Maximum speed of the robot in meters per second, used to limit acceleration.
      */
     private final double maximumSpeed;
+    /**
+     * Battery headroom acceleration limit, if any.
+     */
+    private TractionController traction = null;
 
     /**
      * Initialize {@link SwerveDrive} with the directory provided.
@@ -74,10 +82,12 @@ public class SwerveSubsystem extends SubsystemBase {
         //  In this case the wheel diameter is 4 inches, which must be converted to meters to get meters/second.
         //  The gear ratio is 6.75 motor revolutions per wheel rotation.
         //  The encoder resolution per motor revolution is 1 per motor revolution.
-        System.out.println("\"conversionFactor\": {");
-        System.out.println("\t\"angle\": " + angleConversionFactor + ",");
-        System.out.println("\t\"drive\": " + driveConversionFactor);
-        System.out.println("}");
+        LogKitten.log(
+            KittenLevel.VERBOSE,
+            "\"conversionFactor\": { \"angle\": %s, \"drive\": %s }",
+            angleConversionFactor,
+            driveConversionFactor
+        );
 
         // Configure the Telemetry before creating the SwerveDrive to avoid unnecessary objects being created.
         SwerveDriveTelemetry.verbosity = TelemetryVerbosity.HIGH;
@@ -93,6 +103,10 @@ public class SwerveSubsystem extends SubsystemBase {
             throw new RuntimeException(e);
         }
         swerveDrive.setHeadingCorrection(false); // Heading correction should only be used while controlling the robot via angle.
+        // keep module setpoints within what the steering motors and wheel grip can actually do
+        swerveDrive.setSetpointLimiter(SwerveSetpointLimiter.fromConfiguration(swerveDrive.swerveDriveConfiguration));
+        // odometry runs on its own notifier, so report its worst cycle of each robot loop
+        LoopProfiler.addSampler("odometry", SwerveDriveTelemetry::takeMaxOdomCycleNanos);
 
         setupPathPlanner();
     }
@@ -117,7 +131,7 @@ public class SwerveSubsystem extends SubsystemBase {
         try {
             config = RobotConfig.fromGUISettings();
         } catch (Exception e) {
-            System.out.println(e);
+            LogKitten.ex(e);
             return;
         }
 
@@ -175,7 +189,7 @@ public class SwerveSubsystem extends SubsystemBase {
             // Load the path you want to follow using its name in the GUI
             path = PathPlannerPath.fromPathFile(pathName);
         } catch (Exception e) {
-            System.out.println(e);
+            LogKitten.ex(e);
             return null;
         }
 
@@ -339,8 +353,19 @@ public class SwerveSubsystem extends SubsystemBase {
         swerveDrive.drive(velocity);
     }
 
+    /**
+     * Scale acceleration to the battery headroom, see {@link TractionController}.
+     *
+     * @param traction The traction controller for this drive, or null for none
+     */
+    public void setTractionController(TractionController traction) {
+        this.traction = traction;
+    }
+
     @Override
-    public void periodic() {}
+    protected void profiledPeriodic() {
+        if (traction != null) traction.update();
+    }
 
     @Override
     public void simulationPeriodic() {}
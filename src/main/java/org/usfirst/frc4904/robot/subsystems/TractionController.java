@@ -0,0 +1,119 @@
+package org.usfirst.frc4904.robot.subsystems;
+
+import org.usfirst.frc4904.standard.Util;
+import org.usfirst.frc4904.standard.custom.sensors.PDP;
+
+import edu.wpi.first.wpilibj.Notifier;
+import swervelib.SwerveDrive;
+import swervelib.SwerveModule;
+import swervelib.math.SwerveSetpointLimiter;
+
+/**
+ * Scales the swerve drive's maximum acceleration to the battery headroom left above
+ * brownout, so the drive can push hard without browning out.
+ * <p>
+ * A background {@link Notifier} samples PDP voltage, total current and battery
+ * resistance along with the drive motor currents. It estimates the battery's open
+ * circuit voltage, and from that the most current the robot can draw before the bus
+ * sags to {@link #MIN_BUS_VOLTAGE}. Whatever isn't used by the rest of the robot is
+ * the drive's budget, and acceleration is scaled by how much of a full-acceleration
+ * draw fits in it. {@link #update()} applies the scale on the robot loop. Only
+ * acceleration is scaled; braking lowers the current draw, so the limiter's
+ * deceleration limit is left alone.
+ */
+public class TractionController {
+    // roboRIO brownout is 6.8V, keep some margin for the next loop's spike
+    public static final double MIN_BUS_VOLTAGE = 7.5;
+    public static final double MIN_SCALE = 0.25;
+
+    private static final double SAMPLE_PERIOD = 0.025; // seconds, the PDP sends status every 25ms
+    // PDP resistance readings outside this are noise, in ohms
+    private static final double MIN_RESISTANCE = 0.01;
+    private static final double MAX_RESISTANCE = 0.1;
+    // fraction of the way back to full acceleration per sample, cutting back is immediate
+    private static final double RECOVERY_RATE = 0.1;
+
+    private final PDP pdp;
+    private final SwerveModule[] modules;
+    private final SwerveSetpointLimiter limiter;
+    private final double maxAcceleration;
+    private final double fullAccelerationCurrent;
+    private final Notifier notifier;
+
+    // only touched by the notifier thread
+    private double resistance = 0.02;
+    private volatile double scale = 1;
+
+    /**
+     * @param pdp         The power distribution panel to read battery state from
+     * @param swerveDrive The drive to limit, which must have a {@link SwerveSetpointLimiter}
+     */
+    public TractionController(PDP pdp, SwerveDrive swerveDrive) {
+        this.pdp = pdp;
+        this.modules = swerveDrive.getModules();
+        this.limiter = swerveDrive.getSetpointLimiter();
+        if (limiter == null) {
+            throw new IllegalArgumentException("TractionController needs the swerve drive to have a setpoint limiter");
+        }
+        this.maxAcceleration = limiter.getMaxDriveAcceleration();
+
+        int driveCurrentLimit = swerveDrive.swerveDriveConfiguration.physicalCharacteristics.driveMotorCurrentLimit;
+        this.fullAccelerationCurrent = modules.length * driveCurrentLimit;
+
+        notifier = new Notifier(this::sample);
+        notifier.setName("TractionController");
+        notifier.startPeriodic(SAMPLE_PERIOD);
+    }
+
+    private void sample() {
+        final PDP.Snapshot battery = pdp.getSnapshot();
+        if (battery.isStale()) {
+            // nothing to go on, hold the last scale
+            return;
+        }
+        double voltage = battery.voltage;
+        double totalCurrent = battery.totalCurrent;
+
+        double measuredResistance = battery.resistance;
+        if (measuredResistance >= MIN_RESISTANCE && measuredResistance <= MAX_RESISTANCE) {
+            resistance = measuredResistance;
+        }
+
+        double driveCurrent = 0;
+        for (SwerveModule module : modules) {
+            driveCurrent += Math.abs(module.getDriveMotor().getSupplyCurrent());
+        }
+
+        // V = Voc - I * R, so the most current before the bus sags to MIN_BUS_VOLTAGE is (Voc - Vmin) / R
+        double openCircuitVoltage = voltage + totalCurrent * resistance;
+        double maxCurrent = (openCircuitVoltage - MIN_BUS_VOLTAGE) / resistance;
+        double otherCurrent = Math.max(0, totalCurrent - driveCurrent);
+        double driveBudget = maxCurrent - otherCurrent;
+
+        double target = Util.clamp(driveBudget / fullAccelerationCurrent, MIN_SCALE, 1);
+        double current = scale;
+        scale = target < current ? target : current + (target - current) * RECOVERY_RATE;
+    }
+
+    /**
+     * Apply the latest acceleration scale to the swerve drive. Call from the robot loop.
+     * Modules whose speed magnitude is dropping are still limited by the full
+     * deceleration limit.
+     */
+    public void update() {
+        limiter.setMaxDriveAcceleration(maxAcceleration * scale);
+    }
+
+    /**
+     * @return Fraction of the maximum acceleration currently allowed, from {@link #MIN_SCALE} to 1
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /** Stop sampling */
+    public void close() {
+        notifier.stop();
+        notifier.close();
+    }
+}
@@ -1,27 +1,40 @@
 package org.usfirst.frc4904.robot.subsystems;
 
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.*;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
 import org.photonvision.PhotonCamera;
+import org.photonvision.targeting.MultiTargetPNPResult;
 import org.photonvision.targeting.PhotonPipelineResult;
 import org.photonvision.targeting.PhotonTrackedTarget;
 import org.usfirst.frc4904.robot.RobotMap.Component;
+import org.usfirst.frc4904.standard.LogKitten;
+import org.usfirst.frc4904.standard.LogKitten.KittenLevel;
 import org.usfirst.frc4904.standard.Util;
 import org.usfirst.frc4904.standard.commands.WaitWhile;
+import org.usfirst.frc4904.standard.subsystems.ProfiledSubsystem;
+import swervelib.SwerveDrive;
+import swervelib.odometry.PoseHistory;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /** Sponsored by Claude™ 3.7 Sonnet by Anthropic® */
-public class VisionSubsystem extends SubsystemBase {
+public class VisionSubsystem extends ProfiledSubsystem {
     public enum TagGroup {
         ANY,
         INTAKE,
@@ -72,7 +85,28 @@ public class VisionSubsystem extends SubsystemBase {
     private final double CANT_SEE_TIMEOUT = 1; // give up if we cant see the april tag for this many seconds
     private final double TOTAL_TIMEOUT = 5; // always give up after this many seconds
 
-    private record CameraTag(PhotonTrackedTarget tag, int cameraIndex) {}
+    // field layout used to turn tag observations into field-relative robot poses
+    private static final AprilTagFieldLayout FIELD_LAYOUT = AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeWelded);
+
+    // pose estimates are rejected above these thresholds
+    private static final double MAX_POSE_AMBIGUITY = 0.2;
+    private static final double MAX_TAG_DISTANCE = 4; // meters
+
+    // how often the vision thread checks the cameras for new results
+    private static final double VISION_THREAD_PERIOD = 0.01; // seconds
+
+    // std devs of a single tag seen from one meter away, scaled by distance squared over tag count
+    private static final double BASE_XY_STD_DEV = 0.1; // meters
+    private static final double BASE_ROT_STD_DEV = Math.toRadians(10); // radians
+    // heading from a single tag is unreliable, so it is effectively ignored
+    private static final double SINGLE_TAG_ROT_STD_DEV = 1e6; // radians
+
+    private record CameraTag(PhotonTrackedTarget tag, int cameraIndex, double timestamp) {
+        double distanceSquared() {
+            Transform3d transform = tag.getBestCameraToTarget();
+            return transform.getX() * transform.getX() + transform.getY() * transform.getY();
+        }
+    }
 
     private final PhotonCamera[] photonCameras;
 
@@ -93,13 +127,35 @@ public class VisionSubsystem extends SubsystemBase {
     private Integer targetTagId = null;
     private Transform2d desiredOffset = null;
 
-    // used to estimate position when we can't see the tag
-    private double lastTime;
-    private ChassisSpeeds lastSpeed = null;
+    // field-relative pose to align to, used to keep positioning from odometry when we can't see the tag
+    private Pose2d desiredPose = null;
+    // reused for pose history lookups
+    private final PoseHistory.Sample poseAtCapture = new PoseHistory.Sample();
 
     // camera positions relative to robot center
     private final Transform2d[] cameraOffsets;
 
+    // cameraOffsets converted to standard (+X forward) camera to robot transforms for pose estimation
+    private final Transform2d[] cameraToRobot;
+
+    // targets seen by all cameras since the last tick
+    private List<CameraTag> latestTargets = List.of();
+
+    // latest targets decoded by the vision thread, taken by periodic(). null if nothing new
+    private final AtomicReference<List<CameraTag>> pendingTargets = new AtomicReference<>();
+
+    // a target list periodic() is done with, refilled by the vision thread instead of allocating. null if none
+    private final AtomicReference<List<CameraTag>> recycledTargets = new AtomicReference<>();
+
+    // cameras that returned results this vision tick, cleared by updateResults()
+    private final boolean[] updatedCameras;
+
+    // reads camera results and estimates poses off of the main robot thread
+    private final Notifier visionThread;
+
+    // whether to feed pose estimates from vision into the swerve pose estimator
+    private volatile boolean poseEstimationEnabled = true;
+
     /**
      * Creates a new VisionSubsystem
      *
@@ -110,6 +166,17 @@ public class VisionSubsystem extends SubsystemBase {
     public VisionSubsystem(PhotonCamera[] photonCameras, Transform2d[] cameraOffsets) {
         this.photonCameras = photonCameras;
         this.cameraOffsets = cameraOffsets;
+        updatedCameras = new boolean[photonCameras.length];
+
+        cameraToRobot = new Transform2d[cameraOffsets.length];
+        for (int i = 0; i < cameraOffsets.length; i++) {
+            // cameraOffsets use -X towards the front of the robot
+            cameraToRobot[i] = new Transform2d(
+                -cameraOffsets[i].getX(),
+                cameraOffsets[i].getY(),
+                cameraOffsets[i].getRotation()
+            );
+        }
 
         // initialize pid controllers
         // TODO TUNING: tune pid values
@@ -122,13 +189,24 @@ public class VisionSubsystem extends SubsystemBase {
         // set tolerances
         positionController.setTolerance(POS_TOLERANCE_METERS);
         rotationController.setTolerance(Math.toRadians(ROT_TOLERANCE_DEG));
+
+        visionThread = new Notifier(this::updateResults);
+        visionThread.setName("VisionThread");
+        visionThread.startPeriodic(VISION_THREAD_PERIOD);
     }
 
     private double startingDistance = -1;
     private double startingRotDistance = -1;
 
     @Override
-    public void periodic() {
+    protected void profiledPeriodic() {
+        // take whatever the vision thread decoded since the last tick
+        List<CameraTag> previous = latestTargets;
+        List<CameraTag> targets = pendingTargets.getAndSet(null);
+        latestTargets = targets != null ? targets : List.of();
+        // hand the list we are done with back to the vision thread to refill
+        if (previous instanceof ArrayList) recycledTargets.set(previous);
+
         if (!this.isPositioning()) return;
 
         double currentTime = Timer.getFPGATimestamp();
@@ -151,23 +229,22 @@ public class VisionSubsystem extends SubsystemBase {
                 return;
             }
 
-            if (lastSpeed == null || desiredOffset == null) return;
-
-            double deltaTime = currentTime - lastTime;
-            desiredOffset = desiredOffset.plus(
-                new Transform2d(
-                    -lastSpeed.vxMetersPerSecond * deltaTime,
-                    -lastSpeed.vyMetersPerSecond * deltaTime,
-                    new Rotation2d(-lastSpeed.omegaRadiansPerSecond * deltaTime)
-                )
-            );
+            if (desiredPose == null) return;
         } else {
             lastSeenTagTime = currentTime;
 
-            // calculate position error relative to desired position
-            desiredOffset = calculatePositionError(target);
+            // calculate position error relative to where the robot was when the frame was captured
+            Transform2d captureOffset = calculatePositionError(target);
+            SwerveDrive swerveDrive = Component.chassis.swerveDrive;
+            Pose2d capturePose = swerveDrive.getPoseHistory().sample(target.timestamp, poseAtCapture)
+                ? poseAtCapture.toPose2d()
+                : swerveDrive.getPose();
+            desiredPose = capturePose.transformBy(captureOffset);
         }
 
+        // position error relative to where the robot is now
+        desiredOffset = new Transform2d(Component.chassis.swerveDrive.getPose(), desiredPose);
+
         // use pid to calculate needed speeds for x, y, rotation
         double xSpeed = positionController.calculate(0, desiredOffset.getX());
         double ySpeed = positionController.calculate(0, desiredOffset.getY());
@@ -188,13 +265,11 @@ public class VisionSubsystem extends SubsystemBase {
         // command swerve drive
         Component.chassis.swerveDrive.drive(relativeSpeeds);
 
-        lastTime = currentTime;
-        lastSpeed = relativeSpeeds;
-
         // log positioning data
-        System.out.printf(
-            "Positioning to tag %s. X: %.4f, Y: %.4f, Rot: %.2fdeg%n",
-            targetTagId,
+        LogKitten.log(
+            KittenLevel.DEBUG,
+            "Positioning to tag %.0f. X: %.4f, Y: %.4f, Rot: %.2fdeg",
+            targetTagId != null ? targetTagId : -1,
             desiredOffset.getX(),
             desiredOffset.getY(),
             desiredOffset.getRotation().getDegrees()
@@ -230,92 +305,205 @@ public class VisionSubsystem extends SubsystemBase {
      * Find the best April Tag to target given a list of April Tag IDs
      *
      * @param tagIds The IDs of the April Tags to target
-     * @return The ID of the best April Tag, or null if none were found
+     * @return The closest matching April Tag, or null if none were found
      */
     private CameraTag getBestTargetId(int[] tagIds) {
-        List<CameraTag> results = getResults();
+        // -1 represents any, so return the closest result
+        boolean any = tagIds[0] == -1;
 
-        if (results.isEmpty()) return null;
+        CameraTag best = null;
+        double bestDistance = Double.POSITIVE_INFINITY;
 
-        // -1 represents any, so return any best result
-        if (tagIds[0] == -1) {
-            return results.get(0);
-        }
+        for (var target : latestTargets) {
+            if (!any && !contains(tagIds, target.tag.fiducialId)) continue;
 
-        // find best tag in the possible tag options
-        for (var target : results) {
-            for (int tagId : tagIds) {
-                if (tagId == target.tag.fiducialId) {
-                    return target;
-                }
+            double distance = target.distanceSquared();
+            if (distance < bestDistance) {
+                best = target;
+                bestDistance = distance;
             }
         }
 
-        return null;
+        return best;
     }
 
     /**
      * Get a PhotonVision target for an April Tag matching a certain ID
      *
      * @param tagId The ID of the tag to look for
-     * @return A {@link CameraTag} or {@code null} if no April Tag was found
+     * @return The closest matching {@link CameraTag} or {@code null} if no April Tag was found
      */
     CameraTag getTarget(int tagId) {
-        for (var target : getResults()) {
-            if (tagId == target.tag.fiducialId) {
-                return target;
-            }
-        }
+        return getBestTargetId(new int[] { tagId });
+    }
 
-        return null;
+    private static boolean contains(int[] ids, int id) {
+        for (int option : ids) {
+            if (option == id) return true;
+        }
+        return false;
     }
 
     /**
-     * @return A list of possible targets
+     * Read all unread results from every camera, hand their targets to {@link #periodic()} and
+     * feed field-relative pose estimates into the swerve pose estimator. Runs on the vision thread.
      */
-    List<CameraTag> getResults() {
-        List<CameraTag> results = new ArrayList<>();
+    private void updateResults() {
+        List<CameraTag> targets = null;
+        Arrays.fill(updatedCameras, false);
 
         for (int i = 0; i < photonCameras.length; i++) {
             List<PhotonPipelineResult> unreadResults = photonCameras[i].getAllUnreadResults();
             if (unreadResults.isEmpty()) continue;
 
+            if (targets == null) targets = takeRecycledTargets();
+            updatedCameras[i] = true;
+
             double lastCaptureTime = 0;
             for (var result : unreadResults) {
                 lastCaptureTime = Math.max(lastCaptureTime, result.getTimestampSeconds());
             }
 
             for (var result : unreadResults) {
+                if (poseEstimationEnabled) addPoseEstimate(result, i);
+
                 // discard results that are more than 0.1 seconds older than the latest result
                 if (lastCaptureTime - result.getTimestampSeconds() > 0.1) continue;
 
                 for (var target : result.getTargets()) {
-                    results.add(new CameraTag(target, i));
+                    targets.add(new CameraTag(target, i, result.getTimestampSeconds()));
                 }
             }
         }
 
-        results.sort(Comparator.comparingDouble(result -> {
-            Transform3d transform = result.tag.getBestCameraToTarget();
-            return Math.pow(transform.getX(), 2) + Math.pow(transform.getY(), 2);
-        }));
+        if (targets == null) return;
+
+        // keep targets from other cameras that periodic() has not taken yet
+        int ownTargets = targets.size();
+        List<CameraTag> untaken;
+        do {
+            untaken = pendingTargets.get();
+            // drop anything merged from a list periodic() took in the meantime
+            while (targets.size() > ownTargets) targets.remove(targets.size() - 1);
+            if (untaken != null) {
+                for (int i = 0; i < untaken.size(); i++) {
+                    CameraTag target = untaken.get(i);
+                    if (!updatedCameras[target.cameraIndex]) targets.add(target);
+                }
+            }
+        } while (!pendingTargets.compareAndSet(untaken, targets));
+
+        // only this thread publishes, so periodic() never saw the list we replaced
+        if (untaken != null) recycledTargets.set(untaken);
+    }
 
-        return results;
+    /**
+     * Take an empty target list for the vision thread to fill, reusing one {@link #periodic()} is done
+     * with when there is one. Published lists are only read once handed over, never modified.
+     *
+     * @return An empty, mutable target list
+     */
+    private List<CameraTag> takeRecycledTargets() {
+        List<CameraTag> targets = recycledTargets.getAndSet(null);
+        if (targets == null) return new ArrayList<>();
+        targets.clear();
+        return targets;
+    }
+
+    /**
+     * Estimate the field-relative robot pose from a camera frame and add it to the swerve pose estimator
+     * at the capture timestamp. Uses the coprocessor's multi-tag estimate when available, otherwise the
+     * least ambiguous single tag. Estimates that are ambiguous, too far away or off the field are rejected.
+     *
+     * @param result      The camera frame
+     * @param cameraIndex The index of the camera that produced the frame
+     */
+    private void addPoseEstimate(PhotonPipelineResult result, int cameraIndex) {
+        if (!result.hasTargets()) return;
+
+        Pose2d fieldToCamera;
+        int tagCount;
+        double totalDistance = 0;
+
+        Optional<MultiTargetPNPResult> multiTag = result.getMultiTagResult();
+        if (multiTag.isPresent() && multiTag.get().fiducialIDsUsed.size() > 1) {
+            Transform3d best = multiTag.get().estimatedPose.best;
+            fieldToCamera = new Pose2d(best.getX(), best.getY(), best.getRotation().toRotation2d());
+
+            tagCount = 0;
+            for (var target : result.getTargets()) {
+                if (!multiTag.get().fiducialIDsUsed.contains((short) target.fiducialId)) continue;
+                totalDistance += target.getBestCameraToTarget().getTranslation().getNorm();
+                tagCount++;
+            }
+            if (tagCount == 0) return;
+        } else {
+            PhotonTrackedTarget best = null;
+            Pose3d bestTagPose = null;
+            for (var target : result.getTargets()) {
+                double ambiguity = target.getPoseAmbiguity();
+                if (ambiguity < 0 || ambiguity > MAX_POSE_AMBIGUITY) continue;
+                if (best != null && ambiguity >= best.getPoseAmbiguity()) continue;
+
+                Optional<Pose3d> tagPose = FIELD_LAYOUT.getTagPose(target.fiducialId);
+                if (tagPose.isEmpty()) continue;
+
+                best = target;
+                bestTagPose = tagPose.get();
+            }
+            if (best == null) return;
+
+            Transform3d cameraToTarget = best.getBestCameraToTarget();
+            fieldToCamera = bestTagPose.toPose2d().transformBy(
+                new Transform2d(
+                    cameraToTarget.getX(),
+                    cameraToTarget.getY(),
+                    cameraToTarget.getRotation().toRotation2d()
+                ).inverse()
+            );
+
+            tagCount = 1;
+            totalDistance = cameraToTarget.getTranslation().getNorm();
+        }
+
+        double averageDistance = totalDistance / tagCount;
+        if (averageDistance > MAX_TAG_DISTANCE) return;
+
+        Pose2d robotPose = fieldToCamera.transformBy(cameraToRobot[cameraIndex]);
+        if (
+            robotPose.getX() < 0 || robotPose.getX() > FIELD_LAYOUT.getFieldLength() ||
+            robotPose.getY() < 0 || robotPose.getY() > FIELD_LAYOUT.getFieldWidth()
+        ) return;
+
+        double scale = averageDistance * averageDistance / tagCount;
+        double rotStdDev = tagCount > 1 ? BASE_ROT_STD_DEV * scale : SINGLE_TAG_ROT_STD_DEV;
+        Matrix<N3, N1> stdDevs = VecBuilder.fill(BASE_XY_STD_DEV * scale, BASE_XY_STD_DEV * scale, rotStdDev);
+
+        Component.chassis.swerveDrive.addVisionMeasurement(robotPose, result.getTimestampSeconds(), stdDevs);
+    }
+
+    /**
+     * Enable or disable feeding vision pose estimates into the swerve pose estimator
+     *
+     * @param enabled Whether pose estimates should be used
+     */
+    public void setPoseEstimationEnabled(boolean enabled) {
+        poseEstimationEnabled = enabled;
     }
 
     private void startPositioning(int[] targetTagIds, Transform2d offset) {
         this.targetTagOptions = targetTagIds;
         this.offset = offset;
 
-        System.out.println("VISION OFFSET 2: X " + this.offset.getX() + " Y " + this.offset.getY());
+        LogKitten.log(KittenLevel.DEBUG, "VISION OFFSET 2: X %f Y %f", this.offset.getX(), this.offset.getY());
 
-        startTime = lastSeenTagTime = lastTime = Timer.getFPGATimestamp();
+        startTime = lastSeenTagTime = Timer.getFPGATimestamp();
 
         // reset pid controllers
         positionController.reset();
         rotationController.reset();
 
-        System.out.println("Positioning started");
+        LogKitten.v("Positioning started");
 
         Component.lights.visionProgress = 0;
         Component.lights.flashColor(LightSubsystem.Color.VISION);
@@ -338,9 +526,10 @@ public class VisionSubsystem extends SubsystemBase {
         targetTagOptions = null;
         targetTagId = null;
         desiredOffset = null;
+        desiredPose = null;
         Component.chassis.swerveDrive.drive(new ChassisSpeeds(0, 0, 0));
 
-        System.out.println("Positioning ended" + (reason != null ? " - " + reason : ""));
+        LogKitten.v(reason != null ? "Positioning ended - " + reason : "Positioning ended");
 
         Component.lights.visionProgress = -1;
         if (failed) {
@@ -371,7 +560,7 @@ public class VisionSubsystem extends SubsystemBase {
             targetOffset.getRotation().plus(cameraOffset.getRotation())
         );
 
-        System.out.println("VISION OFFSET 3: X " + offset.getX() + " Y " + offset.getY());
+        LogKitten.log(KittenLevel.DEBUG, "VISION OFFSET 3: X %f Y %f", offset.getX(), offset.getY());
 
         // calculate difference between current and desired
         Translation2d translationError = offset.getTranslation().minus(robotToTarget.getTranslation());
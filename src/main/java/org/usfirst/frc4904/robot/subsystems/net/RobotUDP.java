@@ -0,0 +1,49 @@
+package org.usfirst.frc4904.robot.subsystems.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+import org.usfirst.frc4904.robot.subsystems.net.messages.OdometryUpdate;
+import org.usfirst.frc4904.standard.LogKitten;
+import org.usfirst.frc4904.standard.LogKitten.KittenLevel;
+import org.usfirst.frc4904.standard.subsystems.net.UDPSocket;
+
+/**
+ * The robot's link to the coprocessor.
+ */
+public class RobotUDP extends UDPSocket {
+    private final SocketAddress coprocessor;
+
+    /**
+     * @param localAddress The address to listen on
+     * @param coprocessor  Where to send updates
+     */
+    public RobotUDP(SocketAddress localAddress, SocketAddress coprocessor) throws IOException {
+        super(localAddress);
+        this.coprocessor = coprocessor;
+    }
+
+    /**
+     * Send an odometry update. Safe to call from any thread that owns {@code buffer}.
+     *
+     * @param buffer A buffer of at least {@link UDPSocket#MAX_PACKET_SIZE} bytes, only used by the calling thread
+     * @return Whether the update was sent
+     */
+    public boolean sendOdometry(OdometryUpdate update, ByteBuffer buffer) throws IOException {
+        return send(coprocessor, update, buffer);
+    }
+
+    @Override
+    protected void receive(SocketAddress address, ByteBuffer buffer) {
+        // the coprocessor doesn't send anything back yet. LogKitten only takes double arguments, so log the port
+        // rather than building a string with the whole address
+        LogKitten.log(
+            KittenLevel.DEBUG,
+            "RobotUDP: ignoring %.0f bytes from port %.0f",
+            buffer.remaining(),
+            ((InetSocketAddress) address).getPort()
+        );
+    }
+}
@@ -0,0 +1,65 @@
+package org.usfirst.frc4904.robot.subsystems.net.messages;
+
+import java.nio.ByteBuffer;
+
+import org.usfirst.frc4904.standard.subsystems.net.message.Packable;
+import org.usfirst.frc4904.standard.subsystems.net.message.Unpackable;
+
+/**
+ * A timestamped pose, velocity and acceleration sample. Mutable so one instance
+ * can be reused for every packet.
+ * <p>
+ * Layout, big-endian, {@value #SIZE} bytes: int sequence, long FPGA timestamp in
+ * microseconds, then doubles x, y (meters), theta (radians), robot-relative vx, vy
+ * (meters per second), omega (radians per second) and ax, ay, az (meters per second
+ * squared, NaN if the IMU has no accelerometer).
+ */
+public class OdometryUpdate implements Packable, Unpackable {
+    public static final int SIZE = Integer.BYTES + Long.BYTES + 9 * Double.BYTES;
+
+    /** Increases by one per sample, so gaps show lost packets */
+    public int sequence;
+    public long timestampMicros;
+
+    public double x;
+    public double y;
+    public double theta;
+
+    public double vx;
+    public double vy;
+    public double omega;
+
+    public double ax;
+    public double ay;
+    public double az;
+
+    @Override
+    public void pack(ByteBuffer buffer) {
+        buffer.putInt(sequence);
+        buffer.putLong(timestampMicros);
+        buffer.putDouble(x);
+        buffer.putDouble(y);
+        buffer.putDouble(theta);
+        buffer.putDouble(vx);
+        buffer.putDouble(vy);
+        buffer.putDouble(omega);
+        buffer.putDouble(ax);
+        buffer.putDouble(ay);
+        buffer.putDouble(az);
+    }
+
+    @Override
+    public void unpack(ByteBuffer buffer) {
+        sequence = buffer.getInt();
+        timestampMicros = buffer.getLong();
+        x = buffer.getDouble();
+        y = buffer.getDouble();
+        theta = buffer.getDouble();
+        vx = buffer.getDouble();
+        vy = buffer.getDouble();
+        omega = buffer.getDouble();
+        ax = buffer.getDouble();
+        ay = buffer.getDouble();
+        az = buffer.getDouble();
+    }
+}
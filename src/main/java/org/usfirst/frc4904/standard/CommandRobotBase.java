@@ -75,6 +75,8 @@ public abstract class CommandRobotBase extends TimedRobot {
 		autoChooser = new CommandSendableChooser();
 		driverChooser = new TypedNamedSendableChooser<Driver>();
 		operatorChooser = new TypedNamedSendableChooser<Operator>();
+		// Time every loop and publish the results to /Profiler
+		LoopProfiler.setEnabled(true);
 		// Run user-provided initialize function
 		initialize();
 		// Display choosers on SmartDashboard
@@ -122,9 +124,14 @@ public abstract class CommandRobotBase extends TimedRobot {
 	 */
 	@Override
 	public final void teleopPeriodic() {
+		LoopProfiler.startLoop();
 		CommandScheduler.getInstance().run();
+		LoopProfiler.markScheduler();
 		teleopExecute();
+		LoopProfiler.mark("teleopExecute()");
 		alwaysExecute();
+		LoopProfiler.mark("alwaysExecute()");
+		LoopProfiler.endLoop();
 	}
 
 	/**
@@ -158,9 +165,14 @@ public abstract class CommandRobotBase extends TimedRobot {
 	 */
 	@Override
 	public final void autonomousPeriodic() {
+		LoopProfiler.startLoop();
 		CommandScheduler.getInstance().run();
+		LoopProfiler.markScheduler();
 		autonomousExecute();
+		LoopProfiler.mark("autonomousExecute()");
 		alwaysExecute();
+		LoopProfiler.mark("alwaysExecute()");
+		LoopProfiler.endLoop();
 	}
 
 	/**
@@ -189,9 +201,14 @@ public abstract class CommandRobotBase extends TimedRobot {
 	 */
 	@Override
 	public final void disabledPeriodic() {
+		LoopProfiler.startLoop();
 		CommandScheduler.getInstance().run();
+		LoopProfiler.markScheduler();
 		disabledExecute();
+		LoopProfiler.mark("disabledExecute()");
 		alwaysExecute();
+		LoopProfiler.mark("alwaysExecute()");
+		LoopProfiler.endLoop();
 	}
 
 	/**
@@ -220,9 +237,14 @@ public abstract class CommandRobotBase extends TimedRobot {
 	 */
 	@Override
 	public void testPeriodic() {
+		LoopProfiler.startLoop();
 		CommandScheduler.getInstance().run();
+		LoopProfiler.markScheduler();
 		testExecute();
+		LoopProfiler.mark("testExecute()");
 		alwaysExecute();
+		LoopProfiler.mark("alwaysExecute()");
+		LoopProfiler.endLoop();
 	}
 
 	/**
@@ -1,384 +1,703 @@
-// package org.usfirst.frc4904.standard;
-
-// import java.io.BufferedOutputStream;
-// import java.io.File;
-// import java.io.FileOutputStream;
-// import java.io.IOException;
-// import java.io.PrintWriter;
-// import java.io.StringWriter;
-// import java.nio.file.Files;
-// import java.text.SimpleDateFormat;
-// import java.util.Date;
-// import edu.wpi.first.hal.HAL;	// DONT REMOVE,
-
-// public class LogKitten {
-// 	private static BufferedOutputStream fileOutput;
-// 	public final static KittenLevel LEVEL_WTF = KittenLevel.WTF;
-// 	public final static KittenLevel LEVEL_FATAL = KittenLevel.FATAL;
-// 	public final static KittenLevel LEVEL_ERROR = KittenLevel.ERROR;
-// 	public final static KittenLevel LEVEL_WARN = KittenLevel.WARN;
-// 	public final static KittenLevel LEVEL_VERBOSE = KittenLevel.VERBOSE;
-// 	public final static KittenLevel LEVEL_DEBUG = KittenLevel.DEBUG;
-// 	public final static KittenLevel DEFAULT_LOG_LEVEL = KittenLevel.DEBUG;
-// 	public final static KittenLevel DEFAULT_PRINT_LEVEL = KittenLevel.WARN;
-// 	public final static KittenLevel DEFAULT_DS_LEVEL = LogKitten.DEFAULT_PRINT_LEVEL;
-// 	private static KittenLevel logLevel = LogKitten.DEFAULT_LOG_LEVEL;
-// 	private static KittenLevel printLevel = LogKitten.DEFAULT_PRINT_LEVEL;
-// 	private static KittenLevel dsLevel = LogKitten.DEFAULT_DS_LEVEL;
-// 	private static String LOG_PATH = "/home/lvuser/logs/";
-// 	private static String LOG_ALIAS_PATH = LogKitten.LOG_PATH + "recent.log";
-// 	private static volatile boolean PRINT_MUTE = false;
-// 	private static final SimpleDateFormat TIMESTAMP_FORMAT = new SimpleDateFormat("yyyy-MM-dd_HH:mm:ss");
-// 	static {
-// 		File logPathDirectory = new File(LogKitten.LOG_PATH);
-// 		try {
-// 			if (!logPathDirectory.isDirectory()) { // ensure that the directory /home/lvuser/logs/ exists
-// 				logPathDirectory.mkdirs(); // otherwise create all the directories of the path
-// 			}
-// 		} catch (SecurityException se) {
-// 			System.out.println("Could not create log directory");
-// 			se.printStackTrace();
-// 		}
-// 		String filePath = LogKitten.LOG_PATH + LogKitten.timestamp() + ".log"; // Set this sessions log to
-// 																				// /home/lvuser/logs/[current time].log
-// 		File file = new File(filePath);
-// 		try {
-// 			// Create new file if it doesn't exist (this should happen)
-// 			file.createNewFile(); // creates if does not exist
-// 			// Create FileOutputStream to actually write to the file.
-// 			LogKitten.fileOutput = new BufferedOutputStream(new FileOutputStream(file));
-// 		} catch (IOException ioe) {
-// 			System.out.println("Could not open logfile");
-// 			ioe.printStackTrace();
-// 		}
-// 		File logAlias = new File(LogKitten.LOG_ALIAS_PATH);
-// 		try {
-// 			if (logAlias.exists()) {
-// 				logAlias.delete();
-// 			}
-// 			Files.createSymbolicLink(logAlias.toPath(), file.toPath());
-// 		} catch (IOException ioe) {
-// 			System.out.println("Could not alias logfile");
-// 			ioe.printStackTrace();
-// 		}
-// 	}
-
-// 	/**
-// 	 * Get the name of a logger method's caller
-// 	 *
-// 	 * @return the caller for the callee `f`, `e`, `w`, `v`, or `d`
-// 	 */
-// 	private static String getLoggerMethodCallerMethodName() {
-// 		return Thread.currentThread().getStackTrace()[4].getMethodName(); // caller of the logger method is fifth in the
-// 																			// stack trace
-// 	}
-
-// 	/**
-// 	 * Get the name of a logger method's calling class
-// 	 *
-// 	 * @return the caller for the callee `f`, `e`, `w`, `v`, or `d`
-// 	 */
-// 	private static String getLoggerMethodCallerClassName() {
-// 		String[] trace = Thread.currentThread().getStackTrace()[4].getClassName().split("\\."); // caller of the logger
-// 																								// method is fifth in
-// 																								// the stack trace
-// 		if (trace.length == 0) {
-// 			return "";
-// 		}
-// 		return trace[trace.length - 1]; // don't include the package name
-// 	}
-
-// 	/**
-// 	 * Set the default level for which logs will be streamed to a file (for all
-// 	 * LogKitten instances)
-// 	 *
-// 	 * @param DEFAULT_LOG_LEVEL default write-to-file level
-// 	 */
-// 	public static void setDefaultLogLevel(KittenLevel DEFAULT_LOG_LEVEL) {
-// 		LogKitten.logLevel = DEFAULT_LOG_LEVEL;
-// 	}
-
-// 	/**
-// 	 * Set the default level for which logs will be printed to the console (for all
-// 	 * LogKitten instances)
-// 	 *
-// 	 * @param DEFAULT_PRINT_LEVEL default console log level
-// 	 */
-// 	public static void setDefaultPrintLevel(KittenLevel DEFAULT_PRINT_LEVEL) {
-// 		LogKitten.printLevel = DEFAULT_PRINT_LEVEL;
-// 	}
-
-// 	/**
-// 	 * Set the default level for which logs will be printed to the driver station
-// 	 * (for all LogKitten instances)
-// 	 *
-// 	 * @param DEFAULT_DS_LEVEL default driver station level
-// 	 */
-// 	public static void setDefaultDSLevel(KittenLevel DEFAULT_DS_LEVEL) {
-// 		LogKitten.dsLevel = DEFAULT_DS_LEVEL;
-// 	}
-
-// 	/**
-// 	 * Set the logfile path for all LogKitten instances
-// 	 *
-// 	 * @param LOG_PATH logfile path as a string
-// 	 */
-// 	public static void setLogPath(String LOG_PATH) {
-// 		LogKitten.LOG_PATH = LOG_PATH;
-// 	}
-
-// 	/**
-// 	 * Mutes all messages except those overriding (useful for debugging)
-// 	 *
-// 	 * @param mute
-// 	 */
-// 	public static void setPrintMute(boolean mute) {
-// 		LogKitten.PRINT_MUTE = mute;
-// 	}
-
-// 	/**
-// 	 * Like DriverStation.reportError, but without stack trace nor printing to
-// 	 * System.err (updated for 2017 WPILib release)
-// 	 *
-// 	 * @see edu.wpi.first.wpilibj.DriverStation.reportError
-// 	 * @param errorString
-// 	 */
-// 	private static void reportErrorToDriverStation(String details, String errorMessage, KittenLevel logLevel) {
-// 		// HAL.sendError(true, logLevel.getSeverity(), false, errorMessage, details, "", false);
-// 		// TO DO: this is now broken. commenting out causes silent failure. how do you fix it
-// 	}
-
-// 	public static synchronized void logMessage(Object message, KittenLevel level, boolean override) {
-// 		message = message.toString(); // Not strictly needed, but good practice
-// 		if (LogKitten.logLevel.compareTo(level) >= 0) {
-// 			String content = LogKitten.timestamp() + " " + level.getName() + ": "
-// 					+ LogKitten.getLoggerMethodCallerMethodName() + ": " + message + " \n";
-// 			try {
-// 				if (LogKitten.fileOutput != null) {
-// 					LogKitten.fileOutput.write(content.getBytes());
-// 				} else {
-// 					System.out.println("Error logging: logfile not open");
-// 				}
-// 			} catch (IOException ioe) {
-// 				System.out.println("Error logging " + level.getName() + " message");
-// 				ioe.printStackTrace();
-// 			}
-// 		}
-// 		if (!LogKitten.PRINT_MUTE || override) {
-// 			String printContent = level.getName() + ": " + LogKitten.getLoggerMethodCallerClassName() + "#"
-// 					+ LogKitten.getLoggerMethodCallerMethodName() + ": " + message + " \n";
-// 			if (LogKitten.printLevel.compareTo(level) >= 0) {
-// 				System.out.println(printContent);
-// 			}
-// 			if (LogKitten.dsLevel.compareTo(level) >= 0) {
-// 				LogKitten.reportErrorToDriverStation(
-// 						LogKitten.getLoggerMethodCallerClassName() + "#" + LogKitten.getLoggerMethodCallerMethodName(),
-// 						level.getName() + ": " + message, level);
-// 			}
-// 		}
-// 	}
-
-// 	/**
-// 	 * What a Terrible Failure: Report a condition that should never happen,
-// 	 * allowing override
-// 	 *
-// 	 * @param message
-// 	 * @param override
-// 	 */
-// 	public static void wtf(Object message, boolean override) {
-// 		LogKitten.logMessage(message, KittenLevel.WTF, override);
-// 	}
-
-// 	/**
-// 	 * What a Terrible Failure: Report a condition that should never happen
-// 	 *
-// 	 * @param message the message to log
-// 	 */
-// 	public static void wtf(Object message) { // Log WTF message
-// 		LogKitten.logMessage(message, KittenLevel.WTF, false);
-// 	}
-
-// 	/**
-// 	 * Log message at level FATAL allowing override
-// 	 *
-// 	 * @param message
-// 	 * @param override
-// 	 */
-// 	public static void f(Object message, boolean override) {
-// 		LogKitten.logMessage(message, KittenLevel.FATAL, override);
-// 	}
-
-// 	/**
-// 	 * Log message at level FATAL
-// 	 *
-// 	 * @param message the message to log
-// 	 */
-// 	public static void f(Object message) { // Log fatal message
-// 		LogKitten.logMessage(message, KittenLevel.FATAL, false);
-// 	}
-
-// 	/**
-// 	 * Log message at ERROR allowing override
-// 	 *
-// 	 * @param message
-// 	 * @param override
-// 	 */
-// 	public static void e(Object message, boolean override) {
-// 		LogKitten.logMessage(message, KittenLevel.ERROR, override);
-// 	}
-
-// 	/**
-// 	 * Log message at level ERROR
-// 	 *
-// 	 * @param message the message to log
-// 	 */
-// 	public static void e(Object message) { // Log error message
-// 		LogKitten.logMessage(message, KittenLevel.ERROR, false);
-// 	}
-
-// 	/**
-// 	 * Log message at WARN allowing override
-// 	 *
-// 	 * @param message
-// 	 * @param override
-// 	 */
-// 	public static void w(Object message, boolean override) {
-// 		LogKitten.logMessage(message, KittenLevel.WARN, override);
-// 	}
-
-// 	/**
-// 	 * Log message at level WARN
-// 	 *
-// 	 * @param message the message to log
-// 	 */
-// 	public static void w(Object message) { // Log warn message
-// 		LogKitten.logMessage(message, KittenLevel.WARN, false);
-// 	}
-
-// 	/**
-// 	 * Log message at VERBOSE allowing override
-// 	 *
-// 	 * @param message
-// 	 * @param override
-// 	 */
-// 	public static void v(Object message, boolean override) {
-// 		LogKitten.logMessage(message, KittenLevel.VERBOSE, override);
-// 	}
-
-// 	/**
-// 	 * Log message at level VERBOSE
-// 	 *
-// 	 * @param message the message to log
-// 	 */
-// 	public static void v(Object message) { // Log verbose message
-// 		LogKitten.logMessage(message, KittenLevel.VERBOSE, false);
-// 	}
-
-// 	/**
-// 	 * Log message at VERBOSE (INFO links to verbose) allowing override
-// 	 *
-// 	 * @param message
-// 	 * @param override
-// 	 */
-// 	public static void i(Object message, boolean override) {
-// 		LogKitten.logMessage(message, KittenLevel.VERBOSE, override);
-// 	}
-
-// 	/**
-// 	 * Log message at VERBOSE (INFO links to verbose)
-// 	 *
-// 	 * @param message
-// 	 */
-// 	public static void i(Object message) {
-// 		LogKitten.logMessage(message, KittenLevel.VERBOSE, false);
-// 	}
-
-// 	/**
-// 	 * Log message at level DEBUG allowing override
-// 	 *
-// 	 * @param message
-// 	 * @param override
-// 	 */
-// 	public static void d(Object message, boolean override) {
-// 		LogKitten.logMessage(message, KittenLevel.DEBUG, override);
-// 	}
-
-// 	/**
-// 	 * Log message at level DEBUG
-// 	 *
-// 	 * @param message the message to log
-// 	 */
-// 	public static void d(Object message) { // Log debug message
-// 		LogKitten.logMessage(message, KittenLevel.DEBUG, false);
-// 	}
-
-// 	/**
-// 	 * Log exception at level ERROR allowing override
-// 	 *
-// 	 * @param ex       the exception to log
-// 	 * @param override whether or not to override
-// 	 */
-// 	public static void ex(Exception ex, boolean override) {
-// 		StringWriter stackTraceString = new StringWriter();
-// 		ex.printStackTrace(new PrintWriter(stackTraceString));
-// 		LogKitten.logMessage(stackTraceString.toString(), KittenLevel.ERROR, override);
-// 	}
-
-// 	/**
-// 	 * Log exception at level ERROR
-// 	 *
-// 	 * @param ex the exception to log
-// 	 */
-// 	public static void ex(Exception ex) {
-// 		LogKitten.ex(ex, false);
-// 	}
-
-// 	/**
-// 	 * Tries to close the logfile stream
-// 	 */
-// 	public static synchronized void clean() {
-// 		try {
-// 			if (LogKitten.fileOutput != null) {
-// 				LogKitten.fileOutput.close();
-// 			}
-// 		} catch (IOException ioe) {
-// 			System.out.println("Could not close logfile output. This should never happen");
-// 			ioe.printStackTrace();
-// 		}
-// 	}
-
-// 	/**
-// 	 * Get a timestamp for the current datetime - me-wow!
-// 	 *
-// 	 * @return timestamp as string in the format "YEAR-MONTH-DAY_HOUR:MIN:SEC"
-// 	 */
-// 	private static synchronized String timestamp() {
-// 		return LogKitten.TIMESTAMP_FORMAT.format(new Date());
-// 	}
-
-// 	public static enum KittenLevel {
-// 		// Defined in decreasing order of severity. Enum.compareTo uses the definition
-// 		// order to compare enum values.
-// 		WTF, FATAL, ERROR, WARN, VERBOSE, DEBUG;
-
-// 		/**
-// 		 * Get the level severity
-// 		 *
-// 		 * @return the level severity as an int
-// 		 */
-// 		public int getSeverity() {
-// 			// Severity is the same as the ordinal, which increases with the order of the
-// 			// enum values
-// 			return ordinal();
-// 		}
-
-// 		/**
-// 		 * Get the level name
-// 		 *
-// 		 * @return level name as a string
-// 		 */
-// 		public String getName() {
-// 			return name(); // Enum.name() is the Java builtin to get the name of an enum value
-// 		}
-// 	}
-// }
+package org.usfirst.frc4904.standard;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Asynchronous logger. Producers on any thread write fixed-layout records (timestamp, level, message or format
+ * string and up to {@link #MAX_ARGS} double arguments) into a preallocated ring buffer without formatting or
+ * blocking. A background thread drains the ring to a rotating binary log under {@link #LOG_PATH}, and formats
+ * only the records that are printed to the console, sent to the driver station or mirrored to WPILib DataLog.
+ * <p>
+ * Binary log layout, big endian: every record starts with a tag byte. {@link #RECORD_FORMAT} is followed by an int
+ * id and a UTF-8 string (short length prefix) and is written the first time a format string is seen.
+ * {@link #RECORD_MESSAGE} is followed by a long FPGA timestamp in microseconds, a level byte, the int format id, an
+ * argument count byte and that many doubles.
+ * <p>
+ * Messages are converted to strings on the logging thread, so only pass immutable objects.
+ */
+public class LogKitten {
+	public final static KittenLevel LEVEL_WTF = KittenLevel.WTF;
+	public final static KittenLevel LEVEL_FATAL = KittenLevel.FATAL;
+	public final static KittenLevel LEVEL_ERROR = KittenLevel.ERROR;
+	public final static KittenLevel LEVEL_WARN = KittenLevel.WARN;
+	public final static KittenLevel LEVEL_VERBOSE = KittenLevel.VERBOSE;
+	public final static KittenLevel LEVEL_DEBUG = KittenLevel.DEBUG;
+	public final static KittenLevel DEFAULT_LOG_LEVEL = KittenLevel.DEBUG;
+	public final static KittenLevel DEFAULT_PRINT_LEVEL = KittenLevel.WARN;
+	public final static KittenLevel DEFAULT_DS_LEVEL = LogKitten.DEFAULT_PRINT_LEVEL;
+	/** Maximum number of double arguments per record */
+	public final static int MAX_ARGS = 4;
+	/** Binary record tag for a format string definition */
+	public final static byte RECORD_FORMAT = 0;
+	/** Binary record tag for a log message */
+	public final static byte RECORD_MESSAGE = 1;
+	private final static int CAPACITY = 1024; // must be a power of two
+	private final static int MASK = LogKitten.CAPACITY - 1;
+	private final static long MAX_FILE_BYTES = 8L * 1024 * 1024;
+	private final static int MAX_FILES = 20;
+	private final static int MAX_FORMATS = 4096; // strings beyond this are written inline every time
+	private final static long IDLE_PARK_NANOS = 5_000_000;
+	private final static long OPEN_RETRY_NANOS = 10_000_000_000L; // after a logfile can't be opened
+	private static volatile KittenLevel logLevel = LogKitten.DEFAULT_LOG_LEVEL;
+	private static volatile KittenLevel printLevel = LogKitten.DEFAULT_PRINT_LEVEL;
+	private static volatile KittenLevel dsLevel = LogKitten.DEFAULT_DS_LEVEL;
+	// ordinal of the least severe level that any sink accepts, checked before anything else
+	private static volatile int enabledSeverity = LogKitten.computeEnabledSeverity();
+	private static volatile String LOG_PATH = "/home/lvuser/logs/";
+	private static volatile boolean PRINT_MUTE = false;
+	private static final SimpleDateFormat TIMESTAMP_FORMAT = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+
+	// ring buffer, one slot per record. published[i] holds sequence + 1 once slot i is readable
+	private static final long[] timestamps = new long[LogKitten.CAPACITY];
+	private static final byte[] levels = new byte[LogKitten.CAPACITY];
+	private static final boolean[] overrides = new boolean[LogKitten.CAPACITY];
+	private static final Object[] messages = new Object[LogKitten.CAPACITY];
+	private static final byte[] argCounts = new byte[LogKitten.CAPACITY];
+	private static final double[] args = new double[LogKitten.CAPACITY * LogKitten.MAX_ARGS];
+	private static final AtomicLongArray published = new AtomicLongArray(LogKitten.CAPACITY);
+	private static final AtomicLong head = new AtomicLong();
+	private static volatile long tail = 0;
+	private static final AtomicLong dropped = new AtomicLong();
+
+	// only touched by the logging thread
+	private static DataOutputStream fileOutput;
+	private static long fileBytes = 0;
+	private static final ArrayDeque<File> logFiles = new ArrayDeque<>();
+	private static int fileIndex = 0;
+	private static long nextOpenNanos = 0;
+	private static boolean openFailed = false;
+	private static final HashMap<String, Integer> formatIds = new HashMap<>();
+	private static int nextFormatId = 0;
+	private static final double[] drainArgs = new double[LogKitten.MAX_ARGS];
+	private static final Object[] boxedArgs = new Object[LogKitten.MAX_ARGS];
+	private static volatile boolean dataLogEnabled = false;
+	private static StringLogEntry dataLogEntry;
+	private static volatile boolean flushRequested = false;
+
+	static {
+		Thread thread = new Thread(LogKitten::run, "LogKitten");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	/**
+	 * Set the default level for which logs will be streamed to a file (for all
+	 * LogKitten instances)
+	 *
+	 * @param DEFAULT_LOG_LEVEL default write-to-file level
+	 */
+	public static void setDefaultLogLevel(KittenLevel DEFAULT_LOG_LEVEL) {
+		LogKitten.logLevel = DEFAULT_LOG_LEVEL;
+		LogKitten.enabledSeverity = LogKitten.computeEnabledSeverity();
+	}
+
+	/**
+	 * Set the default level for which logs will be printed to the console (for all
+	 * LogKitten instances)
+	 *
+	 * @param DEFAULT_PRINT_LEVEL default console log level
+	 */
+	public static void setDefaultPrintLevel(KittenLevel DEFAULT_PRINT_LEVEL) {
+		LogKitten.printLevel = DEFAULT_PRINT_LEVEL;
+		LogKitten.enabledSeverity = LogKitten.computeEnabledSeverity();
+	}
+
+	/**
+	 * Set the default level for which logs will be printed to the driver station
+	 * (for all LogKitten instances)
+	 *
+	 * @param DEFAULT_DS_LEVEL default driver station level
+	 */
+	public static void setDefaultDSLevel(KittenLevel DEFAULT_DS_LEVEL) {
+		LogKitten.dsLevel = DEFAULT_DS_LEVEL;
+		LogKitten.enabledSeverity = LogKitten.computeEnabledSeverity();
+	}
+
+	/**
+	 * Set the logfile directory. Takes effect when the next logfile is opened.
+	 *
+	 * @param LOG_PATH logfile directory as a string, ending in a separator
+	 */
+	public static void setLogPath(String LOG_PATH) {
+		LogKitten.LOG_PATH = LOG_PATH;
+	}
+
+	/**
+	 * Mutes all messages except those overriding (useful for debugging)
+	 *
+	 * @param mute
+	 */
+	public static void setPrintMute(boolean mute) {
+		LogKitten.PRINT_MUTE = mute;
+	}
+
+	/**
+	 * Also write formatted messages to the WPILib DataLog under /LogKitten/messages
+	 *
+	 * @param enabled whether to mirror messages to the DataLog
+	 */
+	public static void setDataLogEnabled(boolean enabled) {
+		LogKitten.dataLogEnabled = enabled;
+	}
+
+	/**
+	 * Get the number of records dropped because the ring buffer was full
+	 *
+	 * @return dropped record count
+	 */
+	public static long getDroppedCount() {
+		return LogKitten.dropped.get();
+	}
+
+	/**
+	 * Check whether a message at the given level would go anywhere. Use this to
+	 * skip building expensive messages.
+	 *
+	 * @param level the message level
+	 * @return whether the level is enabled for any output
+	 */
+	public static boolean isEnabled(KittenLevel level) {
+		return level.ordinal() <= LogKitten.enabledSeverity;
+	}
+
+	private static int computeEnabledSeverity() {
+		return Math.max(LogKitten.logLevel.ordinal(), Math.max(LogKitten.printLevel.ordinal(), LogKitten.dsLevel.ordinal()));
+	}
+
+	public static void logMessage(Object message, KittenLevel level, boolean override) {
+		if (!LogKitten.isEnabled(level)) return;
+		LogKitten.append(level, override, message, 0, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Log a message without arguments
+	 *
+	 * @param level  the message level
+	 * @param format the message, stored by reference and written once to the log
+	 */
+	public static void log(KittenLevel level, String format) {
+		if (!LogKitten.isEnabled(level)) return;
+		LogKitten.append(level, false, format, 0, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Log a formatted message. Formatting only happens on the logging thread, and
+	 * only for outputs that need text.
+	 *
+	 * @param level  the message level
+	 * @param format a {@link String#format} string taking doubles
+	 * @param a      first argument
+	 */
+	public static void log(KittenLevel level, String format, double a) {
+		if (!LogKitten.isEnabled(level)) return;
+		LogKitten.append(level, false, format, 1, a, 0, 0, 0);
+	}
+
+	/**
+	 * Log a formatted message. Formatting only happens on the logging thread, and
+	 * only for outputs that need text.
+	 *
+	 * @param level  the message level
+	 * @param format a {@link String#format} string taking doubles
+	 * @param a      first argument
+	 * @param b      second argument
+	 */
+	public static void log(KittenLevel level, String format, double a, double b) {
+		if (!LogKitten.isEnabled(level)) return;
+		LogKitten.append(level, false, format, 2, a, b, 0, 0);
+	}
+
+	/**
+	 * Log a formatted message. Formatting only happens on the logging thread, and
+	 * only for outputs that need text.
+	 *
+	 * @param level  the message level
+	 * @param format a {@link String#format} string taking doubles
+	 * @param a      first argument
+	 * @param b      second argument
+	 * @param c      third argument
+	 */
+	public static void log(KittenLevel level, String format, double a, double b, double c) {
+		if (!LogKitten.isEnabled(level)) return;
+		LogKitten.append(level, false, format, 3, a, b, c, 0);
+	}
+
+	/**
+	 * Log a formatted message. Formatting only happens on the logging thread, and
+	 * only for outputs that need text.
+	 *
+	 * @param level  the message level
+	 * @param format a {@link String#format} string taking doubles
+	 * @param a      first argument
+	 * @param b      second argument
+	 * @param c      third argument
+	 * @param d      fourth argument
+	 */
+	public static void log(KittenLevel level, String format, double a, double b, double c, double d) {
+		if (!LogKitten.isEnabled(level)) return;
+		LogKitten.append(level, false, format, 4, a, b, c, d);
+	}
+
+	/**
+	 * Claim a slot in the ring buffer and publish a record to it, or drop the
+	 * record if the logging thread has fallen a full ring behind.
+	 */
+	private static void append(KittenLevel level, boolean override, Object message, int argc, double a, double b, double c, double d) {
+		long sequence;
+		do {
+			sequence = LogKitten.head.get();
+			if (sequence - LogKitten.tail >= LogKitten.CAPACITY) {
+				LogKitten.dropped.incrementAndGet();
+				return;
+			}
+		} while (!LogKitten.head.compareAndSet(sequence, sequence + 1));
+
+		int slot = (int) (sequence & LogKitten.MASK);
+		LogKitten.timestamps[slot] = RobotController.getFPGATime();
+		LogKitten.levels[slot] = (byte) level.ordinal();
+		LogKitten.overrides[slot] = override;
+		LogKitten.messages[slot] = message;
+		LogKitten.argCounts[slot] = (byte) argc;
+		int base = slot * LogKitten.MAX_ARGS;
+		LogKitten.args[base] = a;
+		LogKitten.args[base + 1] = b;
+		LogKitten.args[base + 2] = c;
+		LogKitten.args[base + 3] = d;
+		LogKitten.published.lazySet(slot, sequence + 1);
+	}
+
+	/**
+	 * What a Terrible Failure: Report a condition that should never happen,
+	 * allowing override
+	 *
+	 * @param message
+	 * @param override
+	 */
+	public static void wtf(Object message, boolean override) {
+		LogKitten.logMessage(message, KittenLevel.WTF, override);
+	}
+
+	/**
+	 * What a Terrible Failure: Report a condition that should never happen
+	 *
+	 * @param message the message to log
+	 */
+	public static void wtf(Object message) { // Log WTF message
+		LogKitten.logMessage(message, KittenLevel.WTF, false);
+	}
+
+	/**
+	 * Log message at level FATAL allowing override
+	 *
+	 * @param message
+	 * @param override
+	 */
+	public static void f(Object message, boolean override) {
+		LogKitten.logMessage(message, KittenLevel.FATAL, override);
+	}
+
+	/**
+	 * Log message at level FATAL
+	 *
+	 * @param message the message to log
+	 */
+	public static void f(Object message) { // Log fatal message
+		LogKitten.logMessage(message, KittenLevel.FATAL, false);
+	}
+
+	/**
+	 * Log message at ERROR allowing override
+	 *
+	 * @param message
+	 * @param override
+	 */
+	public static void e(Object message, boolean override) {
+		LogKitten.logMessage(message, KittenLevel.ERROR, override);
+	}
+
+	/**
+	 * Log message at level ERROR
+	 *
+	 * @param message the message to log
+	 */
+	public static void e(Object message) { // Log error message
+		LogKitten.logMessage(message, KittenLevel.ERROR, false);
+	}
+
+	/**
+	 * Log message at WARN allowing override
+	 *
+	 * @param message
+	 * @param override
+	 */
+	public static void w(Object message, boolean override) {
+		LogKitten.logMessage(message, KittenLevel.WARN, override);
+	}
+
+	/**
+	 * Log message at level WARN
+	 *
+	 * @param message the message to log
+	 */
+	public static void w(Object message) { // Log warn message
+		LogKitten.logMessage(message, KittenLevel.WARN, false);
+	}
+
+	/**
+	 * Log message at VERBOSE allowing override
+	 *
+	 * @param message
+	 * @param override
+	 */
+	public static void v(Object message, boolean override) {
+		LogKitten.logMessage(message, KittenLevel.VERBOSE, override);
+	}
+
+	/**
+	 * Log message at level VERBOSE
+	 *
+	 * @param message the message to log
+	 */
+	public static void v(Object message) { // Log verbose message
+		LogKitten.logMessage(message, KittenLevel.VERBOSE, false);
+	}
+
+	/**
+	 * Log message at VERBOSE (INFO links to verbose) allowing override
+	 *
+	 * @param message
+	 * @param override
+	 */
+	public static void i(Object message, boolean override) {
+		LogKitten.logMessage(message, KittenLevel.VERBOSE, override);
+	}
+
+	/**
+	 * Log message at VERBOSE (INFO links to verbose)
+	 *
+	 * @param message
+	 */
+	public static void i(Object message) {
+		LogKitten.logMessage(message, KittenLevel.VERBOSE, false);
+	}
+
+	/**
+	 * Log message at level DEBUG allowing override
+	 *
+	 * @param message
+	 * @param override
+	 */
+	public static void d(Object message, boolean override) {
+		LogKitten.logMessage(message, KittenLevel.DEBUG, override);
+	}
+
+	/**
+	 * Log message at level DEBUG
+	 *
+	 * @param message the message to log
+	 */
+	public static void d(Object message) { // Log debug message
+		LogKitten.logMessage(message, KittenLevel.DEBUG, false);
+	}
+
+	/**
+	 * Log exception at level ERROR allowing override. The stack trace is formatted
+	 * on the logging thread.
+	 *
+	 * @param ex       the exception to log
+	 * @param override whether or not to override
+	 */
+	public static void ex(Exception ex, boolean override) {
+		LogKitten.logMessage(ex, KittenLevel.ERROR, override);
+	}
+
+	/**
+	 * Log exception at level ERROR
+	 *
+	 * @param ex the exception to log
+	 */
+	public static void ex(Exception ex) {
+		LogKitten.ex(ex, false);
+	}
+
+	/**
+	 * Ask the logging thread to flush the logfile after draining what is queued
+	 */
+	public static void clean() {
+		LogKitten.flushRequested = true;
+	}
+
+	/**
+	 * Logging thread: drain the ring buffer, then park briefly when it is empty.
+	 */
+	private static void run() {
+		while (true) {
+			int drained = LogKitten.drain();
+			if (drained == 0) {
+				if (LogKitten.flushRequested) {
+					LogKitten.flushRequested = false;
+					LogKitten.flush();
+				}
+				LockSupport.parkNanos(LogKitten.IDLE_PARK_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * Write every published record to the outputs
+	 *
+	 * @return number of records drained
+	 */
+	private static int drain() {
+		int drained = 0;
+		long sequence = LogKitten.tail;
+		while (true) {
+			int slot = (int) (sequence & LogKitten.MASK);
+			if (LogKitten.published.get(slot) != sequence + 1) break;
+
+			long timestamp = LogKitten.timestamps[slot];
+			KittenLevel level = KittenLevel.values[LogKitten.levels[slot]];
+			boolean override = LogKitten.overrides[slot];
+			Object message = LogKitten.messages[slot];
+			int argc = LogKitten.argCounts[slot];
+			System.arraycopy(LogKitten.args, slot * LogKitten.MAX_ARGS, LogKitten.drainArgs, 0, LogKitten.MAX_ARGS);
+			LogKitten.messages[slot] = null;
+
+			// hand the slot back to producers before doing any I/O
+			sequence++;
+			LogKitten.tail = sequence;
+			drained++;
+
+			LogKitten.write(timestamp, level, override, message, argc);
+		}
+		if (drained > 0) LogKitten.flush();
+		return drained;
+	}
+
+	private static void write(long timestamp, KittenLevel level, boolean override, Object message, int argc) {
+		boolean toFile = LogKitten.logLevel.compareTo(level) >= 0;
+		boolean toConsole = (!LogKitten.PRINT_MUTE || override) && LogKitten.printLevel.compareTo(level) >= 0;
+		boolean toDS = (!LogKitten.PRINT_MUTE || override) && LogKitten.dsLevel.compareTo(level) >= 0;
+		boolean toDataLog = toFile && LogKitten.dataLogEnabled;
+
+		if (toFile) LogKitten.writeBinary(timestamp, level, message, argc);
+		if (!toConsole && !toDS && !toDataLog) return;
+
+		String text = LogKitten.format(message, argc);
+		if (toConsole) {
+			System.out.println(level.getName() + ": " + text);
+		}
+		if (toDS) {
+			if (level.compareTo(KittenLevel.ERROR) <= 0) {
+				DriverStation.reportError(level.getName() + ": " + text, false);
+			} else {
+				DriverStation.reportWarning(level.getName() + ": " + text, false);
+			}
+		}
+		if (toDataLog) {
+			if (LogKitten.dataLogEntry == null) {
+				LogKitten.dataLogEntry = new StringLogEntry(DataLogManager.getLog(), "/LogKitten/messages");
+			}
+			LogKitten.dataLogEntry.append(level.getName() + ": " + text, timestamp);
+		}
+	}
+
+	private static String format(Object message, int argc) {
+		if (message instanceof Throwable throwable) {
+			StringWriter stackTraceString = new StringWriter();
+			throwable.printStackTrace(new PrintWriter(stackTraceString));
+			return stackTraceString.toString();
+		}
+		String text = String.valueOf(message);
+		if (argc == 0) return text;
+		for (int i = 0; i < argc; i++) {
+			LogKitten.boxedArgs[i] = LogKitten.drainArgs[i];
+		}
+		try {
+			return String.format(text, Arrays.copyOf(LogKitten.boxedArgs, argc));
+		} catch (RuntimeException e) {
+			return text + " " + Arrays.toString(Arrays.copyOf(LogKitten.drainArgs, argc));
+		}
+	}
+
+	private static void writeBinary(long timestamp, KittenLevel level, Object message, int argc) {
+		try {
+			if (LogKitten.fileOutput == null || LogKitten.fileBytes >= LogKitten.MAX_FILE_BYTES) {
+				// don't retry a logfile that couldn't be opened on every record
+				if (LogKitten.openFailed && System.nanoTime() - LogKitten.nextOpenNanos < 0) return;
+				LogKitten.rotate();
+				if (LogKitten.fileOutput == null) return;
+			}
+			DataOutputStream out = LogKitten.fileOutput;
+
+			// each distinct message or format string is only written once per file
+			String text = message instanceof Throwable ? LogKitten.format(message, 0) : String.valueOf(message);
+			Integer id = LogKitten.formatIds.get(text);
+			if (id == null) {
+				id = LogKitten.nextFormatId++;
+				byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+				int length = Math.min(bytes.length, 0xFFFF);
+				out.writeByte(LogKitten.RECORD_FORMAT);
+				out.writeInt(id);
+				out.writeShort(length);
+				out.write(bytes, 0, length);
+				LogKitten.fileBytes += 7 + length;
+				if (LogKitten.formatIds.size() < LogKitten.MAX_FORMATS) {
+					LogKitten.formatIds.put(text, id);
+				}
+			}
+
+			out.writeByte(LogKitten.RECORD_MESSAGE);
+			out.writeLong(timestamp);
+			out.writeByte(level.ordinal());
+			out.writeInt(id);
+			out.writeByte(argc);
+			for (int i = 0; i < argc; i++) {
+				out.writeDouble(LogKitten.drainArgs[i]);
+			}
+			LogKitten.fileBytes += 15 + 8 * argc;
+		} catch (IOException ioe) {
+			System.out.println("Error writing logfile");
+			ioe.printStackTrace();
+			LogKitten.closeFile();
+		}
+	}
+
+	/**
+	 * Close the current logfile and open a new one, deleting the oldest files
+	 * beyond {@link #MAX_FILES}. If the logfile can't be opened, the error is
+	 * printed once and opening is retried every {@link #OPEN_RETRY_NANOS}.
+	 */
+	private static void rotate() {
+		LogKitten.closeFile();
+		LogKitten.formatIds.clear();
+		LogKitten.nextFormatId = 0;
+
+		File logPathDirectory = new File(LogKitten.LOG_PATH);
+		try {
+			if (!logPathDirectory.isDirectory()) { // ensure that the log directory exists
+				logPathDirectory.mkdirs(); // otherwise create all the directories of the path
+			}
+		} catch (SecurityException se) {
+			if (!LogKitten.openFailed) {
+				System.out.println("Could not create log directory");
+				se.printStackTrace();
+			}
+		}
+
+		File file = new File(logPathDirectory, LogKitten.timestamp() + "_" + LogKitten.fileIndex + ".kitten");
+		try {
+			LogKitten.fileOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+			LogKitten.fileBytes = 0;
+			LogKitten.fileIndex++;
+			LogKitten.logFiles.addLast(file);
+			LogKitten.openFailed = false;
+		} catch (IOException ioe) {
+			LogKitten.nextOpenNanos = System.nanoTime() + LogKitten.OPEN_RETRY_NANOS;
+			if (!LogKitten.openFailed) {
+				LogKitten.openFailed = true;
+				System.out.println("Could not open logfile in " + logPathDirectory + ", retrying every "
+						+ LogKitten.OPEN_RETRY_NANOS / 1_000_000_000 + "s");
+				ioe.printStackTrace();
+			}
+			return;
+		}
+
+		while (LogKitten.logFiles.size() > LogKitten.MAX_FILES) {
+			File oldest = LogKitten.logFiles.removeFirst();
+			if (!oldest.delete()) {
+				System.out.println("Could not delete old logfile " + oldest);
+			}
+		}
+
+		File logAlias = new File(logPathDirectory, "recent.kitten");
+		try {
+			Files.deleteIfExists(logAlias.toPath());
+			Files.createSymbolicLink(logAlias.toPath(), file.toPath());
+		} catch (IOException | UnsupportedOperationException e) {
+			System.out.println("Could not alias logfile");
+		}
+	}
+
+	private static void flush() {
+		try {
+			if (LogKitten.fileOutput != null) {
+				LogKitten.fileOutput.flush();
+			}
+		} catch (IOException ioe) {
+			System.out.println("Could not flush logfile");
+			ioe.printStackTrace();
+		}
+	}
+
+	private static void closeFile() {
+		try {
+			if (LogKitten.fileOutput != null) {
+				LogKitten.fileOutput.close();
+			}
+		} catch (IOException ioe) {
+			System.out.println("Could not close logfile output. This should never happen");
+			ioe.printStackTrace();
+		}
+		LogKitten.fileOutput = null;
+	}
+
+	/**
+	 * Get a timestamp for the current datetime - me-wow!
+	 *
+	 * @return timestamp as string in the format "YEAR-MONTH-DAY_HOUR-MIN-SEC"
+	 */
+	private static String timestamp() {
+		return LogKitten.TIMESTAMP_FORMAT.format(new Date());
+	}
+
+	public static enum KittenLevel {
+		// Defined in decreasing order of severity. Enum.compareTo uses the definition
+		// order to compare enum values.
+		WTF, FATAL, ERROR, WARN, VERBOSE, DEBUG;
+
+		private static final KittenLevel[] values = values();
+
+		/**
+		 * Get the level severity
+		 *
+		 * @return the level severity as an int
+		 */
+		public int getSeverity() {
+			// Severity is the same as the ordinal, which increases with the order of the
+			// enum values
+			return ordinal();
+		}
+
+		/**
+		 * Get the level name
+		 *
+		 * @return level name as a string
+		 */
+		public String getName() {
+			return name(); // Enum.name() is the Java builtin to get the name of an enum value
+		}
+	}
+}
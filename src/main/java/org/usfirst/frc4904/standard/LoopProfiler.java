@@ -0,0 +1,226 @@
+package org.usfirst.frc4904.standard;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Times the main robot loop. {@link CommandRobotBase} marks the scheduler run and
+ * the {@code *Execute()} hooks with {@link System#nanoTime()}. Subsystems that
+ * extend {@link org.usfirst.frc4904.standard.subsystems.ProfiledSubsystem} time
+ * their own {@code periodic()}. Each command's {@code execute()} is timed from the
+ * previous scheduler event to its {@link CommandScheduler#onCommandExecute}
+ * callback, so it also includes the previous command's {@code isFinished()} and,
+ * for the first command, polling the triggers. Durations are aggregated into
+ * {@link LoopHistogram}s keyed by name, e.g. {@code VisionSubsystem.periodic()}.
+ * <p>
+ * Every second the percentiles of the last second are published to the
+ * {@code /Profiler} NetworkTables table, as {@code /Profiler/<name>/p50Ms},
+ * {@code p99Ms}, {@code maxMs} and {@code count}.
+ * <p>
+ * Only call from the main robot thread. Work on other threads, like the odometry
+ * notifier, is reported through {@link #addSampler(String, LongSupplier)}.
+ */
+public final class LoopProfiler {
+    /** Histogram name for the whole periodic call */
+    public static final String LOOP = "loop";
+    /** Histogram name for {@link CommandScheduler#run()} */
+    public static final String SCHEDULER = "CommandScheduler.run()";
+
+    private static final long PUBLISH_PERIOD_NANOS = 1_000_000_000L;
+    private static final NetworkTable table = NetworkTableInstance.getDefault().getTable("Profiler");
+
+    private static boolean enabled = false;
+    private static final Map<String, LoopHistogram> histograms = new LinkedHashMap<>();
+    private static final Map<String, Timing> timings = new LinkedHashMap<>();
+    private static final Map<String, LongSupplier> samplers = new LinkedHashMap<>();
+    private static long lastPublish = 0;
+    // histogram names of each command's execute(), so they aren't built every loop
+    private static final Map<Command, String> executeNames = new IdentityHashMap<>();
+    private static boolean schedulerCallbacksAdded = false;
+    private static long loopStart = 0;
+    private static long markStart = 0;
+    // end of the last subsystem periodic() or command callback in the current scheduler run
+    private static long lastSchedulerEvent = 0;
+
+    /** Every sample of one name, the last second of them, and where they are published */
+    private static class Timing {
+        final LoopHistogram total = new LoopHistogram();
+        final LoopHistogram window = new LoopHistogram();
+        final DoublePublisher p50;
+        final DoublePublisher p99;
+        final DoublePublisher max;
+        final IntegerPublisher count;
+
+        Timing(String name) {
+            NetworkTable subtable = table.getSubTable(name);
+            p50 = subtable.getDoubleTopic("p50Ms").publish();
+            p99 = subtable.getDoubleTopic("p99Ms").publish();
+            max = subtable.getDoubleTopic("maxMs").publish();
+            count = subtable.getIntegerTopic("count").publish();
+        }
+
+        void publish() {
+            p50.set(window.getPercentile(50) / 1e6);
+            p99.set(window.getPercentile(99) / 1e6);
+            max.set(window.getMax() / 1e6);
+            count.set(window.getCount());
+            window.reset();
+        }
+    }
+
+    private LoopProfiler() {}
+
+    /**
+     * @param enabled Whether to record loop timings
+     */
+    public static void setEnabled(boolean enabled) {
+        LoopProfiler.enabled = enabled;
+        if (enabled && !schedulerCallbacksAdded) {
+            schedulerCallbacksAdded = true;
+            CommandScheduler scheduler = CommandScheduler.getInstance();
+            scheduler.onCommandInitialize(LoopProfiler::commandEvent);
+            scheduler.onCommandExecute(LoopProfiler::commandExecuted);
+            scheduler.onCommandFinish(LoopProfiler::commandEnded);
+            scheduler.onCommandInterrupt(LoopProfiler::commandEnded);
+        }
+    }
+
+    /**
+     * @return Whether loop timings are being recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Start timing a loop iteration */
+    public static void startLoop() {
+        if (!enabled) return;
+        loopStart = markStart = lastSchedulerEvent = System.nanoTime();
+    }
+
+    /**
+     * Record the time since the last mark (or the start of the loop) under a name
+     *
+     * @param name The histogram name
+     */
+    public static void mark(String name) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        record(name, now - markStart);
+        markStart = now;
+    }
+
+    /** Mark the end of {@link CommandScheduler#run()} */
+    public static void markScheduler() {
+        mark(SCHEDULER);
+    }
+
+    /**
+     * Record a subsystem's {@code periodic()}, called by
+     * {@link org.usfirst.frc4904.standard.subsystems.ProfiledSubsystem}
+     *
+     * @param name       The histogram name
+     * @param startNanos {@link System#nanoTime()} when periodic() started
+     */
+    public static void recordPeriodic(String name, long startNanos) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        record(name, now - startNanos);
+        lastSchedulerEvent = now;
+    }
+
+    private static void commandEvent(Command command) {
+        lastSchedulerEvent = System.nanoTime();
+    }
+
+    private static void commandEnded(Command command) {
+        // commands are often created per use, don't keep their names forever
+        executeNames.remove(command);
+        lastSchedulerEvent = System.nanoTime();
+    }
+
+    private static void commandExecuted(Command command) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        String name = executeNames.get(command);
+        if (name == null) {
+            name = command.getName() + ".execute()";
+            executeNames.put(command, name);
+        }
+        record(name, now - lastSchedulerEvent);
+        lastSchedulerEvent = now;
+    }
+
+    /**
+     * Report durations measured off the main thread. The sampler is polled once
+     * per loop and should return the longest duration since it was last polled,
+     * or a negative number if there is nothing new.
+     *
+     * @param name    The histogram name
+     * @param sampler Returns a duration in nanoseconds, and is called from the main robot thread
+     */
+    public static void addSampler(String name, LongSupplier sampler) {
+        samplers.put(name, sampler);
+    }
+
+    /** Finish timing a loop iteration, and publish to NetworkTables once a second */
+    public static void endLoop() {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        record(LOOP, now - loopStart);
+
+        for (Map.Entry<String, LongSupplier> sampler : samplers.entrySet()) {
+            long nanos = sampler.getValue().getAsLong();
+            if (nanos >= 0) record(sampler.getKey(), nanos);
+        }
+
+        if (now - lastPublish >= PUBLISH_PERIOD_NANOS) {
+            lastPublish = now;
+            for (Timing timing : timings.values()) {
+                timing.publish();
+            }
+        }
+    }
+
+    /**
+     * Record a duration under a name
+     *
+     * @param name  The histogram name
+     * @param nanos The duration in nanoseconds
+     */
+    public static void record(String name, long nanos) {
+        Timing timing = timings.get(name);
+        if (timing == null) {
+            timing = new Timing(name);
+            timings.put(name, timing);
+            histograms.put(name, timing.total);
+        }
+        timing.total.record(nanos);
+        timing.window.record(nanos);
+    }
+
+    /**
+     * @return Every histogram recorded so far, by name
+     */
+    public static Map<String, LoopHistogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    /** Clear every histogram */
+    public static void reset() {
+        for (Timing timing : timings.values()) {
+            timing.total.reset();
+            timing.window.reset();
+        }
+    }
+}
@@ -19,38 +19,99 @@ public class Perlin2D {
         for (int i = 0; i < 512; i++) perm[i] = p[i & 255];
     }
 
-    private static final float SQRT_2 = (float) Math.sqrt(2);
+    // scales gradient noise from about -sqrt(2) to sqrt(2) down to 0-1
+    private static final float SCALE = (float) (0.5 / Math.sqrt(2));
 
     /** Noise values are from 0-1 (probably) */
     public float noise(float x, float y) {
-        int xi = (int) Math.floor(x) & 255;
-        int yi = (int) Math.floor(y) & 255;
-        float xf = x - (float) Math.floor(x);
-        float yf = y - (float) Math.floor(y);
+        return noise(x, y, 256, 256);
+    }
+
+    /**
+     * Noise that repeats every {@code periodX} by {@code periodY}, for textures that tile.
+     * Periods must be from 1-256.
+     */
+    public float noise(float x, float y, int periodX, int periodY) {
+        int xFloor = floor(x);
+        int yFloor = floor(y);
+        int xi = Math.floorMod(xFloor, periodX);
+        int yi = Math.floorMod(yFloor, periodY);
+        int xi1 = (xi + 1) % periodX;
+        int yi1 = (yi + 1) % periodY;
+        float xf = x - xFloor;
+        float yf = y - yFloor;
         float u = fade(xf), v = fade(yf);
 
         int aa = perm[perm[xi] + yi];
-        int ab = perm[perm[xi] + yi + 1];
-        int ba = perm[perm[xi + 1] + yi];
-        int bb = perm[perm[xi + 1] + yi + 1];
+        int ab = perm[perm[xi] + yi1];
+        int ba = perm[perm[xi1] + yi];
+        int bb = perm[perm[xi1] + yi1];
 
         float x1 = lerp(u, grad(aa, xf, yf), grad(ba, xf - 1, yf));
         float x2 = lerp(u, grad(ab, xf, yf - 1), grad(bb, xf - 1, yf - 1));
-        return lerp(v, x1, x2) / SQRT_2 / 2 + 0.5f;
+        return lerp(v, x1, x2) * SCALE + 0.5f;
+    }
+
+    /**
+     * Fill {@code out} with noise sampled along a line, the same as calling
+     * {@code noise(x + i * dx, y + i * dy)} for each {@code i} from 0 to {@code count}.
+     * Work shared between samples, like hashing the lattice cell, is only done once.
+     */
+    public void fill(float x, float y, float dx, float dy, float[] out, int offset, int count) {
+        if (dx != 0) {
+            for (int i = 0; i < count; i++) {
+                out[offset + i] = noise(x + i * dx, y + i * dy);
+            }
+            return;
+        }
+
+        // x is fixed, so its half of the hash and fade is shared by every sample
+        int xFloor = floor(x);
+        int xi = xFloor & 255;
+        float xf = x - xFloor;
+        float u = fade(xf);
+        int px0 = perm[xi];
+        int px1 = perm[xi + 1];
+
+        int cell = Integer.MIN_VALUE;
+        int aa = 0, ab = 0, ba = 0, bb = 0;
+        for (int i = 0; i < count; i++) {
+            float yi = y + i * dy;
+            int yFloor = floor(yi);
+            if (yFloor != cell) {
+                cell = yFloor;
+                int yh = yFloor & 255;
+                aa = perm[px0 + yh];
+                ab = perm[px0 + yh + 1];
+                ba = perm[px1 + yh];
+                bb = perm[px1 + yh + 1];
+            }
+            float yf = yi - yFloor;
+            float v = fade(yf);
+
+            float x1 = lerp(u, grad(aa, xf, yf), grad(ba, xf - 1, yf));
+            float x2 = lerp(u, grad(ab, xf, yf - 1), grad(bb, xf - 1, yf - 1));
+            out[offset + i] = lerp(v, x1, x2) * SCALE + 0.5f;
+        }
+    }
+
+    private static int floor(float value) {
+        int i = (int) value;
+        return value < i ? i - 1 : i;
     }
 
-    private float fade(float t) {
+    private static float fade(float t) {
         return t * t * t * (t * (t * 6 - 15) + 10);
     }
 
-    private float lerp(float t, float a, float b) {
+    private static float lerp(float t, float a, float b) {
         return a + t * (b - a);
     }
 
-    private float grad(int hash, float x, float y) {
+    private static float grad(int hash, float x, float y) {
         int h = hash & 3;
         float u = h < 2 ? x : y;
         float v = h < 2 ? y : x;
         return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package org.usfirst.frc4904.standard;
+
+/**
+ * {@link Perlin2D} noise baked ahead of time into a texture that tiles every
+ * {@code width} by {@code height} noise units. Sampling it is a lookup and a
+ * bilinear lerp, which is cheaper than computing noise for animations that
+ * only need a fixed amount of detail.
+ */
+public class PerlinAtlas {
+    private final int width;
+    private final int height;
+    private final int resolution;
+    private final int textureWidth;
+    private final int textureHeight;
+    private final float[] texture;
+
+    /**
+     * Bake a texture.
+     *
+     * @param perlin     The noise to bake
+     * @param width      Noise units before the texture repeats horizontally, from 1-256
+     * @param height     Noise units before the texture repeats vertically, from 1-256
+     * @param resolution Samples per noise unit
+     */
+    public PerlinAtlas(Perlin2D perlin, int width, int height, int resolution) {
+        this.width = width;
+        this.height = height;
+        this.resolution = resolution;
+        textureWidth = width * resolution;
+        textureHeight = height * resolution;
+        texture = new float[textureWidth * textureHeight];
+
+        for (int ty = 0; ty < textureHeight; ty++) {
+            for (int tx = 0; tx < textureWidth; tx++) {
+                texture[ty * textureWidth + tx] = perlin.noise(
+                    (float) tx / resolution,
+                    (float) ty / resolution,
+                    width,
+                    height
+                );
+            }
+        }
+    }
+
+    /**
+     * @return Noise units before the texture repeats horizontally
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Noise units before the texture repeats vertically
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /** Noise at a point, interpolated from the texture. Values are from 0-1 (probably) */
+    public float sample(float x, float y) {
+        float tx = x * resolution;
+        float ty = y * resolution;
+        int x0 = floor(tx);
+        int y0 = floor(ty);
+        float fx = tx - x0;
+        float fy = ty - y0;
+
+        x0 = Math.floorMod(x0, textureWidth);
+        y0 = Math.floorMod(y0, textureHeight);
+        int x1 = x0 + 1 == textureWidth ? 0 : x0 + 1;
+        int row0 = y0 * textureWidth;
+        int row1 = (y0 + 1 == textureHeight ? 0 : y0 + 1) * textureWidth;
+
+        float top = texture[row0 + x0] + (texture[row0 + x1] - texture[row0 + x0]) * fx;
+        float bottom = texture[row1 + x0] + (texture[row1 + x1] - texture[row1 + x0]) * fx;
+        return top + (bottom - top) * fy;
+    }
+
+    /**
+     * Fill {@code out} with noise sampled along a line, the same as calling
+     * {@code sample(x + i * dx, y + i * dy)} for each {@code i} from 0 to {@code count}.
+     */
+    public void fill(float x, float y, float dx, float dy, float[] out, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            out[offset + i] = sample(x + i * dx, y + i * dy);
+        }
+    }
+
+    private static int floor(float value) {
+        int i = (int) value;
+        return value < i ? i - 1 : i;
+    }
+}
@@ -0,0 +1,195 @@
+package org.usfirst.frc4904.standard.custom;
+
+import edu.wpi.first.hal.can.CANJNI;
+import edu.wpi.first.hal.can.CANMessageNotFoundException;
+import edu.wpi.first.hal.util.UncleanStatusException;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.usfirst.frc4904.standard.LogKitten;
+
+/**
+ * Receives CAN messages for every {@link CustomCAN} that reads. One background
+ * pass polls each registered message ID through the same reusable direct
+ * buffers, and stores the latest message of each ID in its own {@link Slot}.
+ * Readers copy out of their slot without locking, so any number of devices cost
+ * one poll pass and reading never waits on the CAN bus.
+ * <p>
+ * Listeners added with {@link #addListener(Runnable)} run on the same thread
+ * after every pass, for devices like the {@link
+ * org.usfirst.frc4904.standard.custom.sensors.PDP} that decode their messages in
+ * the background. A failing poll or listener is logged, rate-limited, and never
+ * stops the pass for everything else.
+ */
+public final class CANDispatcher {
+    /** Seconds between poll passes */
+    public static final double PERIOD = 0.01;
+    /** Microseconds between logged poll or listener errors, the rest are only counted */
+    private static final long ERROR_REPORT_PERIOD_MICROS = 1_000_000;
+
+    private static final Map<Integer, Slot> slotsByID = new HashMap<>();
+    // copied on write, registering is rare and polling is every pass
+    private static volatile Slot[] slots = new Slot[0];
+    private static volatile Runnable[] listeners = new Runnable[0];
+    private static Notifier poller = null;
+
+    // only touched by the poller thread
+    private static final IntBuffer idBuffer = ByteBuffer.allocateDirect(4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    private static final ByteBuffer timestampBuffer = ByteBuffer.allocateDirect(4).order(ByteOrder.nativeOrder());
+    private static long nextErrorReportMicros = 0;
+    private static long suppressedErrors = 0;
+
+    private CANDispatcher() {}
+
+    /**
+     * The latest message for one ID. Written by the poller thread only, read by
+     * anyone through a sequence lock: the sequence is odd while a message is being
+     * written, and readers retry if it changed while they copied.
+     */
+    static final class Slot {
+        final int messageID;
+        private volatile long sequence = 0;
+        private long packed;
+        private int length;
+        private long timestampMicros;
+
+        private Slot(int messageID) {
+            this.messageID = messageID;
+        }
+
+        private void publish(byte[] message, long timestampMicros) {
+            long packed = 0;
+            int length = Math.min(message.length, 8);
+            for (int i = 0; i < length; i++) {
+                packed |= (message[i] & 0xFFL) << (i * 8);
+            }
+            final long s = sequence;
+            sequence = s + 1;
+            VarHandle.storeStoreFence();
+            this.packed = packed;
+            this.length = length;
+            this.timestampMicros = timestampMicros;
+            sequence = s + 2;
+        }
+
+        /**
+         * Copy the latest message into the frame if it is newer than the one already
+         * there.
+         *
+         * @return Whether the frame was updated
+         */
+        boolean read(CANFrame frame) {
+            while (true) {
+                final long s = sequence;
+                if ((s & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                if (s / 2 == frame.sequence) {
+                    return false;
+                }
+                final long packed = this.packed;
+                final int length = this.length;
+                final long timestampMicros = this.timestampMicros;
+                VarHandle.loadLoadFence();
+                if (sequence == s) {
+                    frame.set(packed, length, timestampMicros, s / 2);
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Start receiving messages with the given ID. Devices reading the same ID share
+     * a slot.
+     */
+    static synchronized Slot register(int messageID) {
+        Slot slot = slotsByID.get(messageID);
+        if (slot == null) {
+            slot = new Slot(messageID);
+            slotsByID.put(messageID, slot);
+            Slot[] updated = Arrays.copyOf(slots, slots.length + 1);
+            updated[slots.length] = slot;
+            slots = updated;
+            start();
+        }
+        return slot;
+    }
+
+    /**
+     * Run something on the dispatcher thread after every poll pass.
+     */
+    public static synchronized void addListener(Runnable listener) {
+        Runnable[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+        start();
+    }
+
+    public static synchronized void removeListener(Runnable listener) {
+        listeners = Arrays.stream(listeners).filter(l -> l != listener).toArray(Runnable[]::new);
+    }
+
+    private static void start() {
+        if (poller == null) {
+            poller = new Notifier(CANDispatcher::poll);
+            poller.setName("CANDispatcher");
+            poller.startPeriodic(PERIOD);
+        }
+    }
+
+    private static void poll() {
+        for (Slot slot : slots) {
+            idBuffer.put(0, slot.messageID);
+            timestampBuffer.clear();
+            final byte[] message;
+            try {
+                message = CANJNI.FRCNetCommCANSessionMuxReceiveMessage(idBuffer, 0x1fffffff, timestampBuffer);
+            } catch (CANMessageNotFoundException | UncleanStatusException e) {
+                // nothing new since the last pass
+                continue;
+            } catch (RuntimeException e) {
+                // an exception escaping the Notifier would stop every device from updating
+                reportError(e);
+                continue;
+            }
+            if (message != null) {
+                slot.publish(message, RobotController.getFPGATime());
+            }
+        }
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                reportError(e);
+            }
+        }
+    }
+
+    /**
+     * Log an error from a poll or listener, at most once per
+     * {@link #ERROR_REPORT_PERIOD_MICROS} so a persistent failure doesn't flood
+     * the log every pass.
+     */
+    private static void reportError(RuntimeException e) {
+        final long now = RobotController.getFPGATime();
+        if (now < nextErrorReportMicros) {
+            suppressedErrors++;
+            return;
+        }
+        nextErrorReportMicros = now + ERROR_REPORT_PERIOD_MICROS;
+        if (suppressedErrors > 0) {
+            LogKitten.log(LogKitten.LEVEL_ERROR, "CANDispatcher: %.0f more errors since the last report", suppressedErrors);
+            suppressedErrors = 0;
+        }
+        LogKitten.ex(e);
+    }
+}
@@ -0,0 +1,60 @@
+package org.usfirst.frc4904.standard.custom;
+
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * A reusable copy of the latest CAN message for one ID, filled by
+ * {@link CustomCAN#read(CANFrame)}. Keep one per reader and read into it every
+ * loop, so reading never allocates.
+ */
+public final class CANFrame {
+    /** The message, only the first {@link #getLength()} bytes are valid */
+    public final byte[] data = new byte[8];
+    long packed;
+    int length;
+    long timestampMicros;
+    // how many messages had been received when this one was, 0 if none has been
+    long sequence;
+
+    void set(long packed, int length, long timestampMicros, long sequence) {
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (packed >>> (i * 8));
+        }
+        this.packed = packed;
+        this.length = length;
+        this.timestampMicros = timestampMicros;
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return The message as a little-endian long, byte 0 is the lowest byte
+     */
+    public long getLong() {
+        return packed;
+    }
+
+    /**
+     * @return Number of bytes in the message, 0 to 8
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return FPGA time the message was received, in microseconds. 0 if no message
+     *         has been received
+     */
+    public long getTimestampMicros() {
+        return timestampMicros;
+    }
+
+    /**
+     * @return Seconds since the message was received, infinite if none has been
+     */
+    public double getAge() {
+        if (sequence == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (RobotController.getFPGATime() - timestampMicros) / 1e6;
+    }
+}
@@ -2,10 +2,8 @@ package org.usfirst.frc4904.standard.custom;
 
 // import org.usfirst.frc4904.standard.LogKitten;
 import edu.wpi.first.hal.can.CANJNI;
-import edu.wpi.first.hal.can.CANMessageNotFoundException;
 import edu.wpi.first.hal.util.UncleanStatusException;
-import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -18,6 +16,9 @@ public class CustomCAN {
     // Because CANJNI is basically static, we do not extend it.
     protected final int messageID;
     protected final String name;
+    // registered with the dispatcher on the first read, so devices that only write aren't polled
+    private volatile CANDispatcher.Slot slot = null;
+    private final CANFrame lastFrame = new CANFrame();
 
     /**
      * Constructor for a CustomCAN device. The name is local and for your
@@ -66,36 +67,43 @@ public class CustomCAN {
     }
 
     /**
-     * Read data as bytebuffer
+     * Copy the latest message into the frame, without waiting on the CAN bus.
+     * Messages are received in the background by the {@link CANDispatcher}. Keep
+     * one frame per reader of this device, reading into it never allocates.
      *
-     * @return ByteBuffer containing CAN message, or null
-     * @throws CANMessageUnavailableException when no new message is available
+     * @param frame Where to copy the message
+     * @return Whether there was a message newer than the one already in the frame
      */
-    protected byte[] readBuffer() throws CANMessageUnavailableException {
-        IntBuffer idBuffer = ByteBuffer.allocateDirect(4).asIntBuffer();
-        idBuffer.clear();
-        idBuffer.put(0, Integer.reverseBytes(messageID));
-        ByteBuffer timestamp = ByteBuffer.allocate(4);
-        try {
-            return CANJNI.FRCNetCommCANSessionMuxReceiveMessage(idBuffer, 0x1fffffff, timestamp);
-        } catch (CANMessageNotFoundException e) {
-            throw new CANMessageUnavailableException(
-                "Unable to read CAN device " +
-                getName() +
-                " with ID 0x" +
-                Integer.toHexString(messageID),
-                e
-            );
+    public boolean read(CANFrame frame) {
+        CANDispatcher.Slot slot = this.slot;
+        if (slot == null) {
+            slot = register();
         }
+        return slot.read(frame);
+    }
+
+    private synchronized CANDispatcher.Slot register() {
+        if (slot == null) {
+            slot = CANDispatcher.register(messageID);
+        }
+        return slot;
     }
 
     /**
      * Reads data Also stops repeating the last message.
      *
      * @return byte[] (8 long)
+     * @throws CANMessageUnavailableException when no new message is available
      */
     public byte[] readSafely() throws CANMessageUnavailableException {
-        return readBuffer();
+        synchronized (lastFrame) {
+            if (!read(lastFrame)) {
+                throw new CANMessageUnavailableException(
+                    "Unable to read CAN device " + getName() + " with ID 0x" + Integer.toHexString(messageID)
+                );
+            }
+            return Arrays.copyOf(lastFrame.data, lastFrame.getLength());
+        }
     }
 
     /**
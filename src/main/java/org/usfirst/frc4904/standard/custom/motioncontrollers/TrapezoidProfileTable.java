@@ -0,0 +1,101 @@
+package org.usfirst.frc4904.standard.custom.motioncontrollers;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * A {@link TrapezoidProfile} sampled ahead of time into position and velocity
+ * tables, so setpoints can be looked up at runtime without allocating.
+ */
+public class TrapezoidProfileTable {
+    private final double dt;
+    private final double totalTime;
+    private final double[] positions;
+    private final double[] velocities;
+
+    /**
+     * Sample a profile from {@code start} to {@code goal}.
+     *
+     * @param constraints The profile constraints
+     * @param start       The state the profile starts at
+     * @param goal        The state the profile ends at
+     * @param dt          Time between samples, in seconds
+     */
+    public TrapezoidProfileTable(
+        TrapezoidProfile.Constraints constraints,
+        TrapezoidProfile.State start,
+        TrapezoidProfile.State goal,
+        double dt
+    ) {
+        TrapezoidProfile profile = new TrapezoidProfile(constraints);
+        profile.calculate(0, start, goal);
+
+        this.dt = dt;
+        this.totalTime = profile.totalTime();
+
+        int samples = (int) Math.ceil(totalTime / dt) + 1;
+        positions = new double[samples];
+        velocities = new double[samples];
+
+        for (int i = 0; i < samples; i++) {
+            TrapezoidProfile.State state = profile.calculate(i * dt, start, goal);
+            positions[i] = state.position;
+            velocities[i] = state.velocity;
+        }
+    }
+
+    /**
+     * @return How long the profile takes, in seconds
+     */
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * @return The position the profile starts at
+     */
+    public double getStartPosition() {
+        return positions[0];
+    }
+
+    /**
+     * @return The position the profile ends at
+     */
+    public double getGoalPosition() {
+        return positions[positions.length - 1];
+    }
+
+    /**
+     * @param t Time since the start of the profile, in seconds
+     * @return Whether the profile has reached its goal at time {@code t}
+     */
+    public boolean isFinished(double t) {
+        return t >= totalTime;
+    }
+
+    /**
+     * @param t Time since the start of the profile, in seconds
+     * @return The interpolated position at time {@code t}
+     */
+    public double getPosition(double t) {
+        return sample(positions, t);
+    }
+
+    /**
+     * @param t Time since the start of the profile, in seconds
+     * @return The interpolated velocity at time {@code t}
+     */
+    public double getVelocity(double t) {
+        return sample(velocities, t);
+    }
+
+    private double sample(double[] table, double t) {
+        if (t <= 0) return table[0];
+
+        double index = t / dt;
+        int i = (int) index;
+        if (i >= table.length - 1) return table[table.length - 1];
+
+        double fraction = index - i;
+        return table[i] + (table[i + 1] - table[i]) * fraction;
+    }
+}
@@ -39,6 +39,10 @@ public class ezControl implements BiFunction<Double, Double, Double> {
         this.setpoint_dt = setpoint_dt;
     }
 
+    public void updateSetpoint(ezSetpoint setpoint) {
+        updateSetpoint(setpoint.position, setpoint.velocity);
+    }
+
     public void setIntegratorRange(double kIMin, double kIMax) {
         this.controller.pid.setIntegratorRange(kIMin, kIMin);
     }
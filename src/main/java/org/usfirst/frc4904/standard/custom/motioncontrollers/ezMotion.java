@@ -4,8 +4,6 @@ import java.util.function.DoubleConsumer;
 import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 
-import org.usfirst.frc4904.standard.custom.motioncontrollers.ezMotion.SetpointSupplier.EndSignal;
-
 import edu.wpi.first.math.Pair;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
@@ -17,20 +15,19 @@ public class ezMotion extends Command {
     public Double initialTimestamp;
     public DoubleSupplier feedback;
 
-    private double setpoint;
-    private double setpoint_dt;
+    private final ezSetpoint setpoint = new ezSetpoint();
 
-    public Supplier<SetpointSupplier<Pair<Double, Double>>> setpointDealerDealer;
-    public SetpointSupplier<Pair<Double, Double>> setpointDealer = null;
+    public Supplier<ezSetpointSupplier> setpointDealerDealer;
+    public ezSetpointSupplier setpointDealer = null;
 
     public boolean finishOnArrival;
-    
-    public ezMotion(ezControl control, 
-                    DoubleSupplier feedback, 
-                    DoubleConsumer processVariable, 
-                    Supplier<SetpointSupplier<Pair<Double, Double>>> setpointDealerDealer, 
-                    boolean finishOnArrival,
-                    Subsystem... requirements) {
+
+    private ezMotion(ezControl control,
+                     DoubleSupplier feedback,
+                     DoubleConsumer processVariable,
+                     boolean finishOnArrival,
+                     Supplier<ezSetpointSupplier> setpointDealerDealer,
+                     Subsystem... requirements) {
 
         addRequirements(requirements);
         this.control = control;
@@ -40,26 +37,49 @@ public class ezMotion extends Command {
         this.finishOnArrival = finishOnArrival;
     }
 
-    public ezMotion(ezControl control, 
-                    DoubleSupplier feedback, DoubleConsumer processVariable, 
-                    Supplier<SetpointSupplier<Pair<Double, Double>>> setpointDealerDealer, 
-                    Subsystem... requirements) 
+    public ezMotion(ezControl control,
+                    DoubleSupplier feedback,
+                    DoubleConsumer processVariable,
+                    Supplier<SetpointSupplier<Pair<Double, Double>>> setpointDealerDealer,
+                    boolean finishOnArrival,
+                    Subsystem... requirements)
+    { this(control, feedback, processVariable, finishOnArrival, () -> ezSetpointSupplier.of(setpointDealerDealer.get()), requirements); }
+
+    public ezMotion(ezControl control,
+                    DoubleSupplier feedback, DoubleConsumer processVariable,
+                    Supplier<SetpointSupplier<Pair<Double, Double>>> setpointDealerDealer,
+                    Subsystem... requirements)
     { this(control, feedback, processVariable, setpointDealerDealer, true, requirements); }
 
-    public ezMotion(ezControl control, 
-                    DoubleSupplier feedback, 
-                    DoubleConsumer processVariable, 
+    public ezMotion(ezControl control,
+                    DoubleSupplier feedback,
+                    DoubleConsumer processVariable,
                     SetpointSupplier<Pair<Double, Double>> setpointDealer,
                     boolean finishOnArrival,
-                    Subsystem... requirements) 
-    { this(control, feedback, processVariable, () -> setpointDealer, finishOnArrival, requirements); }
+                    Subsystem... requirements)
+    { this(control, feedback, processVariable, ezSetpointSupplier.of(setpointDealer), finishOnArrival, requirements); }
 
-    public ezMotion(ezControl control, 
-                    DoubleSupplier feedback, 
-                    DoubleConsumer processVariable, 
-                    SetpointSupplier<Pair<Double, Double>> setpointDealer, 
-                    Subsystem... requirements) 
-    { this(control, feedback, processVariable, () -> setpointDealer, requirements); }
+    public ezMotion(ezControl control,
+                    DoubleSupplier feedback,
+                    DoubleConsumer processVariable,
+                    SetpointSupplier<Pair<Double, Double>> setpointDealer,
+                    Subsystem... requirements)
+    { this(control, feedback, processVariable, setpointDealer, true, requirements); }
+
+    public ezMotion(ezControl control,
+                    DoubleSupplier feedback,
+                    DoubleConsumer processVariable,
+                    ezSetpointSupplier setpointDealer,
+                    boolean finishOnArrival,
+                    Subsystem... requirements)
+    { this(control, feedback, processVariable, finishOnArrival, () -> setpointDealer, requirements); }
+
+    public ezMotion(ezControl control,
+                    DoubleSupplier feedback,
+                    DoubleConsumer processVariable,
+                    ezSetpointSupplier setpointDealer,
+                    Subsystem... requirements)
+    { this(control, feedback, processVariable, setpointDealer, true, requirements); }
 
     public double getElapsedTime() {
         return Timer.getFPGATimestamp() - initialTimestamp;
@@ -79,31 +99,29 @@ public class ezMotion extends Command {
 
     @Override
     public void execute() {
-        finished = false;
+        double elapsed = getElapsedTime();
 
-        try {
-            Pair<Double, Double> setpoints = setpointDealer.apply(getElapsedTime());
-            setpoint = setpoints.getFirst();
-            setpoint_dt = setpoints.getSecond();
-        } catch (EndSignal e) {
-            finished = true;
-        }
+        finished = setpointDealer.apply(elapsed, setpoint);
 
         // TODO set `finished = true` when we arrive at the setpoint
         //      (setpoint as in the FINAL destination, which is different than the 'setpoint' class field)
 
-        control.updateSetpoint(setpoint, setpoint_dt);
-        double controlEffort = control.calculate(feedback.getAsDouble(), getElapsedTime());
+        control.updateSetpoint(setpoint);
+        double controlEffort = control.calculate(feedback.getAsDouble(), elapsed);
         processVariable.accept(controlEffort);
     }
 
     @Override
     public boolean isFinished() { return finishOnArrival && finished; }
 
+    /**
+     * Boxed setpoint supplier, kept for existing lambdas. Prefer {@link ezSetpointSupplier},
+     * which does not allocate per tick or signal the end with an exception.
+     */
     @FunctionalInterface
     public interface SetpointSupplier<R> {
         class EndSignal extends Throwable {}
-        
+
         R apply(double num) throws EndSignal;
     }
 }
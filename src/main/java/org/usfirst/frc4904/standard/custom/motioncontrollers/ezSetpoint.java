@@ -0,0 +1,22 @@
+package org.usfirst.frc4904.standard.custom.motioncontrollers;
+
+/**
+ * Mutable position and velocity setpoint, owned by the caller and filled in by
+ * an {@link ezSetpointSupplier} so no objects are allocated per tick.
+ */
+public class ezSetpoint {
+    public double position;
+    public double velocity;
+
+    public ezSetpoint() {}
+
+    public ezSetpoint(double position, double velocity) {
+        this.position = position;
+        this.velocity = velocity;
+    }
+
+    public void set(double position, double velocity) {
+        this.position = position;
+        this.velocity = velocity;
+    }
+}
@@ -0,0 +1,35 @@
+package org.usfirst.frc4904.standard.custom.motioncontrollers;
+
+import org.usfirst.frc4904.standard.custom.motioncontrollers.ezMotion.SetpointSupplier;
+import org.usfirst.frc4904.standard.custom.motioncontrollers.ezMotion.SetpointSupplier.EndSignal;
+
+import edu.wpi.first.math.Pair;
+
+/**
+ * Primitive setpoint supplier for {@link ezMotion}. Writes the setpoint into a
+ * caller-owned {@link ezSetpoint} instead of allocating one.
+ */
+@FunctionalInterface
+public interface ezSetpointSupplier {
+    /**
+     * @param elapsed Seconds since the motion started
+     * @param out     Setpoint to write into. May be left unchanged once the motion has ended.
+     * @return true once the motion has ended
+     */
+    boolean apply(double elapsed, ezSetpoint out);
+
+    /**
+     * Adapt a boxed {@link SetpointSupplier} that signals the end by throwing {@link EndSignal}.
+     */
+    static ezSetpointSupplier of(SetpointSupplier<Pair<Double, Double>> supplier) {
+        return (elapsed, out) -> {
+            try {
+                Pair<Double, Double> setpoints = supplier.apply(elapsed);
+                out.set(setpoints.getFirst(), setpoints.getSecond());
+                return false;
+            } catch (EndSignal e) {
+                return true;
+            }
+        };
+    }
+}
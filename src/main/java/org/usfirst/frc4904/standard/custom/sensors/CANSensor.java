@@ -1,10 +1,9 @@
 package org.usfirst.frc4904.standard.custom.sensors;
 
-import java.nio.ByteBuffer;
 import java.util.LinkedHashMap;
 import java.util.Map.Entry;
 // import org.usfirst.frc4904.standard.LogKitten;
-import org.usfirst.frc4904.standard.custom.CANMessageUnavailableException;
+import org.usfirst.frc4904.standard.custom.CANFrame;
 import org.usfirst.frc4904.standard.custom.CustomCAN;
 
 /**
@@ -13,6 +12,7 @@ import org.usfirst.frc4904.standard.custom.CustomCAN;
  */
 public class CANSensor extends CustomCAN {
     private final int[] values;
+    private final CANFrame frame = new CANFrame();
     private long lastRead; // data age
     private static final long MAX_AGE = 100; // How long to keep the last CAN message before throwing an error (milliseconds)
     private static final LinkedHashMap<CANSensor, Boolean> sensorOnlineByInstance = new LinkedHashMap<>();
@@ -53,15 +53,8 @@ public class CANSensor extends CustomCAN {
      *                                InvalidSensorException to indicate that.
      */
     public int[] readSensor() throws InvalidSensorException {
-        ByteBuffer rawData = ByteBuffer.allocateDirect(8);
-        try {
-            rawData.put(super.readBuffer());
-        } catch (CANMessageUnavailableException e) {
-            rawData = null; // Do not throw exception immediately, wait for timeout
-        }
-        if (rawData != null && rawData.remaining() <= 0) { // 8 is minimum CAN message length
-            rawData.rewind();
-            long data = Long.reverseBytes(rawData.getLong());
+        if (read(frame) && frame.getLength() == 8) { // 8 is minimum CAN message length
+            long data = frame.getLong();
             values[0] = (int) data & 0xFFFFFFFF;
             values[1] = (int) (data >> 32) & 0xFFFFFFFF;
             lastRead = System.currentTimeMillis();
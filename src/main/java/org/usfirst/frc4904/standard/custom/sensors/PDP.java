@@ -1,55 +1,145 @@
 package org.usfirst.frc4904.standard.custom.sensors;
 
-// import org.usfirst.frc4904.standard.LogKitten;
-import org.usfirst.frc4904.standard.custom.CANMessageUnavailableException;
+import org.usfirst.frc4904.standard.custom.CANDispatcher;
+import org.usfirst.frc4904.standard.custom.CANFrame;
 import org.usfirst.frc4904.standard.custom.CustomCAN;
 import edu.wpi.first.wpilibj.RobotController;
 
 /**
- * Simplified version of the PowerDistributionPanel class This class throws
- * exceptions that can actually be caught Based on code from here:
+ * Simplified version of the PowerDistributionPanel class. The PDP's status
+ * messages are decoded on the {@link CANDispatcher} thread after every poll
+ * pass and published as an immutable {@link Snapshot}, so reading it never
+ * waits on the CAN bus. Based on code
+ * from here:
  * https://github.com/wpilibsuite/allwpilib/blob/master/hal/lib/athena/ctre/PDP.cpp
  */
 public class PDP {
     public static final double PDP_CURRENT_PRECISION = 0.01;
     public static final double PDP_VOLTAGE_PRECISION = 0.125;
+    public static final int CHANNELS = 16;
+    /** How old a snapshot can get before it is stale, in seconds */
+    public static final double MAX_AGE = 0.1;
     protected final static double DEFAULT_VOLTAGE = 11.5;
-    protected final static double DEFAULT_RESISTANCE = 80.0;
+    protected final static double DEFAULT_RESISTANCE = 0.08; // ohms
     protected final static int PDP_ID_STATUS_1 = 0x8041400;
     protected final static int PDP_ID_STATUS_2 = 0x8041440;
     protected final static int PDP_ID_STATUS_3 = 0x8041480;
     protected final static int PDP_ID_STATUS_ENERGY = 0x8041740;
+
     protected final CustomCAN status1;
     protected final CustomCAN status2;
     protected final CustomCAN status3;
     protected final CustomCAN statusEnergy;
-    protected double cachedVoltage;
-    protected double cachedCurrent;
-    protected double[] cachedChannelCurrents;
-    protected double cachedResistance;
-    protected double cachedEnergy;
-    protected double cachedPower;
-    protected long lastRead;
-    private static final long MAX_AGE = 100; // How long to keep the last CAN message before throwing an error
-    // (milliseconds)
+    private final Runnable poller = this::poll;
+    private volatile Snapshot snapshot;
+    private volatile StalePolicy stalePolicy;
+
+    // only touched by the dispatcher thread
+    private final double[] channelCurrents = new double[CHANNELS];
+    private final double[] frameCurrents = new double[6];
+    // the last message decoded for each status
+    private final CANFrame[] frames = { new CANFrame(), new CANFrame(), new CANFrame(), new CANFrame() };
+    private double voltage = DEFAULT_VOLTAGE;
+    private double resistance = DEFAULT_RESISTANCE;
+    private double totalCurrent = 0;
+    private double totalPower = 0;
+    private double totalEnergy = 0;
 
     /**
-     * PDP constructor
+     * What the getters report once the latest snapshot is older than
+     * {@link #MAX_AGE}, e.g. when the PDP is disconnected.
+     */
+    public enum StalePolicy {
+        /** Keep reporting the last values received */
+        HOLD,
+        /** Report the roboRIO's battery voltage, other values hold */
+        ROBORIO_VOLTAGE,
+        /** Report NaN for everything */
+        NAN
+    }
+
+    /**
+     * Everything the PDP reported as of one poll. Never changes once published.
+     */
+    public static final class Snapshot {
+        public final double voltage;
+        /** Battery resistance in ohms */
+        public final double resistance;
+        public final double totalCurrent;
+        public final double totalPower;
+        public final double totalEnergy;
+        /**
+         * FPGA time of the oldest status message the snapshot is built from, in
+         * microseconds. 0 if some message has never been received.
+         */
+        public final long timestampMicros;
+        private final double[] channelCurrents;
+
+        private Snapshot(double voltage, double resistance, double totalCurrent, double totalPower,
+                double totalEnergy, double[] channelCurrents, long timestampMicros) {
+            this.voltage = voltage;
+            this.resistance = resistance;
+            this.totalCurrent = totalCurrent;
+            this.totalPower = totalPower;
+            this.totalEnergy = totalEnergy;
+            this.channelCurrents = channelCurrents.clone();
+            this.timestampMicros = timestampMicros;
+        }
+
+        /**
+         * @param channel The channel, 0 to 15
+         * @return The current used by that channel
+         */
+        public double getCurrent(int channel) {
+            return channelCurrents[channel];
+        }
+
+        /**
+         * @return Seconds since the oldest status message in this snapshot was
+         *         received, infinite if one never was
+         */
+        public double getAge() {
+            if (timestampMicros == 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return (RobotController.getFPGATime() - timestampMicros) / 1e6;
+        }
+
+        /**
+         * @return Whether this snapshot is older than {@link PDP#MAX_AGE}
+         */
+        public boolean isStale() {
+            return getAge() > MAX_AGE;
+        }
+    }
+
+    /**
+     * PDP constructor. Starts polling the PDP.
      *
-     * @param ID ID of the PDP. This should be the same as the ID found on the
-     *           RoboRIO web console.
+     * @param ID          ID of the PDP. This should be the same as the ID found on
+     *                    the RoboRIO web console.
+     * @param stalePolicy What to report once the PDP stops sending data
      */
-    public PDP(int ID) {
+    public PDP(int ID, StalePolicy stalePolicy) {
         status1 = new CustomCAN("PDP STATUS 1", PDP.PDP_ID_STATUS_1 | ID);
         status2 = new CustomCAN("PDP STATUS 2", PDP.PDP_ID_STATUS_2 | ID);
-        status3 = new CustomCAN("PDP STATUS 2", PDP.PDP_ID_STATUS_3 | ID);
+        status3 = new CustomCAN("PDP STATUS 3", PDP.PDP_ID_STATUS_3 | ID);
         statusEnergy = new CustomCAN("PDP STATUS ENERGY", PDP.PDP_ID_STATUS_ENERGY | ID);
-        cachedVoltage = PDP.DEFAULT_VOLTAGE;
-        cachedCurrent = 0;
-        cachedChannelCurrents = new double[16];
-        cachedResistance = PDP.DEFAULT_RESISTANCE;
-        cachedEnergy = 0;
-        cachedPower = 0;
+        this.stalePolicy = stalePolicy;
+        snapshot = new Snapshot(voltage, resistance, totalCurrent, totalPower, totalEnergy, channelCurrents, 0);
+
+        CANDispatcher.addListener(poller);
+    }
+
+    /**
+     * PDP constructor. Once the PDP stops sending data, the voltage defaults to
+     * the roboRIO's battery voltage.
+     *
+     * @param ID ID of the PDP. This should be the same as the ID found on the
+     *           RoboRIO web console.
+     */
+    public PDP(int ID) {
+        this(ID, StalePolicy.ROBORIO_VOLTAGE);
     }
 
     /**
@@ -61,227 +151,168 @@ public class PDP {
         this(0);
     }
 
-    private void readStatus(int status) throws InvalidSensorException {
-        byte[] rawArray = null;
-        int numberCurrents = 6;
-        try {
-            if (status == 1) {
-                rawArray = status1.readSafely();
-            } else if (status == 2) {
-                rawArray = status2.readSafely();
-            } else if (status == 3) {
-                rawArray = status3.readSafely();
-                numberCurrents = 4;
-            } else {
-                System.err.println("Trying to read PDP status " + status + ", which does not exist!");
-                // LogKitten.w("Trying to read PDP status " + status + ", which does not exist!");
-                return;
-            }
-        } catch (CANMessageUnavailableException e) {
+    private void poll() {
+        boolean changed = readStatus(status1, 0);
+        changed |= readStatus(status2, 1);
+        changed |= readStatus(status3, 2);
+        changed |= readEnergy();
+        if (!changed) {
+            return;
         }
-        if (rawArray != null) {
-            double[] tempCurrents = new double[numberCurrents];
-            tempCurrents[0] = ((rawArray[0] & 0xFF) << 2 | ((rawArray[1] & 0xC0) >> 6)) * 0.125;
-            tempCurrents[1] = (((rawArray[1] & 0x3F) << 4) | ((rawArray[2] & 0xF0) >> 4)) * 0.125;
-            tempCurrents[2] = (((rawArray[2] & 0x0F) << 6) | ((rawArray[3] & 0x3F) >> 2)) * 0.125;
-            tempCurrents[3] = (((rawArray[3] & 0xC0) << 8) | ((rawArray[4] & 0xFF))) * 0.125;
-            if (numberCurrents == 6) {
-                tempCurrents[4] = (((rawArray[5] & 0xFF) << 2) | ((rawArray[6] & 0xC0) >> 6)) * 0.125;
-                tempCurrents[5] = (((rawArray[6] & 0x3F) << 4) | ((rawArray[7] & 0xF0) >> 4)) * 0.125;
-            } else {
-                cachedResistance = (rawArray[5] & 0xFF) / 1000.0; // in milliOhms
-                cachedVoltage = (rawArray[6] & 0xFF) * 0.05 + 4.0;
-            }
-            for (int i = 0; i < numberCurrents; i++) {
-                if (tempCurrents[i] < 128) { // deals with occasional issue with PDP reporting 1000+ amps (this is not a
-                    // bug in this code, it was observed in PowerDistributionPanel as well
-                    cachedChannelCurrents[i + (status - 1) * 6] = tempCurrents[i];
-                }
-            }
-            lastRead = System.currentTimeMillis();
-        } else if (System.currentTimeMillis() - lastRead > PDP.MAX_AGE) {
-            throw new InvalidSensorException("Can not read voltage from PDP");
+
+        long oldest = Long.MAX_VALUE;
+        for (CANFrame frame : frames) {
+            oldest = Math.min(oldest, frame.getTimestampMicros());
         }
+        snapshot = new Snapshot(voltage, resistance, totalCurrent, totalPower, totalEnergy, channelCurrents, oldest);
     }
 
-    private void readEnergy() throws InvalidSensorException {
-        byte[] rawArray = null;
-        try {
-            rawArray = statusEnergy.readSafely();
-        } catch (CANMessageUnavailableException e) {
+    private boolean readStatus(CustomCAN status, int index) {
+        if (!status.read(frames[index])) {
+            return false;
+        }
+        byte[] rawArray = frames[index].data;
+        int numberCurrents = index == 2 ? 4 : 6;
+        double[] tempCurrents = frameCurrents;
+        tempCurrents[0] = ((rawArray[0] & 0xFF) << 2 | ((rawArray[1] & 0xC0) >> 6)) * 0.125;
+        tempCurrents[1] = (((rawArray[1] & 0x3F) << 4) | ((rawArray[2] & 0xF0) >> 4)) * 0.125;
+        tempCurrents[2] = (((rawArray[2] & 0x0F) << 6) | ((rawArray[3] & 0x3F) >> 2)) * 0.125;
+        tempCurrents[3] = (((rawArray[3] & 0xC0) << 8) | ((rawArray[4] & 0xFF))) * 0.125;
+        if (numberCurrents == 6) {
+            tempCurrents[4] = (((rawArray[5] & 0xFF) << 2) | ((rawArray[6] & 0xC0) >> 6)) * 0.125;
+            tempCurrents[5] = (((rawArray[6] & 0x3F) << 4) | ((rawArray[7] & 0xF0) >> 4)) * 0.125;
+        } else {
+            resistance = (rawArray[5] & 0xFF) / 1000.0; // sent in milliohms, stored in ohms
+            voltage = (rawArray[6] & 0xFF) * 0.05 + 4.0;
         }
-        if (rawArray != null) {
-            cachedCurrent = (((rawArray[1] & 0xFF) << 4) | ((rawArray[2] & 0xF0) >> 4)) * 0.125;
-            cachedPower = (((rawArray[1] & 0x0F) << 12) | (rawArray[2] << 4) | ((rawArray[4] & 0xF0) >> 4)) * 0.125;
-            cachedEnergy = (((rawArray[4] & 0x0F) << 24) | (rawArray[5] << 16) | (rawArray[6] << 8) | (rawArray[7]))
-                * 0.000125 * rawArray[0];
-            lastRead = System.currentTimeMillis();
-        } else if (System.currentTimeMillis() - lastRead > PDP.MAX_AGE) {
-            throw new InvalidSensorException("Can not read energy from PDP");
+        for (int i = 0; i < numberCurrents; i++) {
+            if (tempCurrents[i] < 128) { // deals with occasional issue with PDP reporting 1000+ amps (this is not a
+                // bug in this code, it was observed in PowerDistributionPanel as well
+                channelCurrents[i + index * 6] = tempCurrents[i];
+            }
         }
+        return true;
     }
 
-    /**
-     * Gets the current voltage. This is the same for all channels. This function
-     * defaults to the Driver Station voltage if the PDP becomes disconnected. Note
-     * that this data will then be invalid. If you care, use the getVoltageSafely
-     * function and catch the exceptions.
-     *
-     * @return Current voltage.
-     *
-     */
-    public double getVoltage() {
-        try {
-            return getVoltageSafely();
-        } catch (InvalidSensorException e) {
-            e.printStackTrace();
-            // LogKitten.ex(e);
-            return RobotController.getBatteryVoltage();
+    private boolean readEnergy() {
+        if (!statusEnergy.read(frames[3])) {
+            return false;
         }
+        byte[] rawArray = frames[3].data;
+        totalCurrent = (((rawArray[1] & 0xFF) << 4) | ((rawArray[2] & 0xF0) >> 4)) * 0.125;
+        totalPower = (((rawArray[1] & 0x0F) << 12) | (rawArray[2] << 4) | ((rawArray[4] & 0xF0) >> 4)) * 0.125;
+        totalEnergy = (((rawArray[4] & 0x0F) << 24) | (rawArray[5] << 16) | (rawArray[6] << 8) | (rawArray[7]))
+            * 0.000125 * rawArray[0];
+        return true;
     }
 
     /**
-     * Gets the voltage on the battery.
+     * Gets the latest values from the PDP, without waiting on the CAN bus. Check
+     * {@link Snapshot#isStale()} to know whether they can be trusted.
      *
-     * @return Current battery voltage.
-     * @throws InvalidSensorException If PDP connection is lost,
-     *                                InvalidSensorException will be thrown.
+     * @return The latest snapshot
      */
-    public double getVoltageSafely() throws InvalidSensorException {
-        readStatus(3);
-        return cachedVoltage;
+    public Snapshot getSnapshot() {
+        return snapshot;
     }
 
-    public double getBatteryResistance() {
-        try {
-            return getBatteryResistanceSafely();
-        } catch (InvalidSensorException e) {
-            e.printStackTrace();
-            // LogKitten.ex(e);
-            return cachedResistance;
-        }
+    /**
+     * @return Whether the latest snapshot is older than {@link #MAX_AGE}
+     */
+    public boolean isStale() {
+        return snapshot.isStale();
     }
 
-    public double getBatteryResistanceSafely() throws InvalidSensorException {
-        readStatus(3);
-        return cachedResistance;
+    public StalePolicy getStalePolicy() {
+        return stalePolicy;
     }
 
-    public double getTotalCurrent() {
-        try {
-            return getTotalCurrentSafely();
-        } catch (InvalidSensorException e) {
-            e.printStackTrace();
-            // LogKitten.ex(e);
-            return cachedCurrent;
-        }
+    /**
+     * @param stalePolicy What the getters report once the PDP stops sending data
+     */
+    public void setStalePolicy(StalePolicy stalePolicy) {
+        this.stalePolicy = stalePolicy;
     }
 
     /**
-     * Gets the total current used by channels 0-15 of the PDP.
-     *
-     * @return Total robot current used.
-     * @throws InvalidSensorException If PDP connection is lost,
-     *                                InvalidSensorException will be thrown.
+     * The value to report, following the stale policy.
      */
-    public double getTotalCurrentSafely() throws InvalidSensorException {
-        readEnergy();
-        return cachedCurrent;
+    private double orStale(Snapshot snapshot, double value) {
+        if (stalePolicy == StalePolicy.HOLD || !snapshot.isStale()) {
+            return value;
+        }
+        return stalePolicy == StalePolicy.NAN ? Double.NaN : value;
     }
 
     /**
-     * Gets the total power used by channels 0-15 of the PDP.
+     * Gets the current voltage. This is the same for all channels. Once the PDP
+     * stops sending data, this follows the {@link StalePolicy}, which by default
+     * falls back to the roboRIO's battery voltage.
      *
-     * @return Total robot power
+     * @return Current voltage.
      */
-    public double getTotalPower() {
-        try {
-            return getTotalPowerSafely();
-        } catch (InvalidSensorException e) {
-            e.printStackTrace();
-            // LogKitten.ex(e);
-            return cachedPower;
+    public double getVoltage() {
+        Snapshot snapshot = this.snapshot;
+        if (stalePolicy == StalePolicy.ROBORIO_VOLTAGE && snapshot.isStale()) {
+            return RobotController.getBatteryVoltage();
         }
+        return orStale(snapshot, snapshot.voltage);
     }
 
     /**
-     * Gets the total power used by channels 0-15 of the PDP, throwing an exception
-     * when the PDP is disconnected.
-     *
-     * @return Total robot power
-     * @throws InvalidSensorException If PDP connection is lost,
-     *                                InvalidSensorException will be thrown.
+     * @return Battery resistance in ohms
      */
-    public double getTotalPowerSafely() throws InvalidSensorException {
-        readEnergy();
-        return cachedPower;
+    public double getBatteryResistance() {
+        Snapshot snapshot = this.snapshot;
+        return orStale(snapshot, snapshot.resistance);
     }
 
     /**
-     * Gets the total energy used by channels 0-15 of the PDP.
+     * Gets the total current used by channels 0-15 of the PDP.
      *
-     * @return Total robot energy used
+     * @return Total robot current used.
      */
-    public double getTotalEnergy() {
-        try {
-            return getTotalEnergySafely();
-        } catch (InvalidSensorException e) {
-            e.printStackTrace();
-            // LogKitten.ex(e);
-            return cachedEnergy;
-        }
+    public double getTotalCurrent() {
+        Snapshot snapshot = this.snapshot;
+        return orStale(snapshot, snapshot.totalCurrent);
     }
 
     /**
-     * Gets the total energy used by channels 0-15 of the PDP, throwing an exception
-     * when the PDP is disconnected.
+     * Gets the total power used by channels 0-15 of the PDP.
      *
-     * @return Total robot energy used
-     * @throws InvalidSensorException If PDP connection is lost,
-     *                                InvalidSensorException will be thrown.
+     * @return Total robot power
      */
-    public double getTotalEnergySafely() throws InvalidSensorException {
-        readEnergy();
-        return cachedEnergy;
+    public double getTotalPower() {
+        Snapshot snapshot = this.snapshot;
+        return orStale(snapshot, snapshot.totalPower);
     }
 
     /**
-     * Gets the current used by a single channel.
+     * Gets the total energy used by channels 0-15 of the PDP.
      *
-     * @param channel the channel to read the current for
-     * @return the current from that channel
-     * @throws InvalidSensorException if the PDP is not sending data
+     * @return Total robot energy used
      */
-    public double getCurrentSafely(int channel) throws InvalidSensorException {
-        if (channel < 0) {
-            return 0.0;
-        } else if (channel <= 5) {
-            readStatus(1);
-        } else if (channel <= 11) {
-            readStatus(2);
-        } else if (channel <= 15) {
-            readStatus(3);
-        } else {
-            System.err.println("Trying to read PDP channel " + channel + ", which does not exist!");
-            // LogKitten.w("Trying to read PDP channel " + channel + ", which does not exist!");
-            return 0.0;
-        }
-        return cachedChannelCurrents[channel];
+    public double getTotalEnergy() {
+        Snapshot snapshot = this.snapshot;
+        return orStale(snapshot, snapshot.totalEnergy);
     }
 
     /**
      * Gets the current used by a single channel.
      *
      * @param channel the channel to read the current for
-     * @return the current from that channel
+     * @return the current from that channel, 0 for channels that do not exist
      */
     public double getCurrent(int channel) {
-        try {
-            return getCurrentSafely(channel);
-        } catch (InvalidSensorException e) {
-            e.printStackTrace();
-            // LogKitten.ex(e);
-            return cachedChannelCurrents[channel];
+        if (channel < 0 || channel >= CHANNELS) {
+            return 0.0;
         }
+        Snapshot snapshot = this.snapshot;
+        return orStale(snapshot, snapshot.getCurrent(channel));
+    }
+
+    /** Stop decoding the PDP's messages */
+    public void close() {
+        CANDispatcher.removeListener(poller);
     }
 }
@@ -0,0 +1,30 @@
+package org.usfirst.frc4904.standard.subsystems;
+
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import org.usfirst.frc4904.standard.LoopProfiler;
+
+/**
+ * A subsystem whose periodic work is timed by the {@link LoopProfiler} as
+ * {@code <name>.periodic()}. Override {@link #profiledPeriodic()} instead of
+ * {@link #periodic()}.
+ */
+public abstract class ProfiledSubsystem extends SubsystemBase {
+    private String periodicName = null;
+
+    @Override
+    public final void periodic() {
+        if (!LoopProfiler.isEnabled()) {
+            profiledPeriodic();
+            return;
+        }
+        final long start = System.nanoTime();
+        profiledPeriodic();
+        if (periodicName == null) periodicName = getName() + ".periodic()";
+        LoopProfiler.recordPeriodic(periodicName, start);
+    }
+
+    /**
+     * Called once per scheduler run, like {@link SubsystemBase#periodic()}
+     */
+    protected void profiledPeriodic() {}
+}
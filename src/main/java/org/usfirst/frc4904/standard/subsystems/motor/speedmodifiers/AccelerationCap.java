@@ -2,7 +2,6 @@ package org.usfirst.frc4904.standard.subsystems.motor.speedmodifiers;
 
 // import org.usfirst.frc4904.standard.LogKitten;
 import org.usfirst.frc4904.standard.Util;
-import org.usfirst.frc4904.standard.custom.sensors.InvalidSensorException;
 import org.usfirst.frc4904.standard.custom.sensors.PDP;
 
 /**
@@ -64,10 +63,8 @@ public class AccelerationCap implements SpeedModifier {
 	protected double calculate(double inputSpeed) {
 		double deltaTime = (System.currentTimeMillis() - lastUpdate) / 1000.0;
 		lastUpdate = System.currentTimeMillis();
-		double newVoltage;
-		try {
-			newVoltage = pdp.getVoltageSafely();
-		} catch (InvalidSensorException e) {
+		PDP.Snapshot snapshot = pdp.getSnapshot();
+		if (snapshot.isStale()) {
 			// Apply more naive ramping, then return
 			if (Math.abs(currentSpeed - inputSpeed) > AccelerationCap.MAXIMUM_MOTOR_INCREASE_PER_SECOND * deltaTime) {
 				if (inputSpeed > currentSpeed) {
@@ -78,6 +75,7 @@ public class AccelerationCap implements SpeedModifier {
 			}
 			return inputSpeed;
 		}
+		double newVoltage = snapshot.voltage;
 		if (Math.abs(voltage - newVoltage) > PDP.PDP_VOLTAGE_PRECISION) {
 			lastVoltage = voltage;
 			voltage = newVoltage;
@@ -1,72 +1,232 @@
-// TODO: fix it
-// package org.usfirst.frc4904.standard.subsystems.net;
-
-// import java.io.IOException;
-// import java.net.SocketAddress;
-// import java.nio.ByteBuffer;
-// import java.nio.channels.DatagramChannel;
-// //TODO: fix it
-// import org.msgpack.core.MessageBufferPacker;
-// import org.msgpack.core.MessagePack;
-// import org.msgpack.core.MessageUnpacker;
-// import org.msgpack.core.buffer.ByteBufferInput;
-// import org.msgpack.core.buffer.MessageBuffer;
-// // import org.usfirst.frc4904.standard.LogKitten;
-// import org.usfirst.frc4904.standard.subsystems.net.message.Packable;
-
-// import edu.wpi.first.wpilibj2.command.SubsystemBase;
-
-// public abstract class UDPSocket extends SubsystemBase {
-//     private static final int RECV_BUFFER_SIZE = 1024;
-
-//     private DatagramChannel channel;
-
-//     public UDPSocket(SocketAddress address) throws IOException {
-//         final DatagramChannel channel = DatagramChannel.open().bind(address);
-//         channel.configureBlocking(false);
-
-//         this.channel = channel;
-//     }
-
-//     protected void send(SocketAddress address, Packable message) throws IOException {
-//         final MessageBufferPacker packer = MessagePack.newDefaultBufferPacker();
-
-//         message.pack(packer);
-//         packer.close();
-
-//         final MessageBuffer messageBuffer = packer.toMessageBuffer();
-
-//         channel.send(messageBuffer.sliceAsByteBuffer(), address);
-//     }
-
-//     protected abstract void receive(SocketAddress address, MessageUnpacker unpacker) throws IOException;
-
-//     private void pollReceive() throws IOException {
-//         final ByteBuffer buffer = ByteBuffer.allocate(RECV_BUFFER_SIZE);
-//         final MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(buffer);
-
-//         while (true) {
-//             final SocketAddress address = channel.receive(buffer);
-
-//             if (address == null) {
-//                 break;
-//             }
-
-//             receive(address, unpacker);
-
-//             buffer.clear();
-//             unpacker.reset(new ByteBufferInput(buffer));
-//         }
-
-//         unpacker.close();
-//     }
-
-//     @Override
-//     public void periodic() {
-//         try {
-//             pollReceive();
-//         } catch (IOException ex) {
-//             ex.printStackTrace();
-//         }
-//     }
-// }
+package org.usfirst.frc4904.standard.subsystems.net;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.usfirst.frc4904.standard.LogKitten;
+import org.usfirst.frc4904.standard.subsystems.ProfiledSubsystem;
+import org.usfirst.frc4904.standard.subsystems.net.message.Packable;
+
+
+/**
+ * A non-blocking UDP socket. A selector thread receives packets into a fixed pool of
+ * direct buffers and hands them to the robot loop through a lock-free queue, where
+ * {@link #periodic()} passes each one to {@link #receive(SocketAddress, ByteBuffer)}.
+ * Sending never blocks; if the socket's send buffer is full the packet is dropped.
+ * <p>
+ * Messages use a fixed binary layout, see {@link Packable} and
+ * {@link org.usfirst.frc4904.standard.subsystems.net.message.Unpackable}. Buffers are
+ * big-endian.
+ */
+public abstract class UDPSocket extends ProfiledSubsystem {
+    /** Largest packet that can be sent or received, larger received packets are truncated */
+    public static final int MAX_PACKET_SIZE = 1024;
+    // must be a power of two
+    private static final int POOL_SIZE = 64;
+
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final Thread receiveThread;
+    private volatile boolean running = true;
+
+    // packets waiting for the robot loop, filled by the receive thread
+    private final PacketRing received = new PacketRing(POOL_SIZE);
+    // packets the receive thread can fill, returned by the robot loop
+    private final PacketRing free = new PacketRing(POOL_SIZE);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(MAX_PACKET_SIZE);
+
+    private final AtomicLong droppedReceives = new AtomicLong();
+    private final AtomicLong droppedSends = new AtomicLong();
+
+    /** A received packet and the buffer it lives in */
+    private static final class Packet {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_PACKET_SIZE);
+        SocketAddress address;
+    }
+
+    /** Single producer, single consumer ring of packets */
+    private static final class PacketRing {
+        private final Packet[] slots;
+        private final int mask;
+        // next slot to read, only advanced by the consumer
+        private final AtomicLong head = new AtomicLong();
+        // next slot to write, only advanced by the producer
+        private final AtomicLong tail = new AtomicLong();
+
+        PacketRing(int capacity) {
+            slots = new Packet[capacity];
+            mask = capacity - 1;
+        }
+
+        boolean offer(Packet packet) {
+            final long t = tail.get();
+            if (t - head.get() == slots.length) return false;
+            slots[(int) (t & mask)] = packet;
+            tail.lazySet(t + 1);
+            return true;
+        }
+
+        Packet poll() {
+            final long h = head.get();
+            if (h == tail.get()) return null;
+            final int index = (int) (h & mask);
+            final Packet packet = slots[index];
+            slots[index] = null;
+            head.lazySet(h + 1);
+            return packet;
+        }
+    }
+
+    /**
+     * Open a socket and start receiving.
+     *
+     * @param address The local address to bind to. Use port 0 for any free port, see {@link #getLocalAddress()}
+     */
+    public UDPSocket(SocketAddress address) throws IOException {
+        channel = DatagramChannel.open().bind(address);
+        channel.configureBlocking(false);
+        selector = Selector.open();
+        channel.register(selector, SelectionKey.OP_READ);
+
+        for (int i = 0; i < POOL_SIZE; i++) {
+            free.offer(new Packet());
+        }
+
+        receiveThread = new Thread(this::receiveLoop, getClass().getSimpleName() + " receive");
+        receiveThread.setDaemon(true);
+        receiveThread.start();
+    }
+
+    /**
+     * @return The address the socket is bound to
+     */
+    public SocketAddress getLocalAddress() throws IOException {
+        return channel.getLocalAddress();
+    }
+
+    /**
+     * @return Packets dropped because the robot loop fell too far behind
+     */
+    public long getDroppedReceiveCount() {
+        return droppedReceives.get();
+    }
+
+    /**
+     * @return Packets not sent because the socket's send buffer was full
+     */
+    public long getDroppedSendCount() {
+        return droppedSends.get();
+    }
+
+    /**
+     * Send a message without blocking. Only call from the robot loop.
+     *
+     * @return Whether the packet was sent
+     */
+    protected boolean send(SocketAddress address, Packable message) throws IOException {
+        return send(address, message, sendBuffer);
+    }
+
+    /**
+     * Send a message without blocking, packing it into the given buffer. Safe to call
+     * from other threads as long as each thread has its own buffer.
+     *
+     * @param buffer A buffer of at least {@link #MAX_PACKET_SIZE} bytes, preferably direct
+     * @return Whether the packet was sent
+     */
+    protected boolean send(SocketAddress address, Packable message, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        message.pack(buffer);
+        buffer.flip();
+
+        if (channel.send(buffer, address) == 0) {
+            droppedSends.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Handle a received packet on the robot loop. The buffer is reused once this
+     * returns, so copy anything that needs to be kept, e.g. by unpacking it into a
+     * {@link org.usfirst.frc4904.standard.subsystems.net.message.Unpackable}.
+     *
+     * @param address Where the packet came from
+     * @param buffer  The packet, from its position to its limit
+     */
+    protected abstract void receive(SocketAddress address, ByteBuffer buffer) throws IOException;
+
+    private void receiveLoop() {
+        final ByteBuffer overflow = ByteBuffer.allocateDirect(MAX_PACKET_SIZE);
+        Packet packet = null;
+
+        try {
+            while (running) {
+                selector.select();
+                selector.selectedKeys().clear();
+
+                while (true) {
+                    if (packet == null) packet = free.poll();
+                    // with no free buffers, still drain the socket so it doesn't fill with stale packets
+                    final ByteBuffer buffer = packet != null ? packet.buffer : overflow;
+                    buffer.clear();
+
+                    final SocketAddress address = channel.receive(buffer);
+                    if (address == null) break;
+
+                    if (packet == null) {
+                        droppedReceives.incrementAndGet();
+                        continue;
+                    }
+                    buffer.flip();
+                    packet.address = address;
+                    received.offer(packet); // never full, there are only POOL_SIZE packets
+                    packet = null;
+                }
+            }
+        } catch (ClosedChannelException | ClosedSelectorException ex) {
+            // closed by close()
+        } catch (IOException ex) {
+            LogKitten.ex(ex);
+        }
+    }
+
+    @Override
+    protected void profiledPeriodic() {
+        Packet packet;
+        while ((packet = received.poll()) != null) {
+            try {
+                receive(packet.address, packet.buffer);
+            } catch (IOException | BufferUnderflowException ex) {
+                LogKitten.ex(ex);
+            } finally {
+                // return the buffer even if receive() threw, or the pool shrinks for good
+                packet.address = null;
+                free.offer(packet);
+            }
+        }
+    }
+
+    /**
+     * Stop receiving and close the socket.
+     */
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            receiveThread.join(100);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        selector.close();
+        channel.close();
+    }
+}
@@ -1,9 +1,13 @@
-// package org.usfirst.frc4904.standard.subsystems.net.message;
-// TODO: fix
-// import java.io.IOException;
-// //TODO: fix it
-// import org.msgpack.core.MessagePacker;
+package org.usfirst.frc4904.standard.subsystems.net.message;
 
-// public interface Packable {
-//     void pack(MessagePacker packer) throws IOException;
-// }
+import java.nio.ByteBuffer;
+
+/**
+ * A message with a fixed binary layout that can be written to a {@link ByteBuffer}.
+ */
+public interface Packable {
+    /**
+     * Write this message at the buffer's position, advancing it.
+     */
+    void pack(ByteBuffer buffer);
+}
@@ -1,9 +1,17 @@
-// package org.usfirst.frc4904.standard.subsystems.net.message;
+package org.usfirst.frc4904.standard.subsystems.net.message;
 
-// import java.io.IOException;
-// //TODO: fix it
-// import org.msgpack.core.MessageUnpacker;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
-// public interface Unpackable {
-//     void unpack(MessageUnpacker unpacker) throws IOException;
-// }
+/**
+ * A message with a fixed binary layout that can be read back from a {@link ByteBuffer},
+ * usually into an instance that is reused for every packet.
+ */
+public interface Unpackable {
+    /**
+     * Read this message from the buffer's position, advancing it.
+     *
+     * @throws BufferUnderflowException If the buffer is shorter than the message
+     */
+    void unpack(ByteBuffer buffer);
+}
@@ -53,7 +53,6 @@ import java.util.Optional;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import org.ironmaple.simulation.SimulatedArena;
-import org.ironmaple.simulation.drivesims.AbstractDriveTrainSimulation;
 import org.ironmaple.simulation.drivesims.SwerveDriveSimulation;
 import org.ironmaple.simulation.drivesims.SwerveModuleSimulation;
 import org.ironmaple.simulation.drivesims.configs.DriveTrainSimulationConfig;
@@ -62,7 +61,12 @@ import swervelib.encoders.CANCoderSwerve;
 import swervelib.imu.Pigeon2Swerve;
 import swervelib.imu.SwerveIMU;
 import swervelib.math.SwerveMath;
+import swervelib.math.SwerveSetpointLimiter;
 import swervelib.motors.TalonFXSwerve;
+import swervelib.odometry.OdometrySampleQueue;
+import swervelib.odometry.OdometrySnapshot;
+import swervelib.odometry.PoseHistory;
+import swervelib.odometry.PhoenixSignalBatch;
 import swervelib.parser.Cache;
 import swervelib.parser.SwerveControllerConfiguration;
 import swervelib.parser.SwerveDriveConfiguration;
@@ -100,9 +104,72 @@ public class SwerveDrive {
      */
     private final Notifier odometryThread;
     /**
-     * Odometry lock to ensure thread safety.
+     * WPILib {@link Notifier} sampling module positions and gyro yaw for high frequency odometry.
+     */
+    private final Notifier odometrySampler;
+    /**
+     * Timestamped samples taken by {@link SwerveDrive#odometrySampler}, drained by
+     * {@link SwerveDrive#updateOdometry()}.
+     */
+    private final OdometrySampleQueue odometrySamples;
+    /**
+     * Reusable sample drained from {@link SwerveDrive#odometrySamples}.
+     */
+    private final OdometrySampleQueue.Sample odometrySample;
+    /**
+     * Reusable module positions fed to the pose estimator from {@link SwerveDrive#odometrySample}.
+     */
+    private final SwerveModulePosition[] sampledModulePositions;
+    /**
+     * Angle in degrees each {@link SwerveDrive#sampledModulePositions} angle was created from.
+     */
+    private final double[] sampledAngleDegrees;
+    /**
+     * Gyro yaw of the last sample drained into the pose estimator.
+     */
+    private Rotation2d sampledYaw = Rotation2d.kZero;
+    /**
+     * Module states reused by {@link SwerveDrive#updateOdometry()}, only touched while holding
+     * {@link SwerveDrive#odometryLock}.
+     */
+    private final SwerveModuleState[] odometryModuleStates;
+    /**
+     * Module positions reused by {@link SwerveDrive#updateOdometry()}, only touched while holding
+     * {@link SwerveDrive#odometryLock}.
+     */
+    private final SwerveModulePosition[] odometryModulePositions;
+    /**
+     * Module states published to {@link SwerveDriveTelemetry#measuredStatesObj}, only written by the thread running
+     * {@link SwerveDrive#updateOdometry()}.
+     */
+    private final SwerveModuleState[] telemetryModuleStates;
+    /**
+     * Module states the {@link SwerveDrive#setpointLimiter} is reset from, only touched by the thread commanding the
+     * drive.
+     */
+    private final SwerveModuleState[] limiterModuleStates;
+    /**
+     * Module drive distances in meters written by the sampler thread only.
+     */
+    private final double[] samplerDistances;
+    /**
+     * Module azimuth angles in degrees written by the sampler thread only.
+     */
+    private final double[] samplerAngles;
+    /**
+     * Odometry lock guarding mutation of the {@link SwerveDrive#swerveDrivePoseEstimator}. Readers use
+     * {@link SwerveDrive#odometrySnapshot} instead.
      */
     private final Lock odometryLock = new ReentrantLock();
+    /**
+     * Latest pose, velocity and heading, replaced after every change to the pose estimator so readers never take
+     * {@link SwerveDrive#odometryLock}.
+     */
+    private volatile OdometrySnapshot odometrySnapshot;
+    /**
+     * Pose and velocity after every odometry update, written under {@link SwerveDrive#odometryLock}.
+     */
+    private final PoseHistory poseHistory = new PoseHistory(POSE_HISTORY_CAPACITY);
     /**
      * Alert to recommend Tuner X if the configuration is compatible.
      */
@@ -196,10 +263,36 @@ public class SwerveDrive {
      * The absolute max speed the robot can reach while rotating radians per second.
      */
     private double attainableMaxRotationalVelocityRadiansPerSecond = 0;
+    /**
+     * Limits module steering rate and drive acceleration between control cycles, null to send states unlimited.
+     */
+    private SwerveSetpointLimiter setpointLimiter = null;
     /**
      * Maximum speed of the robot in meters per second.
      */
     private double maxChassisSpeedMPS;
+    /**
+     * Last yaw {@link Rotation2d} returned by {@link SwerveDrive#getYaw()}, only replaced when the IMU reading changes.
+     */
+    private Rotation2d yaw = Rotation2d.kZero;
+    /**
+     * Batched Phoenix status signals refreshed once per odometry cycle, null when disabled.
+     */
+    private PhoenixSignalBatch signalBatch;
+    /**
+     * Whether odometry is updated from the high frequency sampler instead of directly in
+     * {@link SwerveDrive#updateOdometry()}.
+     */
+    private volatile boolean highFrequencyOdometry = false;
+    /**
+     * Number of samples the high frequency odometry queue can hold.
+     */
+    private static final int ODOMETRY_SAMPLE_CAPACITY = 64;
+    /**
+     * Number of odometry updates kept in {@link SwerveDrive#poseHistory}, about 5 seconds at the default 20ms odometry
+     * period.
+     */
+    private static final int POSE_HISTORY_CAPACITY = 256;
 
     /**
      * Creates a new swerve drivebase subsystem. Robot is controlled via the {@link SwerveDrive#drive} method, or via the
@@ -227,9 +320,30 @@ public class SwerveDrive {
         // Create Kinematics from swerve module locations.
         kinematics = new SwerveDriveKinematics(config.moduleLocationsMeters);
         odometryThread = new Notifier(this::updateOdometry);
+        odometrySampler = new Notifier(this::sampleOdometry);
 
         this.swerveModules = config.modules;
 
+        odometrySamples = new OdometrySampleQueue(ODOMETRY_SAMPLE_CAPACITY, config.moduleCount);
+        odometrySample = new OdometrySampleQueue.Sample(config.moduleCount);
+        sampledModulePositions = new SwerveModulePosition[config.moduleCount];
+        sampledAngleDegrees = new double[config.moduleCount];
+        for (int i = 0; i < config.moduleCount; i++) {
+            sampledModulePositions[i] = new SwerveModulePosition(0, Rotation2d.kZero);
+        }
+        odometryModuleStates = new SwerveModuleState[config.moduleCount];
+        odometryModulePositions = new SwerveModulePosition[config.moduleCount];
+        telemetryModuleStates = new SwerveModuleState[config.moduleCount];
+        limiterModuleStates = new SwerveModuleState[config.moduleCount];
+        for (int i = 0; i < config.moduleCount; i++) {
+            odometryModuleStates[i] = new SwerveModuleState();
+            odometryModulePositions[i] = new SwerveModulePosition();
+            telemetryModuleStates[i] = new SwerveModuleState();
+            limiterModuleStates[i] = new SwerveModuleState();
+        }
+        samplerDistances = new double[config.moduleCount];
+        samplerAngles = new double[config.moduleCount];
+
         // Create an integrator for angle if the robot is being simulated to emulate an IMU
         // If the robot is real, instantiate the IMU instead.
         if (SwerveDriveTelemetry.isSimulation) {
@@ -271,11 +385,11 @@ public class SwerveDrive {
             SimulatedArena.getInstance().addDriveTrainSimulation(mapleSimDrive);
 
             simIMU = new SwerveIMUSimulation(mapleSimDrive.getGyroSimulation());
-            imuReadingCache = new Cache<>(simIMU::getGyroRotation3d, 5L);
+            imuReadingCache = new Cache<>(simIMU::getGyroRotation3d);
         } else {
             imu = config.imu;
             imu.factoryDefault();
-            imuReadingCache = new Cache<>(imu::getRotation3d, 5L);
+            imuReadingCache = new Cache<>(imu::getRotation3d);
         }
 
         //    odometry = new SwerveDriveOdometry(kinematics, getYaw(), getModulePositions());
@@ -285,6 +399,7 @@ public class SwerveDrive {
             getModulePositions(),
             startingPose
         ); // x,y,heading in radians; Vision measurement std dev, higher=less weight
+        publishOdometrySnapshot(new ChassisSpeeds(), Timer.getFPGATimestamp());
 
         zeroGyro();
 
@@ -328,22 +443,6 @@ public class SwerveDrive {
         HAL.report(kResourceType_RobotDrive, kRobotDriveSwerve_YAGSL);
     }
 
-    /**
-     * Update the cache validity period for the robot.
-     *
-     * @param imu             IMU reading cache validity period in milliseconds.
-     * @param driveMotor      Drive motor reading cache in milliseconds.
-     * @param absoluteEncoder Absolute encoder reading cache in milliseconds.
-     */
-    public void updateCacheValidityPeriods(long imu, long driveMotor, long absoluteEncoder) {
-        imuReadingCache.updateValidityPeriod(imu);
-        for (SwerveModule module : swerveModules) {
-            module.drivePositionCache.updateValidityPeriod(driveMotor);
-            module.driveVelocityCache.updateValidityPeriod(driveMotor);
-            module.absolutePositionCache.updateValidityPeriod(absoluteEncoder);
-        }
-    }
-
     /**
      * Check all components to ensure that Tuner X Swerve Generator is recommended instead.
      */
@@ -382,6 +481,142 @@ public class SwerveDrive {
         SimulatedArena.overrideSimulationTimings(Seconds.of(TimedRobot.kDefaultPeriod), 5);
     }
 
+    /**
+     * Sample module positions and gyro yaw on a dedicated thread at the given frequency. Samples are queued with their
+     * timestamps and drained into the {@link SwerveDrivePoseEstimator} in batches by
+     * {@link SwerveDrive#updateOdometry()}, which keeps running at the odometry period.
+     *
+     * @param frequencyHz Sampling frequency in hertz, 250hz is recommended for CAN FD devices.
+     */
+    public void enableHighFrequencyOdometry(double frequencyHz) {
+        odometrySampler.stop();
+        odometryLock.lock();
+        try {
+            odometrySamples.clear();
+            highFrequencyOdometry = true;
+        } finally {
+            odometryLock.unlock();
+        }
+        odometrySampler.startPeriodic(1.0 / frequencyHz);
+    }
+
+    /**
+     * Stop the high frequency odometry sampler and return to updating odometry directly in
+     * {@link SwerveDrive#updateOdometry()}.
+     */
+    public void disableHighFrequencyOdometry() {
+        odometrySampler.stop();
+        highFrequencyOdometry = false;
+    }
+
+    /**
+     * Get the number of high frequency odometry samples dropped because {@link SwerveDrive#updateOdometry()} fell
+     * behind the sampler.
+     *
+     * @return Number of dropped odometry samples.
+     */
+    public long getDroppedOdometrySamples() {
+        return odometrySamples.getDroppedSamples();
+    }
+
+    /**
+     * Refresh every module's TalonFX and CANcoder status signals with a single call per odometry cycle instead of one
+     * call per reading. The positions are latency compensated to the refresh time, which is used as the odometry
+     * timestamp. Only supported when every drive and angle motor is a {@link TalonFXSwerve}.
+     *
+     * @param frequencyHz Update frequency to set on every signal in hertz.
+     * @return True if batched refresh was enabled.
+     */
+    public boolean enableBatchedSignalRefresh(double frequencyHz) {
+        if (SwerveDriveTelemetry.isSimulation || !PhoenixSignalBatch.isSupported(swerveModules)) {
+            return false;
+        }
+        PhoenixSignalBatch batch = new PhoenixSignalBatch(swerveModules);
+        batch.setUpdateFrequency(frequencyHz);
+        odometryLock.lock();
+        try {
+            batch.refresh();
+            for (SwerveModule module : swerveModules) {
+                module.setSignalBatch(batch);
+            }
+            signalBatch = batch;
+        } finally {
+            odometryLock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Get the batch refreshing every module's status signals, if batched refresh is enabled.
+     *
+     * @return {@link PhoenixSignalBatch} in use, or null if each reading is refreshed individually.
+     */
+    public PhoenixSignalBatch getSignalBatch() {
+        return signalBatch;
+    }
+
+    /**
+     * Go back to refreshing each module reading individually.
+     */
+    public void disableBatchedSignalRefresh() {
+        odometryLock.lock();
+        try {
+            signalBatch = null;
+            for (SwerveModule module : swerveModules) {
+                module.setSignalBatch(null);
+            }
+        } finally {
+            odometryLock.unlock();
+        }
+    }
+
+    /**
+     * Sample the module positions and gyro yaw directly from the hardware, bypassing the {@link Cache} objects which are
+     * owned by the odometry thread. Runs on {@link SwerveDrive#odometrySampler}.
+     */
+    private void sampleOdometry() {
+        double timestamp = Timer.getFPGATimestamp();
+        for (SwerveModule module : swerveModules) {
+            samplerDistances[module.moduleNumber] = module.getRawDrivePosition();
+            samplerAngles[module.moduleNumber] = module.getRawAbsolutePosition();
+        }
+        double yaw = SwerveDriveTelemetry.isSimulation
+            ? simIMU.getGyroRotation3d().getZ()
+            : imu.getRotation3d().getZ();
+        odometrySamples.offer(timestamp, yaw, samplerDistances, samplerAngles);
+    }
+
+    /**
+     * Drain every queued high frequency odometry sample into the {@link SwerveDrivePoseEstimator}. Must be called while
+     * holding {@link SwerveDrive#odometryLock}.
+     *
+     * @return Timestamp of the last sample drained in seconds, or {@link Double#NaN} if there were none.
+     */
+    private double drainOdometrySamples() {
+        double timestamp = Double.NaN;
+        while (odometrySamples.poll(odometrySample)) {
+            // Rotation2d is immutable, so only create a new one when the reading actually changed. Modules that aren't
+            // steering and a robot that isn't turning then cost no allocation here.
+            for (int i = 0; i < sampledModulePositions.length; i++) {
+                sampledModulePositions[i].distanceMeters = odometrySample.distanceMeters[i];
+                if (odometrySample.angleDegrees[i] != sampledAngleDegrees[i]) {
+                    sampledAngleDegrees[i] = odometrySample.angleDegrees[i];
+                    sampledModulePositions[i].angle = Rotation2d.fromDegrees(sampledAngleDegrees[i]);
+                }
+            }
+            if (odometrySample.yawRadians != sampledYaw.getRadians()) {
+                sampledYaw = Rotation2d.fromRadians(odometrySample.yawRadians);
+            }
+            swerveDrivePoseEstimator.updateWithTime(
+                odometrySample.timestamp,
+                sampledYaw,
+                sampledModulePositions
+            );
+            timestamp = odometrySample.timestamp;
+        }
+        return timestamp;
+    }
+
     /**
      * Set the conversion factor for the angle/azimuth motor controller.
      *
@@ -412,7 +647,26 @@ public class SwerveDrive {
      * @return {@link Rotation2d} of the robot heading.
      */
     public Rotation2d getOdometryHeading() {
-        return swerveDrivePoseEstimator.getEstimatedPosition().getRotation();
+        return odometrySnapshot.getHeading();
+    }
+
+    /**
+     * Set the limiter applied to module states after desaturation in {@link SwerveDrive#drive} and
+     * {@link SwerveDrive#setChassisSpeeds(ChassisSpeeds)}.
+     *
+     * @param limiter {@link SwerveSetpointLimiter} to use, or null to disable limiting.
+     */
+    public void setSetpointLimiter(SwerveSetpointLimiter limiter) {
+        this.setpointLimiter = limiter;
+    }
+
+    /**
+     * Get the limiter applied to module states, if any.
+     *
+     * @return {@link SwerveSetpointLimiter} in use, or null if limiting is disabled.
+     */
+    public SwerveSetpointLimiter getSetpointLimiter() {
+        return setpointLimiter;
     }
 
     /**
@@ -485,7 +739,7 @@ public class SwerveDrive {
      * @param velocity The desired robot-oriented {@link ChassisSpeeds} for the robot to achieve.
      */
     public void drive(ChassisSpeeds velocity) {
-        drive(velocity, false, new Translation2d());
+        drive(velocity, false, Translation2d.kZero);
     }
 
     /**
@@ -567,7 +821,7 @@ public class SwerveDrive {
         if (fieldRelative) {
             ChassisSpeeds.fromFieldRelativeSpeeds(velocity, getOdometryHeading());
         }
-        drive(velocity, isOpenLoop, new Translation2d());
+        drive(velocity, isOpenLoop, Translation2d.kZero);
     }
 
     /**
@@ -692,7 +946,7 @@ public class SwerveDrive {
      * @param desiredChassisSpeed The desired chassis speeds to set the robot to achieve.
      * @param isOpenLoop          Whether to use closed-loop velocity control. Set to true to disable closed-loop.
      */
-    private void setRawModuleStates(
+    void setRawModuleStates(
         SwerveModuleState[] desiredStates,
         ChassisSpeeds desiredChassisSpeed,
         boolean isOpenLoop
@@ -714,6 +968,14 @@ public class SwerveDrive {
             SwerveDriveKinematics.desaturateWheelSpeeds(desiredStates, maxModuleSpeedMPS);
         }
 
+        // Limits steering rate and acceleration
+        if (setpointLimiter != null) {
+            if (setpointLimiter.isStale()) {
+                setpointLimiter.reset(getStates(limiterModuleStates));
+            }
+            setpointLimiter.limit(desiredStates);
+        }
+
         // Sets states
         for (SwerveModule module : swerveModules) {
             module.setDesiredState(desiredStates[module.moduleNumber], isOpenLoop, false);
@@ -811,10 +1073,85 @@ public class SwerveDrive {
      * @return The robot's pose
      */
     public Pose2d getPose() {
-        odometryLock.lock();
-        Pose2d poseEstimation = swerveDrivePoseEstimator.getEstimatedPosition();
-        odometryLock.unlock();
-        return poseEstimation;
+        return odometrySnapshot.getPose();
+    }
+
+    /**
+     * Gets the pose, velocity and heading from the latest odometry update together, without waiting on odometry.
+     *
+     * @return The latest {@link OdometrySnapshot}.
+     */
+    public OdometrySnapshot getOdometrySnapshot() {
+        return odometrySnapshot;
+    }
+
+    /**
+     * Gets the pose and velocity history filled by {@link SwerveDrive#updateOdometry()}, for allocation free lookups of
+     * where the robot was at a given time.
+     *
+     * @return The {@link PoseHistory}.
+     */
+    public PoseHistory getPoseHistory() {
+        return poseHistory;
+    }
+
+    /**
+     * Gets the estimated pose at an FPGA timestamp, interpolated between odometry updates. Use this to line up
+     * measurements taken in the past, such as camera frames, with where the robot was when they were taken.
+     * <p>
+     * Allocates the result on every call; on hot paths use {@link SwerveDrive#getPoseAt(double, PoseHistory.Sample)}
+     * with a reused sample instead.
+     *
+     * @param timestamp Timestamp in seconds, from {@link Timer#getFPGATimestamp()} or similar sources.
+     * @return The pose at the timestamp, or {@link Optional#empty()} if it is older than the history or the odometry was
+     * reset since.
+     */
+    public Optional<Pose2d> getPoseAt(double timestamp) {
+        PoseHistory.Sample sample = new PoseHistory.Sample();
+        if (!getPoseAt(timestamp, sample)) {
+            return Optional.empty();
+        }
+        return Optional.of(sample.toPose2d());
+    }
+
+    /**
+     * Gets the estimated pose and velocity at an FPGA timestamp, interpolated between odometry updates, without
+     * allocating.
+     *
+     * @param timestamp Timestamp in seconds, from {@link Timer#getFPGATimestamp()} or similar sources.
+     * @param sample    Caller owned {@link PoseHistory.Sample} to copy the result into, only modified if this returns
+     *                  true.
+     * @return True if the history covers the timestamp, false if it is older than the history or the odometry was reset
+     * since.
+     */
+    public boolean getPoseAt(double timestamp, PoseHistory.Sample sample) {
+        return poseHistory.sample(timestamp, sample);
+    }
+
+    /**
+     * Publish the current state of the {@link SwerveDrive#swerveDrivePoseEstimator} to readers. Must be called while
+     * holding {@link SwerveDrive#odometryLock}.
+     *
+     * @param robotVelocity Measured robot relative velocity.
+     * @param timestamp     FPGA timestamp of the estimate in seconds.
+     */
+    private void publishOdometrySnapshot(ChassisSpeeds robotVelocity, double timestamp) {
+        odometrySnapshot = new OdometrySnapshot(
+            swerveDrivePoseEstimator.getEstimatedPosition(),
+            robotVelocity,
+            timestamp,
+            SwerveDriveTelemetry.isSimulation
+                ? Optional.of(mapleSimDrive.getSimulatedDriveTrainPose())
+                : Optional.empty()
+        );
+    }
+
+    /**
+     * Publish the current state of the {@link SwerveDrive#swerveDrivePoseEstimator}, keeping the last measured velocity.
+     * Must be called while holding {@link SwerveDrive#odometryLock}.
+     */
+    private void republishOdometrySnapshot() {
+        publishOdometrySnapshot(odometrySnapshot.getRobotVelocity(), Timer.getFPGATimestamp());
     }
 
     /**
@@ -839,11 +1176,7 @@ public class SwerveDrive {
      * optional when running on real robot
      */
     public Optional<Pose2d> getSimulationDriveTrainPose() {
-        odometryLock.lock();
-        Optional<Pose2d> simulationPose = getMapleSimDrive()
-            .map(AbstractDriveTrainSimulation::getSimulatedDriveTrainPose);
-        odometryLock.unlock();
-        return simulationPose;
+        return odometrySnapshot.getSimulationPose();
     }
 
     /**
@@ -880,10 +1213,14 @@ public class SwerveDrive {
      */
     public void resetOdometry(Pose2d pose) {
         odometryLock.lock();
-        swerveDrivePoseEstimator.resetPosition(getYaw(), getModulePositions(), pose);
+        // Samples taken before the reset are relative to the old pose.
+        odometrySamples.clear();
+        poseHistory.clear();
+        swerveDrivePoseEstimator.resetPosition(getYaw(), getModulePositions(odometryModulePositions), pose);
         if (SwerveDriveTelemetry.isSimulation) {
             mapleSimDrive.setSimulationWorldPose(pose);
         }
+        republishOdometrySnapshot();
         odometryLock.unlock();
         ChassisSpeeds robotRelativeSpeeds = ChassisSpeeds.fromRobotRelativeSpeeds(
             new ChassisSpeeds(0, 0, 0),
@@ -904,32 +1241,59 @@ public class SwerveDrive {
     }
 
     /**
-     * Gets the current module states (azimuth and velocity)
+     * Gets the current module states (azimuth and velocity).
      *
      * @return A list of SwerveModuleStates containing the current module states
      */
     public SwerveModuleState[] getStates() {
-        SwerveModuleState[] states = new SwerveModuleState[swerveDriveConfiguration.moduleCount];
+        SwerveModuleState[] states = new SwerveModuleState[swerveModules.length];
         for (SwerveModule module : swerveModules) {
             states[module.moduleNumber] = module.getState();
         }
         return states;
     }
 
+    /**
+     * Gets the current module states (azimuth and velocity) without allocating, by filling states owned by the caller.
+     * Each thread must use its own array.
+     *
+     * @param states Array of {@link SwerveModuleState} to fill, one per module.
+     * @return The given array, filled with the current module states.
+     */
+    public SwerveModuleState[] getStates(SwerveModuleState[] states) {
+        for (SwerveModule module : swerveModules) {
+            module.getState(states[module.moduleNumber]);
+        }
+        return states;
+    }
+
     /**
      * Gets the current module positions (azimuth and wheel position (meters)).
      *
      * @return A list of SwerveModulePositions containg the current module positions
      */
     public SwerveModulePosition[] getModulePositions() {
-        SwerveModulePosition[] positions =
-            new SwerveModulePosition[swerveDriveConfiguration.moduleCount];
+        SwerveModulePosition[] positions = new SwerveModulePosition[swerveModules.length];
         for (SwerveModule module : swerveModules) {
             positions[module.moduleNumber] = module.getPosition();
         }
         return positions;
     }
 
+    /**
+     * Gets the current module positions (azimuth and wheel position (meters)) without allocating, by filling positions
+     * owned by the caller. Each thread must use its own array.
+     *
+     * @param positions Array of {@link SwerveModulePosition} to fill, one per module.
+     * @return The given array, filled with the current module positions.
+     */
+    public SwerveModulePosition[] getModulePositions(SwerveModulePosition[] positions) {
+        for (SwerveModule module : swerveModules) {
+            module.getPosition(positions[module.moduleNumber]);
+        }
+        return positions;
+    }
+
     /**
      * Getter for the {@link SwerveIMU}.
      *
@@ -978,7 +1342,13 @@ public class SwerveDrive {
      */
     public Rotation2d getYaw() {
         // Read the imu if the robot is real or the accumulator if the robot is simulated.
-        return Rotation2d.fromRadians(imuReadingCache.getValue().getZ());
+        double radians = imuReadingCache.getValue().getZ();
+        Rotation2d current = yaw;
+        if (current.getRadians() != radians) {
+            current = Rotation2d.fromRadians(radians);
+            yaw = current;
+        }
+        return current;
     }
 
     /**
@@ -1107,11 +1477,31 @@ public class SwerveDrive {
     public void updateOdometry() {
         SwerveDriveTelemetry.startOdomCycle();
         odometryLock.lock();
-        invalidateCache();
         try {
+            if (signalBatch != null) {
+                signalBatch.refresh();
+            }
+            invalidateCache();
+
             // Update odometry
-            swerveDrivePoseEstimator.update(getYaw(), getModulePositions());
+            double timestamp = Double.NaN;
+            if (highFrequencyOdometry) {
+                timestamp = drainOdometrySamples();
+            } else if (signalBatch != null) {
+                timestamp = signalBatch.getTimestamp();
+                swerveDrivePoseEstimator.updateWithTime(
+                    timestamp,
+                    getYaw(),
+                    getModulePositions(odometryModulePositions)
+                );
+            } else {
+                swerveDrivePoseEstimator.update(getYaw(), getModulePositions(odometryModulePositions));
+            }
+            if (Double.isNaN(timestamp)) {
+                timestamp = Timer.getFPGATimestamp();
+            }
 
+            // Stepped under the lock since resetOdometry moves the simulated drivetrain.
             if (SwerveDriveTelemetry.isSimulation) {
                 try {
                     SimulatedArena.getInstance().simulationPeriodic();
@@ -1120,67 +1510,75 @@ public class SwerveDrive {
                 }
             }
 
-            // Update angle accumulator if the robot is simulated
-            if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.INFO.ordinal()) {
-                SwerveDriveTelemetry.measuredChassisSpeedsObj = getRobotVelocity();
-                SwerveDriveTelemetry.robotRotationObj = getOdometryHeading();
-            }
+            ChassisSpeeds robotVelocity = kinematics.toChassisSpeeds(getStates(odometryModuleStates));
+            publishOdometrySnapshot(robotVelocity, timestamp);
+            poseHistory.add(
+                timestamp,
+                odometrySnapshot.getPose(),
+                robotVelocity.vxMetersPerSecond,
+                robotVelocity.vyMetersPerSecond,
+                robotVelocity.omegaRadiansPerSecond
+            );
+        } finally {
+            odometryLock.unlock();
+        }
+        OdometrySnapshot snapshot = odometrySnapshot;
 
-            if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.POSE.ordinal()) {
-                if (SwerveDriveTelemetry.isSimulation) {
-                    field.setRobotPose(mapleSimDrive.getSimulatedDriveTrainPose());
-                    field
-                        .getObject("OdometryPose")
-                        .setPose(swerveDrivePoseEstimator.getEstimatedPosition());
-                    field
-                        .getObject("XModules")
-                        .setPoses(getSwerveModulePoses(mapleSimDrive.getSimulatedDriveTrainPose()));
-                } else {
-                    field.setRobotPose(swerveDrivePoseEstimator.getEstimatedPosition());
-                }
-            }
+        // Update angle accumulator if the robot is simulated
+        if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.INFO.ordinal()) {
+            SwerveDriveTelemetry.measuredChassisSpeedsObj = snapshot.getRobotVelocity();
+            SwerveDriveTelemetry.robotRotationObj = snapshot.getHeading();
+        }
 
-            double sumVelocity = 0;
-            for (SwerveModule module : swerveModules) {
-                SwerveModuleState moduleState = module.getState();
-                sumVelocity += Math.abs(moduleState.speedMetersPerSecond);
-                if (SwerveDriveTelemetry.verbosity == TelemetryVerbosity.HIGH) {
-                    module.updateTelemetry();
-                    rawIMUPublisher.set(getYaw().getDegrees());
-                    adjustedIMUPublisher.set(getOdometryHeading().getDegrees());
-                }
-                if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.INFO.ordinal()) {
-                    SwerveDriveTelemetry.measuredStatesObj[module.moduleNumber] = moduleState;
-                }
+        if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.POSE.ordinal()) {
+            if (SwerveDriveTelemetry.isSimulation) {
+                Pose2d simulationPose = snapshot.getSimulationPose().get();
+                field.setRobotPose(simulationPose);
+                field
+                    .getObject("OdometryPose")
+                    .setPose(snapshot.getPose());
+                field
+                    .getObject("XModules")
+                    .setPoses(getSwerveModulePoses(simulationPose));
+            } else {
+                field.setRobotPose(snapshot.getPose());
             }
+        }
 
-            // If the robot isn't moving synchronize the encoders every 100ms (Inspired by democrat's SDS
-            // lib)
-            // To ensure that everytime we initialize it works.
-            if (sumVelocity <= .01 && ++moduleSynchronizationCounter > 5) {
-                synchronizeModuleEncoders();
-                moduleSynchronizationCounter = 0;
+        double sumVelocity = 0;
+        for (SwerveModule module : swerveModules) {
+            SwerveModuleState moduleState = module.getState(telemetryModuleStates[module.moduleNumber]);
+            sumVelocity += Math.abs(moduleState.speedMetersPerSecond);
+            if (SwerveDriveTelemetry.verbosity == TelemetryVerbosity.HIGH) {
+                module.updateTelemetry();
+                rawIMUPublisher.set(getYaw().getDegrees());
+                adjustedIMUPublisher.set(snapshot.getHeading().getDegrees());
             }
-
             if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.INFO.ordinal()) {
-                SwerveDriveTelemetry.updateData();
+                SwerveDriveTelemetry.measuredStatesObj[module.moduleNumber] = moduleState;
             }
-        } catch (Exception e) {
-            odometryLock.unlock();
-            throw e;
         }
-        odometryLock.unlock();
+
+        // If the robot isn't moving synchronize the encoders every 100ms (Inspired by democrat's SDS
+        // lib)
+        // To ensure that everytime we initialize it works.
+        if (sumVelocity <= .01 && ++moduleSynchronizationCounter > 5) {
+            synchronizeModuleEncoders();
+            moduleSynchronizationCounter = 0;
+        }
+
+        if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.INFO.ordinal()) {
+            SwerveDriveTelemetry.updateData();
+        }
         SwerveDriveTelemetry.endOdomCycle();
     }
 
     /**
-     * Invalidate all {@link Cache} object used by the {@link SwerveDrive}
+     * Invalidate all {@link Cache} object used by the {@link SwerveDrive} by advancing the cache generation, the next
+     * read of each cache goes to the hardware.
      */
     public void invalidateCache() {
-        imuReadingCache.update();
-        for (SwerveModule module : swerveModules) {
-            module.invalidateCache();
-        }
+        Cache.invalidateAll();
     }
 
     /**
@@ -1232,6 +1630,7 @@ public class SwerveDrive {
             timestamp,
             visionMeasurementStdDevs
         );
+        republishOdometrySnapshot();
         odometryLock.unlock();
     }
 
@@ -1262,6 +1661,7 @@ public class SwerveDrive {
         swerveDrivePoseEstimator.addVisionMeasurement(robotPose, timestamp);
         //    Pose2d newOdometry = new Pose2d(swerveDrivePoseEstimator.getEstimatedPosition().getTranslation(),
         //                                    robotPose.getRotation());
+        republishOdometrySnapshot();
         odometryLock.unlock();
         //    setGyroOffset(new Rotation3d(0, 0, robotPose.getRotation().getRadians()));
         //    resetOdometry(newOdometry);
@@ -1423,9 +1823,10 @@ public class SwerveDrive {
      * @return {@link ChassisSpeeds} of the robot after angular velocity skew correction.
      */
     public ChassisSpeeds angularVelocitySkewCorrection(ChassisSpeeds robotRelativeVelocity) {
-        var angularVelocity = new Rotation2d(
-            imu.getYawAngularVelocity().in(RadiansPerSecond) * angularVelocityCoefficient
-        );
+        double yawRate = SwerveDriveTelemetry.isSimulation
+            ? simIMU.getYawAngularVelocity().in(RadiansPerSecond)
+            : imu.getYawAngularVelocity().in(RadiansPerSecond);
+        var angularVelocity = new Rotation2d(yawRate * angularVelocityCoefficient);
         if (angularVelocity.getRadians() != 0.0) {
             ChassisSpeeds fieldRelativeVelocity = ChassisSpeeds.fromRobotRelativeSpeeds(
                 robotRelativeVelocity,
@@ -4,6 +4,7 @@ import static edu.wpi.first.units.Units.MetersPerSecond;
 import static edu.wpi.first.units.Units.RadiansPerSecond;
 import static edu.wpi.first.units.Units.RotationsPerSecond;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
@@ -22,7 +23,8 @@ import swervelib.math.SwerveMath;
 import swervelib.motors.SparkMaxBrushedMotorSwerve;
 import swervelib.motors.SparkMaxSwerve;
 import swervelib.motors.SwerveMotor;
-import swervelib.parser.Cache;
+import swervelib.odometry.PhoenixSignalBatch;
+import swervelib.parser.DoubleCache;
 import swervelib.parser.PIDFConfig;
 import swervelib.parser.SwerveModuleConfiguration;
 import swervelib.parser.SwerveModulePhysicalCharacteristics;
@@ -42,15 +44,15 @@ public class SwerveModule {
     /**
      * Absolute encoder position cache.
      */
-    public final Cache<Double> absolutePositionCache;
+    public final DoubleCache absolutePositionCache;
     /**
      * Drive motor position cache.
      */
-    public final Cache<Double> drivePositionCache;
+    public final DoubleCache drivePositionCache;
     /**
      * Drive motor velocity cache.
      */
-    public final Cache<Double> driveVelocityCache;
+    public final DoubleCache driveVelocityCache;
     /**
      * Module number for kinematics, usually 0 to 3. front left -> front right -> back left -> back right.
      */
@@ -103,10 +105,23 @@ public class SwerveModule {
      * Angle setpoint publisher for the module motor-controller PID.
      */
     private final DoublePublisher angleSetpointPublisher;
+    /**
+     * Last swerve module state applied, copied into so the desired state arrays are never retained.
+     */
+    private final SwerveModuleState lastState = new SwerveModuleState();
     /**
      * Maximum {@link LinearVelocity} for the drive motor of the swerve module.
      */
     private LinearVelocity maxDriveVelocity;
+    /**
+     * Maximum drive motor velocity in meters per second, kept to avoid unit conversions every loop.
+     */
+    private double maxDriveVelocityMPS;
+    /**
+     * Last azimuth {@link Rotation2d} handed out, {@link Rotation2d} is immutable so it is only replaced when the
+     * absolute position changes.
+     */
+    private Rotation2d azimuth = Rotation2d.kZero;
     /**
      * Maximum {@link AngularVelocity} for the azimuth/angle motor of the swerve module.
      */
@@ -119,10 +134,6 @@ public class SwerveModule {
      * Anti-Jitter AKA auto-centering disabled.
      */
     private boolean antiJitterEnabled = true;
-    /**
-     * Last swerve module state applied.
-     */
-    private SwerveModuleState lastState;
     /**
      * Angle offset from the absolute encoder.
      */
@@ -188,7 +199,7 @@ public class SwerveModule {
         }
 
         // Setup the cache for the absolute encoder position.
-        absolutePositionCache = new Cache<>(this::getRawAbsolutePosition, 20);
+        absolutePositionCache = new DoubleCache(this::getRawAbsolutePosition);
 
         // Config angle motor/controller
         angleMotor.configureIntegratedEncoder(moduleConfiguration.conversionFactors.angle.factor);
@@ -212,8 +223,8 @@ public class SwerveModule {
         driveMotor.burnFlash();
         angleMotor.burnFlash();
 
-        drivePositionCache = new Cache<>(driveMotor::getPosition, 20);
-        driveVelocityCache = new Cache<>(driveMotor::getVelocity, 20);
+        drivePositionCache = new DoubleCache(driveMotor::getPosition);
+        driveVelocityCache = new DoubleCache(driveMotor::getVelocity);
 
         // Force a cache update on init.
         driveVelocityCache.update();
@@ -221,7 +232,7 @@ public class SwerveModule {
         absolutePositionCache.update();
 
         // Save the current state.
-        lastState = getState();
+        copyState(getState(), lastState);
 
         noEncoderWarning = new Alert(
             "Motors",
@@ -406,35 +417,59 @@ public class SwerveModule {
      *                     onto the swerve module.
      */
     public void setDesiredState(SwerveModuleState desiredState, boolean isOpenLoop, boolean force) {
-        desiredState.optimize(Rotation2d.fromDegrees(getAbsolutePosition()));
+        optimize(desiredState, getAbsolutePosition());
 
         // If we are forcing the angle
         if (!force && antiJitterEnabled) {
             // Prevents module rotation if speed is less than 1%
-            SwerveMath.antiJitter(
-                desiredState,
-                lastState,
-                Math.min(maxDriveVelocity.in(MetersPerSecond), 4)
-            );
+            SwerveMath.antiJitter(desiredState, lastState, Math.min(maxDriveVelocityMPS, 4));
         }
 
         // Cosine compensation.
-        LinearVelocity nextVelocity = configuration.useCosineCompensator
+        double nextVelocity = configuration.useCosineCompensator
             ? getCosineCompensatedVelocity(desiredState)
-            : MetersPerSecond.of(desiredState.speedMetersPerSecond);
-        LinearVelocity curVelocity = MetersPerSecond.of(lastState.speedMetersPerSecond);
-        desiredState.speedMetersPerSecond = nextVelocity.magnitude();
+            : desiredState.speedMetersPerSecond;
+        double curVelocity = lastState.speedMetersPerSecond;
+        desiredState.speedMetersPerSecond = nextVelocity;
 
         setDesiredState(
             desiredState,
             isOpenLoop,
-            driveMotorFeedforward.calculateWithVelocities(
-                curVelocity.in(MetersPerSecond),
-                nextVelocity.in(MetersPerSecond)
-            )
+            driveMotorFeedforward.calculateWithVelocities(curVelocity, nextVelocity)
         );
     }
 
+    /**
+     * Minimize the change in heading the desired swerve module state would require by potentially reversing the
+     * direction the wheel spins. Equivalent to {@link SwerveModuleState#optimize(Rotation2d)} without creating the
+     * intermediate {@link Rotation2d}.
+     *
+     * @param desiredState          Desired swerve module state, modified in place.
+     * @param currentAngleInDegrees Current azimuth in degrees.
+     */
+    private static void optimize(SwerveModuleState desiredState, double currentAngleInDegrees) {
+        double delta = MathUtil.inputModulus(
+            desiredState.angle.getDegrees() - currentAngleInDegrees,
+            -180,
+            180
+        );
+        if (Math.abs(delta) > 90.0) {
+            desiredState.speedMetersPerSecond *= -1;
+            desiredState.angle = desiredState.angle.rotateBy(Rotation2d.kPi);
+        }
+    }
+
+    /**
+     * Copy a {@link SwerveModuleState} into another without allocating.
+     *
+     * @param from State to copy from.
+     * @param to   State to copy into.
+     */
+    private static void copyState(SwerveModuleState from, SwerveModuleState to) {
+        to.speedMetersPerSecond = from.speedMetersPerSecond;
+        to.angle = from.angle;
+    }
+
     /**
      * Set the desired state of the swerve module. <br /><b>WARNING: If you are not using one of the functions from
      * {@link SwerveDrive} you may screw up {@link SwerveDrive#kinematics}</b>
@@ -449,8 +484,7 @@ public class SwerveModule {
         double driveFeedforwardVoltage
     ) {
         if (isOpenLoop) {
-            double percentOutput =
-                desiredState.speedMetersPerSecond / maxDriveVelocity.in(MetersPerSecond);
+            double percentOutput = desiredState.speedMetersPerSecond / maxDriveVelocityMPS;
             driveMotor.setVoltage(percentOutput * 12);
         } else {
             driveMotor.setReference(desiredState.speedMetersPerSecond, driveFeedforwardVoltage);
@@ -472,7 +506,7 @@ public class SwerveModule {
             angleMotor.setReference(desiredState.angle.getDegrees(), 0);
         }
 
-        lastState = desiredState;
+        copyState(desiredState, lastState);
 
         if (SwerveDriveTelemetry.isSimulation) {
             simModule.updateStateAndPosition(desiredState);
@@ -499,7 +533,7 @@ public class SwerveModule {
      * @param desiredState Desired {@link SwerveModuleState} to use.
      * @return Cosine compensated velocity in meters/second.
      */
-    private LinearVelocity getCosineCompensatedVelocity(SwerveModuleState desiredState) {
+    private double getCosineCompensatedVelocity(SwerveModuleState desiredState) {
         double cosineScalar = 1.0;
         // Taken from the CTRE SwerveModule class.
         // https://api.ctr-electronics.com/phoenix6/release/java/src-html/com/ctre/phoenix6/mechanisms/swerve/SwerveModule.html#line.46
@@ -507,15 +541,15 @@ public class SwerveModule {
         /* To reduce the "skew" that occurs when changing direction */
         /* If error is close to 0 rotations, we're already there, so apply full power */
         /* If the error is close to 0.25 rotations, then we're 90 degrees, so movement doesn't help us at all */
-        cosineScalar = Rotation2d.fromDegrees(desiredState.angle.getDegrees())
-            .minus(Rotation2d.fromDegrees(getAbsolutePosition()))
-            .getCos(); // TODO: Investigate angle modulus by 180.
+        cosineScalar = Math.cos(
+            Math.toRadians(desiredState.angle.getDegrees() - getAbsolutePosition())
+        ); // TODO: Investigate angle modulus by 180.
         /* Make sure we don't invert our drive, even though we shouldn't ever target over 90 degrees anyway */
         if (cosineScalar < 0.0) {
             cosineScalar = 1;
         }
 
-        return MetersPerSecond.of(desiredState.speedMetersPerSecond).times(cosineScalar);
+        return desiredState.speedMetersPerSecond * cosineScalar;
     }
 
     /**
@@ -534,15 +568,29 @@ public class SwerveModule {
      * @return Current SwerveModule state.
      */
     public SwerveModuleState getState() {
-        double velocity;
-        Rotation2d azimuth;
-        if (!SwerveDriveTelemetry.isSimulation) {
-            velocity = driveVelocityCache.getValue();
-            azimuth = Rotation2d.fromDegrees(getAbsolutePosition());
-        } else {
+        if (SwerveDriveTelemetry.isSimulation) {
             return simModule.getState();
         }
-        return new SwerveModuleState(velocity, azimuth);
+        return getState(new SwerveModuleState());
+    }
+
+    /**
+     * Get the Swerve Module state without allocating, by filling a state owned by the caller. Each thread must use its
+     * own state.
+     *
+     * @param state {@link SwerveModuleState} to fill.
+     * @return The given state, filled with the current SwerveModule state.
+     */
+    public SwerveModuleState getState(SwerveModuleState state) {
+        if (SwerveDriveTelemetry.isSimulation) {
+            SwerveModuleState simState = simModule.getState();
+            state.speedMetersPerSecond = simState.speedMetersPerSecond;
+            state.angle = simState.angle;
+            return state;
+        }
+        state.speedMetersPerSecond = driveVelocityCache.getValue();
+        state.angle = getAzimuth();
+        return state;
     }
 
     /**
@@ -551,15 +599,57 @@ public class SwerveModule {
      * @return {@link SwerveModulePosition} of the swerve module.
      */
     public SwerveModulePosition getPosition() {
-        double position;
-        Rotation2d azimuth;
-        if (!SwerveDriveTelemetry.isSimulation) {
-            position = drivePositionCache.getValue();
-            azimuth = Rotation2d.fromDegrees(getAbsolutePosition());
-        } else {
+        if (SwerveDriveTelemetry.isSimulation) {
             return simModule.getPosition();
         }
-        return new SwerveModulePosition(position, azimuth);
+        return getPosition(new SwerveModulePosition());
+    }
+
+    /**
+     * Get the position of the swerve module without allocating, by filling a position owned by the caller. Each thread
+     * must use its own position.
+     *
+     * @param position {@link SwerveModulePosition} to fill.
+     * @return The given position, filled with the current position of the swerve module.
+     */
+    public SwerveModulePosition getPosition(SwerveModulePosition position) {
+        if (SwerveDriveTelemetry.isSimulation) {
+            SwerveModulePosition simPosition = simModule.getPosition();
+            position.distanceMeters = simPosition.distanceMeters;
+            position.angle = simPosition.angle;
+            return position;
+        }
+        position.distanceMeters = drivePositionCache.getValue();
+        position.angle = getAzimuth();
+        return position;
+    }
+
+    /**
+     * Get the absolute position as a {@link Rotation2d}, only creating a new {@link Rotation2d} when the absolute
+     * position changed since the last call.
+     *
+     * @return Absolute azimuth of the module.
+     */
+    private Rotation2d getAzimuth() {
+        double radians = Math.toRadians(getAbsolutePosition());
+        Rotation2d current = azimuth;
+        if (current.getRadians() != radians) {
+            current = Rotation2d.fromRadians(radians);
+            azimuth = current;
+        }
+        return current;
+    }
+
+    /**
+     * Get the drive motor position without going through {@link SwerveModule#drivePositionCache}.
+     *
+     * @return Drive distance in meters.
+     */
+    public double getRawDrivePosition() {
+        if (SwerveDriveTelemetry.isSimulation) {
+            return simModule.getPosition().distanceMeters;
+        }
+        return driveMotor.getPosition();
     }
 
     /**
@@ -592,14 +682,64 @@ public class SwerveModule {
         } else {
             angle = getRelativePosition();
         }
+        return wrapAbsolutePosition(angle);
+    }
+
+    /**
+     * Get the absolute position from the last {@link PhoenixSignalBatch} refresh. Falls back to the batched angle motor
+     * position on reading failure.
+     *
+     * @param batch Signal batch the module belongs to.
+     * @return Absolute encoder angle in degrees in the range [0, 360).
+     */
+    private double getBatchedAbsolutePosition(PhoenixSignalBatch batch) {
+        double angle;
+        if (batch.hasAbsolutePosition(moduleNumber)) {
+            absoluteEncoder.readingError = !batch.isAbsolutePositionValid(moduleNumber);
+            angle = absoluteEncoder.readingError
+                ? batch.getAnglePosition(moduleNumber)
+                : batch.getAbsolutePosition(moduleNumber) - angleOffset;
+        } else {
+            angle = batch.getAnglePosition(moduleNumber);
+        }
+        return wrapAbsolutePosition(angle);
+    }
+
+    /**
+     * Wrap an angle into the range [0, 360).
+     *
+     * @param angle Angle in degrees.
+     * @return Angle in degrees in the range [0, 360).
+     */
+    private static double wrapAbsolutePosition(double angle) {
         angle %= 360;
         if (angle < 0.0) {
             angle += 360;
         }
-
         return angle;
     }
 
+    /**
+     * Read the drive position, drive velocity and absolute position from a {@link PhoenixSignalBatch} instead of
+     * refreshing each signal individually. The batch must be refreshed before the caches are invalidated.
+     *
+     * @param batch Signal batch containing this module's signals, null to read the devices directly again.
+     */
+    public void setSignalBatch(PhoenixSignalBatch batch) {
+        if (SwerveDriveTelemetry.isSimulation) {
+            return;
+        }
+        if (batch == null) {
+            drivePositionCache.updateSupplier(driveMotor::getPosition);
+            driveVelocityCache.updateSupplier(driveMotor::getVelocity);
+            absolutePositionCache.updateSupplier(this::getRawAbsolutePosition);
+        } else {
+            drivePositionCache.updateSupplier(() -> batch.getDrivePosition(moduleNumber));
+            driveVelocityCache.updateSupplier(() -> batch.getDriveVelocity(moduleNumber));
+            absolutePositionCache.updateSupplier(() -> getBatchedAbsolutePosition(batch));
+        }
+    }
+
     /**
      * Get the relative angle in degrees.
      *
@@ -735,6 +875,7 @@ public class SwerveModule {
                     configuration.conversionFactors.drive.gearRatio) *
                 configuration.conversionFactors.drive.diameter
             );
+            maxDriveVelocityMPS = maxDriveVelocity.in(MetersPerSecond);
         }
         return maxDriveVelocity;
     }
@@ -771,7 +912,8 @@ public class SwerveModule {
     }
 
     /**
-     * Invalidate the {@link Cache} objects used by {@link SwerveModule}.
+     * Force the {@link DoubleCache} objects used by {@link SwerveModule} to read from the hardware now. Use
+     * {@link SwerveDrive#invalidateCache()} to invalidate every cache at once.
      */
     public void invalidateCache() {
         absolutePositionCache.update();
@@ -227,6 +227,33 @@ public class CANCoderSwerve extends SwerveAbsoluteEncoder {
         return false;
     }
 
+    /**
+     * Get the magnet health {@link StatusSignal} so it can be refreshed together with other signals.
+     *
+     * @return Magnet health signal.
+     */
+    public StatusSignal<MagnetHealthValue> getMagnetHealthSignal() {
+        return magnetHealth;
+    }
+
+    /**
+     * Get the absolute position {@link StatusSignal} so it can be refreshed together with other signals.
+     *
+     * @return Absolute position signal in rotations.
+     */
+    public StatusSignal<Angle> getAbsolutePositionSignal() {
+        return angle;
+    }
+
+    /**
+     * Get the velocity {@link StatusSignal} so it can be refreshed together with other signals.
+     *
+     * @return Velocity signal in rotations per second.
+     */
+    public StatusSignal<AngularVelocity> getVelocitySignal() {
+        return velocity;
+    }
+
     /**
      * Get the velocity in degrees/sec.
      *
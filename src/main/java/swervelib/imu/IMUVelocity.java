@@ -1,12 +1,13 @@
 package swervelib.imu;
 
 import edu.wpi.first.hal.HALUtil;
-import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.wpilibj.Notifier;
 import swervelib.math.IMULinearMovingAverageFilter;
 
 /**
- * Generic IMU Velocity filter.
+ * Generic IMU Velocity filter. Samples the gyro on a {@link Notifier}, either its own or one shared through an
+ * {@link IMUVelocitySampler}, and publishes the filtered velocity through a volatile field so reads never lock.
  */
 public class IMUVelocity {
 
@@ -15,11 +16,12 @@ public class IMUVelocity {
      */
     private final SwerveIMU gyro;
     /**
-     * Linear filter used to calculate velocity, we use a custom filter class to prevent unwanted operations.
+     * Linear filter used to calculate velocity, we use a custom filter class to prevent unwanted operations. Only
+     * touched by the sampling thread.
      */
     private final IMULinearMovingAverageFilter velocityFilter;
     /**
-     * WPILib {@link Notifier} to keep IMU velocity up to date.
+     * WPILib {@link Notifier} to keep IMU velocity up to date, null when sampled by an {@link IMUVelocitySampler}.
      */
     private final Notifier notifier;
 
@@ -28,17 +30,17 @@ public class IMUVelocity {
      */
     private boolean firstCycle = true;
     /**
-     * Tracks the previous loop's recorded time.
+     * Tracks the previous sample's FPGA time in microseconds.
      */
-    private double timestamp = 0.0;
+    private long timestamp;
     /**
-     * Tracks the previous loop's position as a Rotation2d.
+     * Tracks the previous sample's yaw in radians.
      */
-    private Rotation2d position = new Rotation2d();
+    private double position = 0.0;
     /**
-     * The calculated velocity of the robot based on averaged IMU measurements.
+     * The calculated velocity of the robot based on averaged IMU measurements, in rads/s.
      */
-    private double velocity = 0.0;
+    private volatile double velocity = 0.0;
 
     /**
      * Constructor for the IMU Velocity.
@@ -51,10 +53,21 @@ public class IMUVelocity {
      *                      signal. Expected taps will probably be ~2-8, with the goal of having the lowest smooth value.
      */
     public IMUVelocity(SwerveIMU gyro, double periodSeconds, int averagingTaps) {
+        this(gyro, averagingTaps, true);
+        notifier.startPeriodic(periodSeconds);
+    }
+
+    /**
+     * Constructor for an IMU Velocity sampled by someone else calling {@link IMUVelocity#update()}.
+     *
+     * @param gyro          The SwerveIMU gyro.
+     * @param averagingTaps The number of samples to used for the moving average linear filter.
+     * @param ownNotifier   Whether to create a {@link Notifier} for this gyro.
+     */
+    IMUVelocity(SwerveIMU gyro, int averagingTaps, boolean ownNotifier) {
         this.gyro = gyro;
         velocityFilter = new IMULinearMovingAverageFilter(averagingTaps);
-        notifier = new Notifier(this::update);
-        notifier.startPeriodic(periodSeconds);
+        notifier = ownNotifier ? new Notifier(this::update) : null;
         timestamp = HALUtil.getFPGATime();
     }
 
@@ -102,32 +115,37 @@ public class IMUVelocity {
     }
 
     /**
-     * Update the robot's rotational velocity based on the current gyro position.
+     * Update the robot's rotational velocity based on the current gyro position. Only called from one sampling thread.
      */
-    private void update() {
-        double newTimestamp = HALUtil.getFPGATime();
-        Rotation2d newPosition = Rotation2d.fromRadians(gyro.getRotation3d().getZ());
+    void update() {
+        long newTimestamp = HALUtil.getFPGATime();
+        double newPosition = gyro.getRotation3d().getZ();
 
-        synchronized (this) {
-            if (!firstCycle) {
-                velocityFilter.addValue(
-                    (newPosition.minus(position).getRadians()) / (newTimestamp - timestamp)
-                );
-            }
-            firstCycle = false;
-            timestamp = newTimestamp;
-            position = newPosition;
+        if (!firstCycle && newTimestamp > timestamp) {
+            velocityFilter.addValue(MathUtil.angleModulus(newPosition - position) / (newTimestamp - timestamp));
+            // Timestamps are in microseconds.
+            velocity = velocityFilter.calculate() * 1e+6;
         }
+        firstCycle = false;
+        timestamp = newTimestamp;
+        position = newPosition;
     }
 
     /**
-     * Get the robot's angular velocity based on averaged meaasurements from the IMU. Velocity is multiplied by 1e+6
-     * (1,000,000) because the timestamps are in microseconds.
+     * Get the robot's angular velocity based on averaged meaasurements from the IMU, as of the latest sample.
      *
      * @return robot's angular velocity in rads/s as a double.
      */
-    public synchronized double getVelocity() {
-        velocity = velocityFilter.calculate();
-        return velocity * 1e+6;
+    public double getVelocity() {
+        return velocity;
+    }
+
+    /**
+     * Stop sampling the gyro if this has its own {@link Notifier}.
+     */
+    public void stop() {
+        if (notifier != null) {
+            notifier.stop();
+        }
     }
 }
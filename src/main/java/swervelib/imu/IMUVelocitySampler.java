@@ -0,0 +1,63 @@
+package swervelib.imu;
+
+import edu.wpi.first.wpilibj.Notifier;
+import java.util.Arrays;
+
+/**
+ * Samples several {@link IMUVelocity} filters on one shared {@link Notifier}, instead of one thread per gyro.
+ */
+public class IMUVelocitySampler {
+
+    /**
+     * WPILib {@link Notifier} sampling every gyro.
+     */
+    private final Notifier notifier;
+    /**
+     * Velocity filters to sample, copied on write so the sampling thread never locks.
+     */
+    private volatile IMUVelocity[] velocities = new IMUVelocity[0];
+
+    /**
+     * Construct and start a shared IMU velocity sampler.
+     *
+     * @param periodSeconds The rate to collect measurements from every gyro, in the form (1/number of samples per
+     *                      second), make sure this does not exceed the update rate of the slowest IMU.
+     */
+    public IMUVelocitySampler(double periodSeconds) {
+        notifier = new Notifier(this::update);
+        notifier.setName("IMUVelocitySampler");
+        notifier.startPeriodic(periodSeconds);
+    }
+
+    /**
+     * Start sampling a gyro on this sampler.
+     *
+     * @param gyro          The SwerveIMU gyro.
+     * @param averagingTaps The number of samples to used for the moving average linear filter, see
+     *                      {@link IMUVelocity#IMUVelocity(SwerveIMU, double, int)}.
+     * @return {@link IMUVelocity} for the gyro, updated by this sampler.
+     */
+    public synchronized IMUVelocity add(SwerveIMU gyro, int averagingTaps) {
+        IMUVelocity velocity = new IMUVelocity(gyro, averagingTaps, false);
+        IMUVelocity[] updated = Arrays.copyOf(velocities, velocities.length + 1);
+        updated[velocities.length] = velocity;
+        velocities = updated;
+        return velocity;
+    }
+
+    /**
+     * Sample every gyro.
+     */
+    private void update() {
+        for (IMUVelocity velocity : velocities) {
+            velocity.update();
+        }
+    }
+
+    /**
+     * Stop sampling.
+     */
+    public void stop() {
+        notifier.stop();
+    }
+}
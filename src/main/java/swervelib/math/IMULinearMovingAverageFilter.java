@@ -1,20 +1,32 @@
 package swervelib.math;
 
-import edu.wpi.first.util.DoubleCircularBuffer;
-
 /**
- * A linear filter that does not calculate() each time a value is added to the DoubleCircularBuffer.
+ * A linear filter that does not calculate() each time a value is added. Keeps a running sum of the readings so
+ * {@link IMULinearMovingAverageFilter#calculate()} is constant time, and re-sums the buffer once per lap of it so
+ * floating point error can't build up.
  */
 public class IMULinearMovingAverageFilter {
 
     /**
-     * Circular buffer storing the current IMU readings
+     * Ring buffer storing the current IMU readings
      */
-    private final DoubleCircularBuffer m_inputs;
+    private final double[] m_inputs;
     /**
      * Gain on each reading.
      */
     private final double m_inputGain;
+    /**
+     * Index the next reading is written to.
+     */
+    private int m_next = 0;
+    /**
+     * Number of readings in the buffer.
+     */
+    private int m_size = 0;
+    /**
+     * Sum of the readings in the buffer.
+     */
+    private double m_sum = 0.0;
 
     /**
      * Construct a linear moving average fitler
@@ -22,17 +34,33 @@ public class IMULinearMovingAverageFilter {
      * @param bufferLength The number of values to average across
      */
     public IMULinearMovingAverageFilter(int bufferLength) {
-        m_inputs = new DoubleCircularBuffer(bufferLength);
+        m_inputs = new double[bufferLength];
         m_inputGain = 1.0 / bufferLength;
     }
 
     /**
-     * Add a value to the DoubleCircularBuffer
+     * Add a value to the buffer, replacing the oldest once it is full
      *
      * @param input Value to add
      */
     public void addValue(double input) {
-        m_inputs.addFirst(input);
+        if (m_size == m_inputs.length) {
+            m_sum -= m_inputs[m_next];
+        } else {
+            m_size++;
+        }
+        m_inputs[m_next] = input;
+        m_sum += input;
+
+        if (++m_next == m_inputs.length) {
+            m_next = 0;
+            // Resync the running sum every lap of the buffer to drop accumulated rounding error.
+            double sum = 0.0;
+            for (double value : m_inputs) {
+                sum += value;
+            }
+            m_sum = sum;
+        }
     }
 
     /**
@@ -41,12 +69,6 @@ public class IMULinearMovingAverageFilter {
      * @return The average of the values in the buffer
      */
     public double calculate() {
-        double returnVal = 0.0;
-
-        for (int i = 0; i < m_inputs.size(); i++) {
-            returnVal += m_inputs.get(i) * m_inputGain;
-        }
-
-        return returnVal;
+        return m_sum * m_inputGain;
     }
 }
@@ -0,0 +1,275 @@
+package swervelib.math;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.system.plant.DCMotor;
+import java.util.Arrays;
+import swervelib.parser.SwerveDriveConfiguration;
+import swervelib.parser.SwerveModuleConfiguration;
+import swervelib.parser.SwerveModulePhysicalCharacteristics;
+
+/**
+ * Limits how quickly module setpoints change between control cycles, so the modules are never asked to steer faster
+ * than the azimuth motor can turn them or to accelerate faster than the wheels can grip and the drive motors can push
+ * within their current limit. Drive acceleration is limited with one scale shared by every module, so the chassis keeps
+ * its commanded direction while it accelerates. Deceleration, when a module's speed magnitude drops, has its own limit
+ * so that acceleration can be cut back without also cutting braking.
+ * <p>
+ * Previous setpoints are kept in primitive arrays; the only allocation per cycle is a new {@link Rotation2d} for each
+ * module whose azimuth setpoint changed.
+ */
+public class SwerveSetpointLimiter {
+
+    /**
+     * Speeds below this are treated as stopped, and keep the previous azimuth instead of steering.
+     */
+    private static final double STOPPED_SPEED_MPS = 1e-3;
+    /**
+     * Gaps between control cycles longer than this mean the previous setpoints are out of date.
+     */
+    private static final double MAX_DT_SECONDS = 0.1;
+
+    /**
+     * Previous drive speed of each module in meters per second.
+     */
+    private final double[] lastSpeedsMPS;
+    /**
+     * Previous azimuth of each module in radians.
+     */
+    private final double[] lastAnglesRad;
+    /**
+     * Previous azimuth of each module, reused while the azimuth setpoint doesn't change since {@link Rotation2d} is
+     * immutable.
+     */
+    private final Rotation2d[] lastAngles;
+    /**
+     * Maximum drive acceleration in meters per second squared.
+     */
+    private double maxDriveAccelerationMPSSq;
+    /**
+     * Maximum drive deceleration in meters per second squared.
+     */
+    private double maxDriveDecelerationMPSSq;
+    /**
+     * Maximum azimuth velocity in radians per second.
+     */
+    private double maxAzimuthVelocityRadPerSec;
+    /**
+     * {@link System#nanoTime()} of the previous control cycle, or 0 if there was none.
+     */
+    private long lastNanos = 0;
+
+    /**
+     * Construct a setpoint limiter that limits acceleration and deceleration equally.
+     *
+     * @param moduleCount                 Number of swerve modules.
+     * @param maxDriveAccelerationMPSSq   Maximum drive acceleration and deceleration in meters per second squared.
+     * @param maxAzimuthVelocityRadPerSec Maximum azimuth velocity in radians per second.
+     */
+    public SwerveSetpointLimiter(
+        int moduleCount,
+        double maxDriveAccelerationMPSSq,
+        double maxAzimuthVelocityRadPerSec
+    ) {
+        this(moduleCount, maxDriveAccelerationMPSSq, maxDriveAccelerationMPSSq, maxAzimuthVelocityRadPerSec);
+    }
+
+    /**
+     * Construct a setpoint limiter.
+     *
+     * @param moduleCount                 Number of swerve modules.
+     * @param maxDriveAccelerationMPSSq   Maximum drive acceleration in meters per second squared.
+     * @param maxDriveDecelerationMPSSq   Maximum drive deceleration in meters per second squared.
+     * @param maxAzimuthVelocityRadPerSec Maximum azimuth velocity in radians per second.
+     */
+    public SwerveSetpointLimiter(
+        int moduleCount,
+        double maxDriveAccelerationMPSSq,
+        double maxDriveDecelerationMPSSq,
+        double maxAzimuthVelocityRadPerSec
+    ) {
+        lastSpeedsMPS = new double[moduleCount];
+        lastAnglesRad = new double[moduleCount];
+        lastAngles = new Rotation2d[moduleCount];
+        Arrays.fill(lastAngles, Rotation2d.kZero);
+        this.maxDriveAccelerationMPSSq = maxDriveAccelerationMPSSq;
+        this.maxDriveDecelerationMPSSq = maxDriveDecelerationMPSSq;
+        this.maxAzimuthVelocityRadPerSec = maxAzimuthVelocityRadPerSec;
+    }
+
+    /**
+     * Construct a setpoint limiter from the physical characteristics of the swerve drive. Drive acceleration is limited
+     * to the lower of the traction limit from the wheel coefficient of friction and what the drive motors can deliver
+     * at their current limit. Azimuth velocity is limited to the free speed of the angle motor.
+     *
+     * @param config The swerve drive configuration.
+     * @return A setpoint limiter for the swerve drive.
+     */
+    public static SwerveSetpointLimiter fromConfiguration(SwerveDriveConfiguration config) {
+        SwerveModulePhysicalCharacteristics physical = config.physicalCharacteristics;
+        SwerveModuleConfiguration module = config.modules[0].configuration;
+        DCMotor driveMotor = config.getDriveMotorSim();
+        DCMotor angleMotor = config.getAngleMotorSim();
+
+        double maxAcceleration = SwerveMath.calculateMaxAcceleration(physical.wheelGripCoefficientOfFriction);
+        double metersPerRotation = module.conversionFactors.drive.factor;
+        if (metersPerRotation > 0 && physical.robotMassKg > 0) {
+            // Force per module is torque * 2pi / (meters per motor rotation).
+            double currentLimitedTorqueNm = driveMotor.KtNMPerAmp * physical.driveMotorCurrentLimit;
+            double currentLimitedAcceleration =
+                (currentLimitedTorqueNm * 2 * Math.PI * config.moduleCount) / (metersPerRotation * physical.robotMassKg);
+            maxAcceleration = Math.min(maxAcceleration, currentLimitedAcceleration);
+        }
+
+        double maxAzimuthVelocity = Double.POSITIVE_INFINITY;
+        double degreesPerRotation = module.conversionFactors.angle.factor;
+        if (degreesPerRotation > 0) {
+            maxAzimuthVelocity = angleMotor.freeSpeedRadPerSec * degreesPerRotation / 360;
+        }
+
+        return new SwerveSetpointLimiter(config.moduleCount, maxAcceleration, maxAzimuthVelocity);
+    }
+
+    /**
+     * Set the maximum drive acceleration, applied while a module's speed magnitude is increasing.
+     *
+     * @param maxDriveAccelerationMPSSq Maximum drive acceleration in meters per second squared.
+     */
+    public void setMaxDriveAcceleration(double maxDriveAccelerationMPSSq) {
+        this.maxDriveAccelerationMPSSq = maxDriveAccelerationMPSSq;
+    }
+
+    /**
+     * Get the maximum drive acceleration.
+     *
+     * @return Maximum drive acceleration in meters per second squared.
+     */
+    public double getMaxDriveAcceleration() {
+        return maxDriveAccelerationMPSSq;
+    }
+
+    /**
+     * Set the maximum drive deceleration, applied while a module's speed magnitude is decreasing.
+     *
+     * @param maxDriveDecelerationMPSSq Maximum drive deceleration in meters per second squared.
+     */
+    public void setMaxDriveDeceleration(double maxDriveDecelerationMPSSq) {
+        this.maxDriveDecelerationMPSSq = maxDriveDecelerationMPSSq;
+    }
+
+    /**
+     * Get the maximum drive deceleration.
+     *
+     * @return Maximum drive deceleration in meters per second squared.
+     */
+    public double getMaxDriveDeceleration() {
+        return maxDriveDecelerationMPSSq;
+    }
+
+    /**
+     * Set the maximum azimuth velocity.
+     *
+     * @param maxAzimuthVelocityRadPerSec Maximum azimuth velocity in radians per second.
+     */
+    public void setMaxAzimuthVelocity(double maxAzimuthVelocityRadPerSec) {
+        this.maxAzimuthVelocityRadPerSec = maxAzimuthVelocityRadPerSec;
+    }
+
+    /**
+     * Get the maximum azimuth velocity.
+     *
+     * @return Maximum azimuth velocity in radians per second.
+     */
+    public double getMaxAzimuthVelocity() {
+        return maxAzimuthVelocityRadPerSec;
+    }
+
+    /**
+     * Whether the previous setpoints are out of date, because the limiter hasn't run recently. Call
+     * {@link #reset(SwerveModuleState[])} with the measured module states before limiting.
+     *
+     * @return True if the limiter needs to be reset.
+     */
+    public boolean isStale() {
+        return lastNanos == 0 || (System.nanoTime() - lastNanos) / 1e9 > MAX_DT_SECONDS;
+    }
+
+    /**
+     * Start limiting from the given module states.
+     *
+     * @param measuredStates The current module states.
+     */
+    public void reset(SwerveModuleState[] measuredStates) {
+        for (int i = 0; i < lastSpeedsMPS.length; i++) {
+            lastSpeedsMPS[i] = measuredStates[i].speedMetersPerSecond;
+            lastAnglesRad[i] = measuredStates[i].angle.getRadians();
+            lastAngles[i] = measuredStates[i].angle;
+        }
+        lastNanos = System.nanoTime();
+    }
+
+    /**
+     * Limit the desired module states in place to what the modules can reach from the previous setpoints this control
+     * cycle.
+     *
+     * @param desiredStates Desired module states, which are modified.
+     */
+    public void limit(SwerveModuleState[] desiredStates) {
+        long now = System.nanoTime();
+        double dt = Math.min((now - lastNanos) / 1e9, MAX_DT_SECONDS);
+        lastNanos = now;
+
+        double maxAngleStep = maxAzimuthVelocityRadPerSec * dt;
+        double maxAccelerationStep = maxDriveAccelerationMPSSq * dt;
+        double maxDecelerationStep = maxDriveDecelerationMPSSq * dt;
+        double scale = 1;
+
+        for (int i = 0; i < desiredStates.length; i++) {
+            SwerveModuleState state = desiredStates[i];
+            double speed = state.speedMetersPerSecond;
+            double lastAngle = lastAnglesRad[i];
+
+            double angle = state.angle.getRadians();
+            double error = MathUtil.angleModulus(angle - lastAngle);
+            if (Math.abs(speed) < STOPPED_SPEED_MPS) {
+                // Hold the azimuth rather than steering a stopped wheel.
+                speed = 0;
+                error = 0;
+            } else if (Math.abs(error) > Math.PI / 2) {
+                // Pick the direction that needs the least steering.
+                error = MathUtil.angleModulus(error + Math.PI);
+                speed = -speed;
+            }
+
+            if (Math.abs(error) > maxAngleStep) {
+                double step = Math.copySign(maxAngleStep, error);
+                // Only drive the part of the desired speed that points where the wheel can get to.
+                speed *= Math.cos(error - step);
+                error = step;
+            }
+
+            state.speedMetersPerSecond = speed;
+            if (error != 0) {
+                angle = MathUtil.angleModulus(lastAngle + error);
+                lastAnglesRad[i] = angle;
+                lastAngles[i] = Rotation2d.fromRadians(angle);
+            }
+            state.angle = lastAngles[i];
+
+            double lastSpeed = lastSpeedsMPS[i];
+            double speedStep = Math.abs(speed - lastSpeed);
+            double maxSpeedStep = Math.abs(speed) > Math.abs(lastSpeed) ? maxAccelerationStep : maxDecelerationStep;
+            if (speedStep > maxSpeedStep) {
+                scale = Math.min(scale, maxSpeedStep / speedStep);
+            }
+        }
+
+        for (int i = 0; i < desiredStates.length; i++) {
+            SwerveModuleState state = desiredStates[i];
+            double speed = lastSpeedsMPS[i] + (state.speedMetersPerSecond - lastSpeedsMPS[i]) * scale;
+            state.speedMetersPerSecond = speed;
+            lastSpeedsMPS[i] = speed;
+        }
+    }
+}
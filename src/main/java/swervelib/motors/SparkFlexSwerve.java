@@ -475,6 +475,16 @@ public class SparkFlexSwerve extends SwerveMotor {
         return motor.getAppliedOutput();
     }
 
+    /**
+     * Get the output current of the motor controller, REV controllers don't measure supply current.
+     *
+     * @return Current in amps.
+     */
+    @Override
+    public double getSupplyCurrent() {
+        return motor.getOutputCurrent();
+    }
+
     /**
      * Get the velocity of the integrated encoder.
      *
@@ -482,6 +482,16 @@ public class SparkMaxSwerve extends SwerveMotor {
         return motor.getAppliedOutput();
     }
 
+    /**
+     * Get the output current of the motor controller, REV controllers don't measure supply current.
+     *
+     * @return Current in amps.
+     */
+    @Override
+    public double getSupplyCurrent() {
+        return motor.getOutputCurrent();
+    }
+
     /**
      * Get the velocity of the integrated encoder.
      *
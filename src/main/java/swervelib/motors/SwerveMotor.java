@@ -128,6 +128,14 @@ public abstract class SwerveMotor {
      */
     public abstract double getAppliedOutput();
 
+    /**
+     * Get the current drawn by the motor controller, without blocking. Controllers that can't measure supply current
+     * report output current instead.
+     *
+     * @return Current in amps.
+     */
+    public abstract double getSupplyCurrent();
+
     /**
      * Get the velocity of the integrated encoder.
      *
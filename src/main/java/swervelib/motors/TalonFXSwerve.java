@@ -4,6 +4,7 @@ import static edu.wpi.first.units.Units.Degrees;
 import static edu.wpi.first.units.Units.Rotations;
 import static edu.wpi.first.units.Units.Volts;
 
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.configs.TalonFXConfigurator;
 import com.ctre.phoenix6.controls.MotionMagicVoltage;
@@ -13,6 +14,9 @@ import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
 import swervelib.encoders.SwerveAbsoluteEncoder;
 import swervelib.parser.PIDFConfig;
 import swervelib.telemetry.SwerveDriveTelemetry;
@@ -46,6 +50,18 @@ public class TalonFXSwerve extends SwerveMotor {
      * TalonFX motor controller.
      */
     private final TalonFX motor;
+    /**
+     * Position status signal of the TalonFX, in mechanism rotations.
+     */
+    private final StatusSignal<Angle> position;
+    /**
+     * Velocity status signal of the TalonFX, in mechanism rotations per second.
+     */
+    private final StatusSignal<AngularVelocity> velocity;
+    /**
+     * Supply current {@link StatusSignal}, refreshed without waiting for a new frame.
+     */
+    private final StatusSignal<Current> supplyCurrent;
     /**
      * Conversion factor for the motor.
      */
@@ -71,6 +87,9 @@ public class TalonFXSwerve extends SwerveMotor {
         this.motor = motor;
         this.cfg = motor.getConfigurator();
         this.simMotor = motorType;
+        this.position = motor.getPosition();
+        this.velocity = motor.getVelocity();
+        this.supplyCurrent = motor.getSupplyCurrent();
 
         factoryDefaults();
         clearStickyFaults();
@@ -316,6 +335,16 @@ public class TalonFXSwerve extends SwerveMotor {
         return motor.getDutyCycle().waitForUpdate(STATUS_TIMEOUT_SECONDS).getValue();
     }
 
+    /**
+     * Get the current drawn from the supply by the motor controller, from the latest status frame.
+     *
+     * @return Current in amps.
+     */
+    @Override
+    public double getSupplyCurrent() {
+        return supplyCurrent.refresh().getValueAsDouble();
+    }
+
     /**
      * Get the velocity of the integrated encoder.
      *
@@ -323,7 +352,7 @@ public class TalonFXSwerve extends SwerveMotor {
      */
     @Override
     public double getVelocity() {
-        return motor.getVelocity().getValue().magnitude();
+        return velocity.refresh().getValueAsDouble();
     }
 
     /**
@@ -333,7 +362,25 @@ public class TalonFXSwerve extends SwerveMotor {
      */
     @Override
     public double getPosition() {
-        return motor.getPosition().getValue().magnitude();
+        return position.refresh().getValueAsDouble();
+    }
+
+    /**
+     * Get the position {@link StatusSignal} so it can be refreshed together with other signals.
+     *
+     * @return Position signal in meters or rotations.
+     */
+    public StatusSignal<Angle> getPositionSignal() {
+        return position;
+    }
+
+    /**
+     * Get the velocity {@link StatusSignal} so it can be refreshed together with other signals.
+     *
+     * @return Velocity signal in meters per second or rotations per second.
+     */
+    public StatusSignal<AngularVelocity> getVelocitySignal() {
+        return velocity;
     }
 
     /**
@@ -328,6 +328,16 @@ public class TalonSRXSwerve extends SwerveMotor {
         return motor.getMotorOutputPercent();
     }
 
+    /**
+     * Get the current drawn from the supply by the motor controller.
+     *
+     * @return Current in amps.
+     */
+    @Override
+    public double getSupplyCurrent() {
+        return motor.getSupplyCurrent();
+    }
+
     /**
      * Get the velocity of the integrated encoder.
      *
@@ -0,0 +1,165 @@
+package swervelib.odometry;
+
+/**
+ * Preallocated single-producer single-consumer ring buffer of timestamped odometry samples. The producer is the high
+ * frequency odometry sampler and the consumer is {@link swervelib.SwerveDrive#updateOdometry()}, which drains the queue
+ * into the pose estimator in batches. No allocation happens after construction.
+ */
+public class OdometrySampleQueue {
+
+    /**
+     * Number of samples the queue can hold.
+     */
+    private final int capacity;
+    /**
+     * Number of swerve modules in each sample.
+     */
+    private final int moduleCount;
+    /**
+     * Sample timestamps in seconds.
+     */
+    private final double[] timestamps;
+    /**
+     * Gyro yaw of each sample in radians.
+     */
+    private final double[] yawRadians;
+    /**
+     * Module drive distances in meters, stored as [sample * moduleCount + module].
+     */
+    private final double[] distanceMeters;
+    /**
+     * Module azimuth angles in degrees, stored as [sample * moduleCount + module].
+     */
+    private final double[] angleDegrees;
+    /**
+     * Total number of samples written, only modified by the producer.
+     */
+    private volatile long writeSequence = 0;
+    /**
+     * Total number of samples read, only modified by the consumer.
+     */
+    private volatile long readSequence = 0;
+    /**
+     * Number of samples dropped because the consumer fell behind.
+     */
+    private volatile long droppedSamples = 0;
+
+    /**
+     * Construct the odometry sample queue.
+     *
+     * @param capacity    Maximum number of samples held before new samples are dropped.
+     * @param moduleCount Number of swerve modules in each sample.
+     */
+    public OdometrySampleQueue(int capacity, int moduleCount) {
+        this.capacity = capacity;
+        this.moduleCount = moduleCount;
+        timestamps = new double[capacity];
+        yawRadians = new double[capacity];
+        distanceMeters = new double[capacity * moduleCount];
+        angleDegrees = new double[capacity * moduleCount];
+    }
+
+    /**
+     * Add a sample to the queue, should only be called from the producer thread. If the queue is full the sample is
+     * dropped so the consumer never sees a partially written slot.
+     *
+     * @param timestamp    Sample timestamp in seconds.
+     * @param yaw          Gyro yaw in radians.
+     * @param distances    Module drive distances in meters, indexed by module number.
+     * @param anglesInDegs Module azimuth angles in degrees, indexed by module number.
+     * @return True if the sample was queued.
+     */
+    public boolean offer(double timestamp, double yaw, double[] distances, double[] anglesInDegs) {
+        long write = writeSequence;
+        if (write - readSequence >= capacity) {
+            droppedSamples++;
+            return false;
+        }
+        int slot = (int) (write % capacity);
+        timestamps[slot] = timestamp;
+        yawRadians[slot] = yaw;
+        System.arraycopy(distances, 0, distanceMeters, slot * moduleCount, moduleCount);
+        System.arraycopy(anglesInDegs, 0, angleDegrees, slot * moduleCount, moduleCount);
+        // Publishing the sequence after the slot is written makes the slot visible to the consumer.
+        writeSequence = write + 1;
+        return true;
+    }
+
+    /**
+     * Remove the oldest sample from the queue into the given sample, should only be called from the consumer thread.
+     *
+     * @param sample {@link Sample} to copy the oldest sample into.
+     * @return True if a sample was available.
+     */
+    public boolean poll(Sample sample) {
+        long read = readSequence;
+        if (read == writeSequence) {
+            return false;
+        }
+        int slot = (int) (read % capacity);
+        sample.timestamp = timestamps[slot];
+        sample.yawRadians = yawRadians[slot];
+        System.arraycopy(distanceMeters, slot * moduleCount, sample.distanceMeters, 0, moduleCount);
+        System.arraycopy(angleDegrees, slot * moduleCount, sample.angleDegrees, 0, moduleCount);
+        readSequence = read + 1;
+        return true;
+    }
+
+    /**
+     * Discard every queued sample, should only be called from the consumer thread.
+     */
+    public void clear() {
+        readSequence = writeSequence;
+    }
+
+    /**
+     * Get the number of samples waiting to be consumed.
+     *
+     * @return Number of queued samples.
+     */
+    public int size() {
+        return (int) (writeSequence - readSequence);
+    }
+
+    /**
+     * Get the number of samples dropped because the queue was full.
+     *
+     * @return Number of dropped samples since construction.
+     */
+    public long getDroppedSamples() {
+        return droppedSamples;
+    }
+
+    /**
+     * Mutable odometry sample reused by the consumer to avoid allocation.
+     */
+    public static class Sample {
+
+        /**
+         * Module drive distances in meters, indexed by module number.
+         */
+        public final double[] distanceMeters;
+        /**
+         * Module azimuth angles in degrees, indexed by module number.
+         */
+        public final double[] angleDegrees;
+        /**
+         * Sample timestamp in seconds.
+         */
+        public double timestamp;
+        /**
+         * Gyro yaw in radians.
+         */
+        public double yawRadians;
+
+        /**
+         * Construct a reusable sample.
+         *
+         * @param moduleCount Number of swerve modules in each sample.
+         */
+        public Sample(int moduleCount) {
+            distanceMeters = new double[moduleCount];
+            angleDegrees = new double[moduleCount];
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package swervelib.odometry;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import java.util.Optional;
+
+/**
+ * Immutable result of one odometry update, published by {@link swervelib.SwerveDrive#updateOdometry()} through a
+ * volatile reference so readers on any thread get a consistent pose, velocity and heading without taking the odometry
+ * lock.
+ */
+public final class OdometrySnapshot {
+
+    /**
+     * Estimated robot pose.
+     */
+    private final Pose2d pose;
+    /**
+     * Measured robot relative velocity in meters per second and radians per second.
+     */
+    private final double vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond;
+    /**
+     * FPGA timestamp of the update in seconds.
+     */
+    private final double timestampSeconds;
+    /**
+     * Simulated drivetrain pose, empty on a real robot.
+     */
+    private final Optional<Pose2d> simulationPose;
+
+    /**
+     * Construct an odometry snapshot.
+     *
+     * @param pose             Estimated robot pose.
+     * @param robotVelocity    Measured robot relative velocity, copied.
+     * @param timestampSeconds FPGA timestamp of the update in seconds.
+     * @param simulationPose   Simulated drivetrain pose, empty on a real robot.
+     */
+    public OdometrySnapshot(
+        Pose2d pose,
+        ChassisSpeeds robotVelocity,
+        double timestampSeconds,
+        Optional<Pose2d> simulationPose
+    ) {
+        this.pose = pose;
+        this.vxMetersPerSecond = robotVelocity.vxMetersPerSecond;
+        this.vyMetersPerSecond = robotVelocity.vyMetersPerSecond;
+        this.omegaRadiansPerSecond = robotVelocity.omegaRadiansPerSecond;
+        this.timestampSeconds = timestampSeconds;
+        this.simulationPose = simulationPose;
+    }
+
+    /**
+     * Get the estimated robot pose.
+     *
+     * @return Estimated robot {@link Pose2d}.
+     */
+    public Pose2d getPose() {
+        return pose;
+    }
+
+    /**
+     * Get the estimated robot heading.
+     *
+     * @return Estimated robot heading.
+     */
+    public Rotation2d getHeading() {
+        return pose.getRotation();
+    }
+
+    /**
+     * Get the measured robot relative velocity. {@link ChassisSpeeds} is mutable, so this is a new copy every call.
+     *
+     * @return Robot relative {@link ChassisSpeeds}.
+     */
+    public ChassisSpeeds getRobotVelocity() {
+        return new ChassisSpeeds(vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond);
+    }
+
+    /**
+     * Get the measured field relative velocity, rotated by the estimated heading.
+     *
+     * @return Field relative {@link ChassisSpeeds}.
+     */
+    public ChassisSpeeds getFieldVelocity() {
+        return ChassisSpeeds.fromRobotRelativeSpeeds(getRobotVelocity(), pose.getRotation());
+    }
+
+    /**
+     * Get the FPGA timestamp of the odometry update this snapshot came from.
+     *
+     * @return Timestamp in seconds.
+     */
+    public double getTimestamp() {
+        return timestampSeconds;
+    }
+
+    /**
+     * Get the simulated drivetrain pose.
+     *
+     * @return Simulated drivetrain {@link Pose2d}, or {@link Optional#empty()} on a real robot.
+     */
+    public Optional<Pose2d> getSimulationPose() {
+        return simulationPose;
+    }
+}
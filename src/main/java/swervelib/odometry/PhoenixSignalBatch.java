@@ -0,0 +1,314 @@
+package swervelib.odometry;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.signals.MagnetHealthValue;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import swervelib.SwerveModule;
+import swervelib.encoders.CANCoderSwerve;
+import swervelib.motors.TalonFXSwerve;
+
+/**
+ * Refreshes every module's drive, angle and CANcoder status signals with a single
+ * {@link BaseStatusSignal#refreshAll(BaseStatusSignal...)} call and exposes the latency compensated readings as one
+ * timestamped snapshot. Only usable when every module is driven by {@link TalonFXSwerve} motors.
+ */
+public class PhoenixSignalBatch {
+
+    /**
+     * Refreshes the signals of a batch, replaced in tests to observe the refreshes without hardware.
+     */
+    @FunctionalInterface
+    interface Refresher {
+
+        /**
+         * Refresh every signal.
+         *
+         * @param signals Signals to refresh.
+         * @return {@link StatusCode} of the refresh.
+         */
+        StatusCode refreshAll(BaseStatusSignal... signals);
+    }
+
+    /**
+     * Latency above which a signal is considered stale and is not extrapolated, matching Phoenix's default.
+     */
+    private static final double MAX_LATENCY_SECONDS = 0.3;
+    /**
+     * Every signal refreshed in the batch.
+     */
+    private final BaseStatusSignal[] signals;
+    /**
+     * Drive motor position signals, indexed by module number.
+     */
+    private final StatusSignal<?>[] drivePositions;
+    /**
+     * Drive motor velocity signals, indexed by module number.
+     */
+    private final StatusSignal<?>[] driveVelocities;
+    /**
+     * Angle motor position signals, indexed by module number.
+     */
+    private final StatusSignal<?>[] anglePositions;
+    /**
+     * Angle motor velocity signals, indexed by module number.
+     */
+    private final StatusSignal<?>[] angleVelocities;
+    /**
+     * Absolute encoder position signals, indexed by module number, null when the module has no CANcoder.
+     */
+    private final StatusSignal<?>[] absolutePositions;
+    /**
+     * Absolute encoder velocity signals, indexed by module number, null when the module has no CANcoder.
+     */
+    private final StatusSignal<?>[] absoluteVelocities;
+    /**
+     * Absolute encoder magnet health signals, indexed by module number, null when the module has no CANcoder.
+     */
+    private final StatusSignal<MagnetHealthValue>[] magnetHealth;
+    /**
+     * Latency compensated drive distance in meters.
+     */
+    private final double[] drivePositionMeters;
+    /**
+     * Drive velocity in meters per second.
+     */
+    private final double[] driveVelocityMPS;
+    /**
+     * Latency compensated angle motor position in degrees.
+     */
+    private final double[] anglePositionDegrees;
+    /**
+     * Latency compensated absolute encoder angle in degrees.
+     */
+    private final double[] absolutePositionDegrees;
+    /**
+     * Whether the absolute encoder reading of the last refresh was usable.
+     */
+    private final boolean[] absolutePositionValid;
+    /**
+     * FPGA timestamp in seconds the snapshot was compensated to.
+     */
+    private double timestamp = 0;
+    /**
+     * Status of the last refresh.
+     */
+    private StatusCode lastStatus = StatusCode.OK;
+    /**
+     * Refreshes {@link PhoenixSignalBatch#signals}.
+     */
+    private Refresher refresher = BaseStatusSignal::refreshAll;
+
+    /**
+     * Build the batch from the given modules.
+     *
+     * @param modules Swerve modules, every drive and angle motor must be a {@link TalonFXSwerve}.
+     */
+    @SuppressWarnings("unchecked")
+    public PhoenixSignalBatch(SwerveModule[] modules) {
+        int moduleCount = modules.length;
+        drivePositions = new StatusSignal<?>[moduleCount];
+        driveVelocities = new StatusSignal<?>[moduleCount];
+        anglePositions = new StatusSignal<?>[moduleCount];
+        angleVelocities = new StatusSignal<?>[moduleCount];
+        absolutePositions = new StatusSignal<?>[moduleCount];
+        absoluteVelocities = new StatusSignal<?>[moduleCount];
+        magnetHealth = new StatusSignal[moduleCount];
+        drivePositionMeters = new double[moduleCount];
+        driveVelocityMPS = new double[moduleCount];
+        anglePositionDegrees = new double[moduleCount];
+        absolutePositionDegrees = new double[moduleCount];
+        absolutePositionValid = new boolean[moduleCount];
+
+        List<BaseStatusSignal> allSignals = new ArrayList<>();
+        for (SwerveModule module : modules) {
+            int i = module.moduleNumber;
+            TalonFXSwerve driveMotor = (TalonFXSwerve) module.getDriveMotor();
+            TalonFXSwerve angleMotor = (TalonFXSwerve) module.getAngleMotor();
+            drivePositions[i] = driveMotor.getPositionSignal();
+            driveVelocities[i] = driveMotor.getVelocitySignal();
+            allSignals.add(drivePositions[i]);
+            allSignals.add(driveVelocities[i]);
+            anglePositions[i] = angleMotor.getPositionSignal();
+            angleVelocities[i] = angleMotor.getVelocitySignal();
+            allSignals.add(anglePositions[i]);
+            allSignals.add(angleVelocities[i]);
+            if (module.getAbsoluteEncoder() instanceof CANCoderSwerve encoder) {
+                absolutePositions[i] = encoder.getAbsolutePositionSignal();
+                absoluteVelocities[i] = encoder.getVelocitySignal();
+                magnetHealth[i] = encoder.getMagnetHealthSignal();
+                allSignals.add(absolutePositions[i]);
+                allSignals.add(absoluteVelocities[i]);
+                allSignals.add(magnetHealth[i]);
+            }
+        }
+        signals = allSignals.toArray(new BaseStatusSignal[0]);
+    }
+
+    /**
+     * Check whether a batch can be built for the given modules.
+     *
+     * @param modules Swerve modules.
+     * @return True if every drive and angle motor is a {@link TalonFXSwerve}.
+     */
+    public static boolean isSupported(SwerveModule[] modules) {
+        for (SwerveModule module : modules) {
+            if (
+                !(module.getDriveMotor() instanceof TalonFXSwerve) ||
+                !(module.getAngleMotor() instanceof TalonFXSwerve)
+            ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replace how the signals are refreshed.
+     *
+     * @param refresher {@link Refresher} to use.
+     */
+    void setRefresher(Refresher refresher) {
+        this.refresher = refresher;
+    }
+
+    /**
+     * Set the update frequency of every signal in the batch.
+     *
+     * @param frequencyHz Update frequency in hertz.
+     */
+    public void setUpdateFrequency(double frequencyHz) {
+        BaseStatusSignal.setUpdateFrequencyForAll(frequencyHz, signals);
+    }
+
+    /**
+     * Refresh every signal with one call and latency compensate the positions to the current time.
+     *
+     * @return {@link StatusCode} of the refresh.
+     */
+    public StatusCode refresh() {
+        lastStatus = refresher.refreshAll(signals);
+        timestamp = Timer.getFPGATimestamp();
+        for (int i = 0; i < drivePositions.length; i++) {
+            driveVelocityMPS[i] = driveVelocities[i].getValueAsDouble();
+            drivePositionMeters[i] = compensate(drivePositions[i], driveVelocities[i]);
+            anglePositionDegrees[i] = compensate(anglePositions[i], angleVelocities[i]);
+            if (absolutePositions[i] != null) {
+                MagnetHealthValue health = magnetHealth[i].getValue();
+                absolutePositionValid[i] =
+                    absolutePositions[i].getStatus() == StatusCode.OK &&
+                    health != MagnetHealthValue.Magnet_Invalid &&
+                    health != MagnetHealthValue.Magnet_Red;
+                absolutePositionDegrees[i] =
+                    compensate(absolutePositions[i], absoluteVelocities[i]) * 360;
+            }
+        }
+        return lastStatus;
+    }
+
+    /**
+     * Extrapolate a signal by its slope over the time since it was received.
+     *
+     * @param signal Signal to compensate.
+     * @param slope  Derivative of the signal.
+     * @return Latency compensated value.
+     */
+    private static double compensate(StatusSignal<?> signal, StatusSignal<?> slope) {
+        double latency = signal.getTimestamp().getLatency();
+        if (latency <= 0 || latency > MAX_LATENCY_SECONDS) {
+            return signal.getValueAsDouble();
+        }
+        return signal.getValueAsDouble() + (slope.getValueAsDouble() * latency);
+    }
+
+    /**
+     * Get the latency compensated drive distance from the last refresh.
+     *
+     * @param moduleNumber Module number.
+     * @return Drive distance in meters.
+     */
+    public double getDrivePosition(int moduleNumber) {
+        return drivePositionMeters[moduleNumber];
+    }
+
+    /**
+     * Get the drive velocity from the last refresh.
+     *
+     * @param moduleNumber Module number.
+     * @return Drive velocity in meters per second.
+     */
+    public double getDriveVelocity(int moduleNumber) {
+        return driveVelocityMPS[moduleNumber];
+    }
+
+    /**
+     * Get the latency compensated angle motor position from the last refresh, used in place of the absolute encoder when
+     * it has no CANcoder or the reading failed.
+     *
+     * @param moduleNumber Module number.
+     * @return Angle motor position in degrees.
+     */
+    public double getAnglePosition(int moduleNumber) {
+        return anglePositionDegrees[moduleNumber];
+    }
+
+    /**
+     * Whether the module has a CANcoder in the batch.
+     *
+     * @param moduleNumber Module number.
+     * @return True if the absolute position is provided by the batch.
+     */
+    public boolean hasAbsolutePosition(int moduleNumber) {
+        return absolutePositions[moduleNumber] != null;
+    }
+
+    /**
+     * Get the latency compensated absolute encoder angle from the last refresh, without any offset applied.
+     *
+     * @param moduleNumber Module number.
+     * @return Absolute encoder angle in degrees.
+     */
+    public double getAbsolutePosition(int moduleNumber) {
+        return absolutePositionDegrees[moduleNumber];
+    }
+
+    /**
+     * Whether the absolute encoder reading from the last refresh is usable.
+     *
+     * @param moduleNumber Module number.
+     * @return False if the reading failed or the magnet health is bad.
+     */
+    public boolean isAbsolutePositionValid(int moduleNumber) {
+        return absolutePositionValid[moduleNumber];
+    }
+
+    /**
+     * Get the FPGA timestamp the snapshot is compensated to.
+     *
+     * @return Timestamp in seconds.
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the {@link StatusCode} of the last refresh.
+     *
+     * @return Status of the last refresh.
+     */
+    public StatusCode getLastStatus() {
+        return lastStatus;
+    }
+
+    /**
+     * Get the number of signals refreshed per call.
+     *
+     * @return Number of signals in the batch.
+     */
+    public int getSignalCount() {
+        return signals.length;
+    }
+}
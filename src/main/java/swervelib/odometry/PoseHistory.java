@@ -0,0 +1,233 @@
+package swervelib.odometry;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Preallocated history of odometry poses and velocities, stored in parallel primitive ring buffers so a pose at any
+ * recent timestamp can be looked up and interpolated without allocation. Written by
+ * {@link swervelib.SwerveDrive#updateOdometry()}, read from any thread. Writes must not overlap each other. Readers never block; a read that overlaps
+ * the writer overwriting the entries it used is retried.
+ */
+public class PoseHistory {
+
+    /**
+     * Number of entries the history can hold.
+     */
+    private final int capacity;
+    /**
+     * Entry timestamps in seconds, increasing.
+     */
+    private final double[] timestamps;
+    /**
+     * Field relative x of each entry in meters.
+     */
+    private final double[] x;
+    /**
+     * Field relative y of each entry in meters.
+     */
+    private final double[] y;
+    /**
+     * Heading of each entry in radians.
+     */
+    private final double[] theta;
+    /**
+     * Robot relative x velocity of each entry in meters per second.
+     */
+    private final double[] vx;
+    /**
+     * Robot relative y velocity of each entry in meters per second.
+     */
+    private final double[] vy;
+    /**
+     * Angular velocity of each entry in radians per second.
+     */
+    private final double[] omega;
+    /**
+     * Total number of entries written, only modified by the writer.
+     */
+    private volatile long writeSequence = 0;
+    /**
+     * Sequence of the oldest entry still valid, moved forward by {@link PoseHistory#clear()}.
+     */
+    private volatile long oldestSequence = 0;
+
+    /**
+     * Construct the pose history.
+     *
+     * @param capacity Number of entries kept, the oldest are overwritten first.
+     */
+    public PoseHistory(int capacity) {
+        this.capacity = capacity;
+        timestamps = new double[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        theta = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        omega = new double[capacity];
+    }
+
+    /**
+     * Add an entry, should only be called by the writer. Entries must be added in timestamp order; an entry
+     * that isn't newer than the last one is ignored.
+     *
+     * @param timestamp             Timestamp in seconds.
+     * @param pose                  Field relative robot pose.
+     * @param vxMetersPerSecond     Robot relative x velocity.
+     * @param vyMetersPerSecond     Robot relative y velocity.
+     * @param omegaRadiansPerSecond Angular velocity.
+     */
+    public void add(
+        double timestamp,
+        Pose2d pose,
+        double vxMetersPerSecond,
+        double vyMetersPerSecond,
+        double omegaRadiansPerSecond
+    ) {
+        long write = writeSequence;
+        if (write > oldestSequence && timestamp <= timestamps[(int) ((write - 1) % capacity)]) {
+            return;
+        }
+        // Readers that saw the previous sequence must see it before any of this entry's writes.
+        VarHandle.storeStoreFence();
+        int slot = (int) (write % capacity);
+        timestamps[slot] = timestamp;
+        x[slot] = pose.getX();
+        y[slot] = pose.getY();
+        theta[slot] = pose.getRotation().getRadians();
+        vx[slot] = vxMetersPerSecond;
+        vy[slot] = vyMetersPerSecond;
+        omega[slot] = omegaRadiansPerSecond;
+        writeSequence = write + 1;
+    }
+
+    /**
+     * Forget every entry, e.g. after the pose is reset, should only be called by the writer.
+     */
+    public void clear() {
+        oldestSequence = writeSequence;
+    }
+
+    /**
+     * Look up the pose and velocity at a timestamp, interpolating between the entries on either side. Timestamps newer
+     * than the latest entry return the latest entry.
+     *
+     * @param timestamp Timestamp in seconds, on the same clock as the entries.
+     * @param sample    {@link Sample} to copy the result into.
+     * @return True if the history covers the timestamp, false if it is empty or the timestamp is older than every
+     * entry.
+     */
+    public boolean sample(double timestamp, Sample sample) {
+        while (true) {
+            long end = writeSequence;
+            // The writer may be overwriting the oldest slot right now, so skip it.
+            long start = Math.max(oldestSequence, end - capacity + 1);
+            if (start >= end) {
+                return false;
+            }
+
+            // Find the first entry newer than the timestamp.
+            long lo = start;
+            long hi = end;
+            while (lo < hi) {
+                long mid = (lo + hi) >>> 1;
+                if (timestamps[(int) (mid % capacity)] <= timestamp) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            boolean covered = lo > start;
+            if (covered) {
+                int before = (int) ((lo - 1) % capacity);
+                if (lo == end) {
+                    copy(before, sample);
+                } else {
+                    int after = (int) (lo % capacity);
+                    double t0 = timestamps[before];
+                    double t1 = timestamps[after];
+                    double f = t1 > t0 ? (timestamp - t0) / (t1 - t0) : 0;
+                    sample.timestamp = timestamp;
+                    sample.x = MathUtil.interpolate(x[before], x[after], f);
+                    sample.y = MathUtil.interpolate(y[before], y[after], f);
+                    sample.theta = MathUtil.angleModulus(
+                        theta[before] + MathUtil.angleModulus(theta[after] - theta[before]) * f
+                    );
+                    sample.vx = MathUtil.interpolate(vx[before], vx[after], f);
+                    sample.vy = MathUtil.interpolate(vy[before], vy[after], f);
+                    sample.omega = MathUtil.interpolate(omega[before], omega[after], f);
+                }
+            }
+
+            VarHandle.loadLoadFence();
+            // Retry if the writer got far enough to overwrite any slot that was read.
+            if (writeSequence - capacity < start) {
+                return covered;
+            }
+        }
+    }
+
+    /**
+     * Copy one entry into the sample.
+     *
+     * @param slot   Slot of the entry.
+     * @param sample {@link Sample} to copy into.
+     */
+    private void copy(int slot, Sample sample) {
+        sample.timestamp = timestamps[slot];
+        sample.x = x[slot];
+        sample.y = y[slot];
+        sample.theta = theta[slot];
+        sample.vx = vx[slot];
+        sample.vy = vy[slot];
+        sample.omega = omega[slot];
+    }
+
+    /**
+     * Mutable pose and velocity sample reused by readers to avoid allocation.
+     */
+    public static class Sample {
+
+        /**
+         * Timestamp in seconds.
+         */
+        public double timestamp;
+        /**
+         * Field relative x in meters.
+         */
+        public double x;
+        /**
+         * Field relative y in meters.
+         */
+        public double y;
+        /**
+         * Heading in radians.
+         */
+        public double theta;
+        /**
+         * Robot relative x velocity in meters per second.
+         */
+        public double vx;
+        /**
+         * Robot relative y velocity in meters per second.
+         */
+        public double vy;
+        /**
+         * Angular velocity in radians per second.
+         */
+        public double omega;
+
+        /**
+         * Create a {@link Pose2d} from this sample.
+         *
+         * @return The pose of this sample.
+         */
+        public Pose2d toPose2d() {
+            return new Pose2d(x, y, Rotation2d.fromRadians(theta));
+        }
+    }
+}
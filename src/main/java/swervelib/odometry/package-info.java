@@ -0,0 +1,4 @@
+/**
+ * Odometry sampling and pose bookkeeping used by the {@link swervelib.SwerveDrive}.
+ */
+package swervelib.odometry;
@@ -1,14 +1,28 @@
 package swervelib.parser;
 
-import edu.wpi.first.wpilibj.RobotBase;
-import edu.wpi.first.wpilibj.RobotController;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /**
- * Cache for frequently requested data.
+ * Cache for frequently requested data. Values are valid for one cache generation, which is advanced once per odometry
+ * cycle by {@link swervelib.SwerveDrive#invalidateCache()}, so a read only costs a field comparison instead of a HAL
+ * call.
  */
 public class Cache<T> {
 
+    /**
+     * Current cache generation shared by every cache.
+     */
+    private static volatile long currentGeneration = 0;
+    /**
+     * Number of reads served from a cache. Caches are read from the robot loop and the odometry thread, so the count is
+     * striped across threads instead of contending on one field.
+     */
+    private static final LongAdder hits = new LongAdder();
+    /**
+     * Number of reads that went to the supplier.
+     */
+    private static final LongAdder misses = new LongAdder();
     /**
      * Cached value.
      */
@@ -18,25 +32,67 @@ public class Cache<T> {
      */
     private Supplier<T> supplier;
     /**
-     * Timestamp in microseconds.
+     * Generation the cached value was read in. Volatile and written after {@link #value}, so a thread that sees the
+     * current generation also sees the value read in it.
      */
-    private long timestamp;
-    /**
-     * Validity period in microseconds.
-     */
-    private long validityPeriod;
+    private volatile long generation;
 
     /**
      * Cache for arbitrary values.
      *
-     * @param val            Value to cache.
-     * @param validityPeriod Validity period in milliseconds.
+     * @param val Value to cache.
      */
-    public Cache(Supplier<T> val, long validityPeriod) {
+    public Cache(Supplier<T> val) {
         supplier = val;
-        value = supplier.get();
-        timestamp = RobotController.getFPGATime();
-        this.validityPeriod = validityPeriod * 1000L;
+        update();
+    }
+
+    /**
+     * Invalidate every cache by advancing the cache generation.
+     */
+    public static void invalidateAll() {
+        currentGeneration++;
+    }
+
+    /**
+     * Get the current cache generation.
+     *
+     * @return Current cache generation.
+     */
+    public static long getGeneration() {
+        return currentGeneration;
+    }
+
+    /**
+     * Get the number of reads served from a cache since startup.
+     *
+     * @return Number of cache hits.
+     */
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of reads that went to the supplier since startup.
+     *
+     * @return Number of cache misses.
+     */
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Record a cache hit.
+     */
+    static void recordHit() {
+        hits.increment();
+    }
+
+    /**
+     * Record a cache miss.
+     */
+    static void recordMiss() {
+        misses.increment();
     }
 
     /**
@@ -45,22 +101,24 @@ public class Cache<T> {
      * @return The stale state of the cache.
      */
     public boolean isStale() {
-        return (RobotController.getFPGATime() - timestamp) > validityPeriod;
+        return generation != currentGeneration;
     }
 
     /**
-     * Update the cache value and timestamp.
+     * Update the cache value and generation.
      *
      * @return {@link Cache} used.
      */
     public Cache<T> update() {
+        // Take the generation before reading, so an invalidation during the read makes the next read refresh again.
+        long readGeneration = currentGeneration;
         this.value = supplier.get();
-        this.timestamp = RobotController.getFPGATime();
+        this.generation = readGeneration;
         return this;
     }
 
     /**
-     * Update the supplier to a new source. Updates the value and timestamp as well.
+     * Update the supplier to a new source. Updates the value and generation as well.
      *
      * @param supplier new supplier source.
      * @return {@link Cache} for chaining.
@@ -71,26 +129,17 @@ public class Cache<T> {
         return this;
     }
 
-    /**
-     * Update the validity period for the cached value, also updates the value.
-     *
-     * @param validityPeriod The new validity period in milliseconds.
-     * @return {@link Cache} for chaining.
-     */
-    public Cache<T> updateValidityPeriod(long validityPeriod) {
-        this.validityPeriod = validityPeriod * 1000L;
-        update();
-        return this;
-    }
-
     /**
      * Get the most up to date cached value.
      *
      * @return {@link T} updated to the latest cached version.
      */
     public T getValue() {
-        if (isStale() || RobotBase.isSimulation()) {
+        if (isStale()) {
+            recordMiss();
             update();
+        } else {
+            recordHit();
         }
         return value;
     }
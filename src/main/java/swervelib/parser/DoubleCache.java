@@ -0,0 +1,83 @@
+package swervelib.parser;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * {@link Cache} for primitive double values to avoid boxing on every read. Shares the cache generation of
+ * {@link Cache}.
+ */
+public class DoubleCache {
+
+    /**
+     * Cached value.
+     */
+    private double value;
+    /**
+     * Supplier for cached value.
+     */
+    private DoubleSupplier supplier;
+    /**
+     * Generation the cached value was read in. Volatile and written after {@link #value}, so a thread that sees the
+     * current generation also sees the value read in it.
+     */
+    private volatile long generation;
+
+    /**
+     * Cache for double values.
+     *
+     * @param val Value to cache.
+     */
+    public DoubleCache(DoubleSupplier val) {
+        supplier = val;
+        update();
+    }
+
+    /**
+     * Return whether the cache is stale.
+     *
+     * @return The stale state of the cache.
+     */
+    public boolean isStale() {
+        return generation != Cache.getGeneration();
+    }
+
+    /**
+     * Update the cache value and generation.
+     *
+     * @return {@link DoubleCache} used.
+     */
+    public DoubleCache update() {
+        // Take the generation before reading, so an invalidation during the read makes the next read refresh again.
+        long readGeneration = Cache.getGeneration();
+        this.value = supplier.getAsDouble();
+        this.generation = readGeneration;
+        return this;
+    }
+
+    /**
+     * Update the supplier to a new source. Updates the value and generation as well.
+     *
+     * @param supplier new supplier source.
+     * @return {@link DoubleCache} for chaining.
+     */
+    public DoubleCache updateSupplier(DoubleSupplier supplier) {
+        this.supplier = supplier;
+        update();
+        return this;
+    }
+
+    /**
+     * Get the most up to date cached value.
+     *
+     * @return Value updated to the latest cached version.
+     */
+    public double getValue() {
+        if (isStale()) {
+            Cache.recordMiss();
+            update();
+        } else {
+            Cache.recordHit();
+        }
+        return value;
+    }
+}
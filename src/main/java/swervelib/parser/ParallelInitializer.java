@@ -0,0 +1,145 @@
+package swervelib.parser;
+
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import swervelib.telemetry.SwerveStartupTiming;
+
+/**
+ * Runs blocking hardware initialization, e.g. motor and encoder configuration that waits on CAN acknowledgements, on a
+ * small thread pool so devices are configured concurrently instead of one after another. Failures are collected and
+ * thrown together once every task has finished. Tasks must only touch their own devices; raising an {@link Alert} from
+ * a task is no safer than raising one from the odometry thread.
+ */
+class ParallelInitializer {
+
+    /**
+     * Maximum number of initialization threads, more than this only adds contention on the CAN bus.
+     */
+    static final int MAX_THREADS = 4;
+    /**
+     * {@link Alert} groups created by device constructors. WPILib registers alert groups in an unsynchronized map, so
+     * they are registered on the calling thread before any task runs.
+     */
+    private static final String[] ALERT_GROUPS = {"Motors", "Encoders", "IMU", "JSON"};
+    /**
+     * Number of initializers created, used to name the threads.
+     */
+    private static final AtomicInteger instances = new AtomicInteger();
+
+    /**
+     * Name of this initialization step.
+     */
+    private final String step;
+    /**
+     * Timing to record each task to.
+     */
+    private final SwerveStartupTiming timing;
+    /**
+     * Thread pool running the tasks.
+     */
+    private final ExecutorService executor;
+    /**
+     * Task names, in submission order.
+     */
+    private final List<String> names = new ArrayList<>();
+    /**
+     * Task futures, in submission order.
+     */
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    /**
+     * Create an initializer for one step of swerve drive construction.
+     *
+     * @param step   Name of the step, used in timing and error messages.
+     * @param timing {@link SwerveStartupTiming} to record each task to.
+     */
+    ParallelInitializer(String step, SwerveStartupTiming timing) {
+        this.step = step;
+        this.timing = timing;
+        registerAlertGroups();
+        int instance = instances.incrementAndGet();
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(MAX_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "SwerveInit-" + instance + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Register every alert group and type used by device constructors so concurrent constructors only read the WPILib
+     * alert registry.
+     */
+    private static void registerAlertGroups() {
+        for (String group : ALERT_GROUPS) {
+            for (AlertType type : AlertType.values()) {
+                new Alert(group, "", type).close();
+            }
+        }
+    }
+
+    /**
+     * Start a task.
+     *
+     * @param name Name of the task, e.g. the module name.
+     * @param task Task to run.
+     */
+    void submit(String name, Runnable task) {
+        String timingName = step + "/" + name;
+        names.add(name);
+        futures.add(executor.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                timing.record(timingName, System.nanoTime() - start);
+            }
+        }));
+    }
+
+    /**
+     * Wait for every task to finish and shut down the thread pool.
+     *
+     * @throws RuntimeException if any task failed, caused by the first failure with the others suppressed.
+     */
+    void join() {
+        List<String> failedNames = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    failedNames.add(names.get(i));
+                    failures.add(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            throw new RuntimeException("Interrupted during swerve " + step, e);
+        } finally {
+            executor.shutdown();
+        }
+
+        if (!failures.isEmpty()) {
+            RuntimeException exception = new RuntimeException(
+                "Swerve " + step + " failed for " + String.join(", ", failedNames) + ": " + failures.get(0),
+                failures.get(0)
+            );
+            for (int i = 1; i < failures.size(); i++) {
+                exception.addSuppressed(failures.get(i));
+            }
+            throw exception;
+        }
+    }
+}
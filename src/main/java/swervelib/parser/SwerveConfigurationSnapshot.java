@@ -0,0 +1,689 @@
+package swervelib.parser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.wpi.first.wpilibj.DriverStation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+import swervelib.parser.json.ControllerPropertiesJson;
+import swervelib.parser.json.DeviceJson;
+import swervelib.parser.json.ModuleJson;
+import swervelib.parser.json.MotorConfigDouble;
+import swervelib.parser.json.MotorConfigInt;
+import swervelib.parser.json.PIDFPropertiesJson;
+import swervelib.parser.json.PhysicalPropertiesJson;
+import swervelib.parser.json.SwerveDriveJson;
+import swervelib.parser.json.modules.BoolMotorJson;
+import swervelib.parser.json.modules.ConversionFactorsJson;
+import swervelib.parser.json.modules.LocationJson;
+
+/**
+ * Parsed swerve JSON configuration, which can be compiled into a compact binary snapshot at build time by
+ * {@link SwerveConfigurationSnapshot#main(String[])}. Reading the snapshot skips starting Jackson on the robot, which
+ * is slow on a cold roboRIO JVM. The snapshot stores a checksum of the JSON files it was compiled from and is ignored
+ * once they change.
+ */
+public class SwerveConfigurationSnapshot {
+
+    /**
+     * Name of the snapshot file, deployed next to the swerve JSON it was compiled from.
+     */
+    public static final String FILE_NAME = "swerve.snapshot";
+    /**
+     * Magic number at the start of every snapshot, "SWRV".
+     */
+    private static final int MAGIC = 0x53575256;
+    /**
+     * Snapshot format version, must be incremented whenever the parsed JSON classes or the layout change.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Parsed swervedrive.json
+     */
+    public final SwerveDriveJson swerveDrive;
+    /**
+     * Parsed controllerproperties.json
+     */
+    public final ControllerPropertiesJson controllerProperties;
+    /**
+     * Parsed modules/pidfproperties.json
+     */
+    public final PIDFPropertiesJson pidfProperties;
+    /**
+     * Parsed modules/physicalproperties.json
+     */
+    public final PhysicalPropertiesJson physicalProperties;
+    /**
+     * Parsed module JSONs, in the order given in swervedrive.json.
+     */
+    public final ModuleJson[] modules;
+
+    /**
+     * Create a configuration from its parsed parts.
+     *
+     * @param swerveDrive          Parsed swervedrive.json
+     * @param controllerProperties Parsed controllerproperties.json
+     * @param pidfProperties       Parsed modules/pidfproperties.json
+     * @param physicalProperties   Parsed modules/physicalproperties.json
+     * @param modules              Parsed module JSONs.
+     */
+    private SwerveConfigurationSnapshot(
+        SwerveDriveJson swerveDrive,
+        ControllerPropertiesJson controllerProperties,
+        PIDFPropertiesJson pidfProperties,
+        PhysicalPropertiesJson physicalProperties,
+        ModuleJson[] modules
+    ) {
+        this.swerveDrive = swerveDrive;
+        this.controllerProperties = controllerProperties;
+        this.pidfProperties = pidfProperties;
+        this.physicalProperties = physicalProperties;
+        this.modules = modules;
+    }
+
+    /**
+     * Validate the swerve JSON in a directory and compile it into a snapshot. Run at build time.
+     *
+     * @param args Swerve configuration directory, then the directory to write the snapshot to.
+     * @throws IOException if a file couldn't be read or the snapshot couldn't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args[0]);
+        File output = new File(args[1]);
+        SwerveConfigurationSnapshot configuration = parseJson(directory);
+        configuration.validate();
+        Files.createDirectories(output.toPath());
+        configuration.write(directory, new File(output, FILE_NAME));
+    }
+
+    /**
+     * Parse the swerve JSON configuration with Jackson.
+     *
+     * @param directory Directory with swerve configurations.
+     * @return Parsed configuration.
+     * @throws IOException if a file doesn't exist or couldn't be parsed.
+     */
+    public static SwerveConfigurationSnapshot parseJson(File directory) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        SwerveDriveJson swerveDrive = mapper.readValue(
+            new File(directory, "swervedrive.json"),
+            SwerveDriveJson.class
+        );
+        ControllerPropertiesJson controllerProperties = mapper.readValue(
+            new File(directory, "controllerproperties.json"),
+            ControllerPropertiesJson.class
+        );
+        PIDFPropertiesJson pidfProperties = mapper.readValue(
+            new File(directory, "modules/pidfproperties.json"),
+            PIDFPropertiesJson.class
+        );
+        PhysicalPropertiesJson physicalProperties = mapper.readValue(
+            new File(directory, "modules/physicalproperties.json"),
+            PhysicalPropertiesJson.class
+        );
+        ModuleJson[] modules = new ModuleJson[swerveDrive.modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            File moduleFile = new File(directory, "modules/" + swerveDrive.modules[i]);
+            assert moduleFile.exists();
+            modules[i] = mapper.readValue(moduleFile, ModuleJson.class);
+        }
+        return new SwerveConfigurationSnapshot(
+            swerveDrive,
+            controllerProperties,
+            pidfProperties,
+            physicalProperties,
+            modules
+        );
+    }
+
+    /**
+     * Read the snapshot deployed in a swerve configuration directory.
+     *
+     * @param directory Directory with swerve configurations.
+     * @return Configuration from the snapshot, empty if there is no snapshot or it doesn't match the JSON.
+     */
+    public static Optional<SwerveConfigurationSnapshot> read(File directory) {
+        return read(directory, new File(directory, FILE_NAME));
+    }
+
+    /**
+     * Read a snapshot compiled from a swerve configuration directory.
+     *
+     * @param directory Directory with swerve configurations, checked against the snapshot's checksum.
+     * @param file      Snapshot file.
+     * @return Configuration from the snapshot, empty if there is no snapshot or it doesn't match the JSON.
+     */
+    public static Optional<SwerveConfigurationSnapshot> read(File directory, File file) {
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                DriverStation.reportWarning("Swerve configuration snapshot format is outdated, using the JSON.", false);
+                return Optional.empty();
+            }
+            long checksum = in.readLong();
+            SwerveDriveJson swerveDrive = readSwerveDrive(in);
+            ControllerPropertiesJson controllerProperties = readControllerProperties(in);
+            PIDFPropertiesJson pidfProperties = readPIDFProperties(in);
+            PhysicalPropertiesJson physicalProperties = readPhysicalProperties(in);
+            ModuleJson[] modules = new ModuleJson[in.readInt()];
+            for (int i = 0; i < modules.length; i++) {
+                modules[i] = readModule(in);
+            }
+            if (checksum(directory, swerveDrive.modules) != checksum) {
+                DriverStation.reportWarning("Swerve configuration snapshot is out of date, using the JSON.", false);
+                return Optional.empty();
+            }
+            return Optional.of(new SwerveConfigurationSnapshot(
+                swerveDrive,
+                controllerProperties,
+                pidfProperties,
+                physicalProperties,
+                modules
+            ));
+        } catch (IOException | RuntimeException e) {
+            // a corrupt body can fail with e.g. NegativeArraySizeException before the checksum is checked
+            DriverStation.reportWarning("Could not read swerve configuration snapshot, using the JSON. " + e, false);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Check the configuration for missing sections that would otherwise only fail when the swerve drive is created.
+     *
+     * @throws RuntimeException if the configuration is invalid.
+     */
+    public void validate() {
+        if (swerveDrive.imu == null || swerveDrive.imu.type == null) {
+            throw new RuntimeException("swervedrive.json does not define an imu.");
+        }
+        if (swerveDrive.modules == null || swerveDrive.modules.length == 0) {
+            throw new RuntimeException("swervedrive.json does not list any modules.");
+        }
+        if (pidfProperties.drive == null || pidfProperties.angle == null) {
+            throw new RuntimeException("pidfproperties.json must define both drive and angle PIDF.");
+        }
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < modules.length; i++) {
+            String name = swerveDrive.modules[i];
+            ModuleJson module = modules[i];
+            if (!names.add(name)) {
+                throw new RuntimeException(name + " is listed more than once in swervedrive.json.");
+            }
+            if (module.drive == null || module.drive.type == null ||
+                module.angle == null || module.angle.type == null) {
+                throw new RuntimeException(name + " must define a drive and angle motor.");
+            }
+            if (module.encoder == null || module.encoder.type == null) {
+                throw new RuntimeException(name + " must define an encoder, use type \"none\" if there isn't one.");
+            }
+            if (module.inverted == null || module.location == null) {
+                throw new RuntimeException(name + " must define inverted and location.");
+            }
+        }
+    }
+
+    /**
+     * Write this configuration as a snapshot, tagged with the checksum of the JSON currently in a swerve configuration
+     * directory.
+     *
+     * @param directory Directory with swerve configurations.
+     * @param file      Snapshot file to write.
+     * @throws IOException if the JSON couldn't be read or the snapshot couldn't be written.
+     */
+    public void write(File directory, File file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(checksum(directory, swerveDrive.modules));
+            writeSwerveDrive(out, swerveDrive);
+            writeControllerProperties(out, controllerProperties);
+            writePIDFProperties(out, pidfProperties);
+            writePhysicalProperties(out, physicalProperties);
+            out.writeInt(modules.length);
+            for (ModuleJson module : modules) {
+                writeModule(out, module);
+            }
+        }
+        Files.write(file.toPath(), bytes.toByteArray());
+    }
+
+    /**
+     * Checksum of the JSON files a configuration is parsed from.
+     *
+     * @param directory   Directory with swerve configurations.
+     * @param moduleFiles Module JSON file names from swervedrive.json.
+     * @return CRC32 of the file names and contents.
+     * @throws IOException if a file couldn't be read.
+     */
+    private static long checksum(File directory, String[] moduleFiles) throws IOException {
+        CRC32 crc = new CRC32();
+        update(crc, directory, "swervedrive.json");
+        update(crc, directory, "controllerproperties.json");
+        update(crc, directory, "modules/pidfproperties.json");
+        update(crc, directory, "modules/physicalproperties.json");
+        for (String moduleFile : moduleFiles) {
+            update(crc, directory, "modules/" + moduleFile);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Add a file's name and contents to a checksum.
+     *
+     * @param crc       Checksum to update.
+     * @param directory Directory with swerve configurations.
+     * @param name      File path relative to the directory.
+     * @throws IOException if the file couldn't be read.
+     */
+    private static void update(CRC32 crc, File directory, String name) throws IOException {
+        crc.update(name.getBytes(StandardCharsets.UTF_8));
+        crc.update(Files.readAllBytes(new File(directory, name).toPath()));
+    }
+
+    /**
+     * Write swervedrive.json to the snapshot.
+     *
+     * @param out  Snapshot output.
+     * @param json Parsed swervedrive.json
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    private static void writeSwerveDrive(DataOutputStream out, SwerveDriveJson json) throws IOException {
+        writeDevice(out, json.imu);
+        out.writeBoolean(json.invertedIMU);
+        out.writeInt(json.modules.length);
+        for (String module : json.modules) {
+            out.writeUTF(module);
+        }
+    }
+
+    /**
+     * Read swervedrive.json from the snapshot.
+     *
+     * @param in Snapshot input.
+     * @return Parsed swervedrive.json
+     * @throws IOException if the snapshot is truncated.
+     */
+    private static SwerveDriveJson readSwerveDrive(DataInputStream in) throws IOException {
+        SwerveDriveJson json = new SwerveDriveJson();
+        json.imu = readDevice(in);
+        json.invertedIMU = in.readBoolean();
+        json.modules = new String[in.readInt()];
+        for (int i = 0; i < json.modules.length; i++) {
+            json.modules[i] = in.readUTF();
+        }
+        return json;
+    }
+
+    /**
+     * Write controllerproperties.json to the snapshot.
+     *
+     * @param out  Snapshot output.
+     * @param json Parsed controllerproperties.json
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    private static void writeControllerProperties(
+        DataOutputStream out,
+        ControllerPropertiesJson json
+    ) throws IOException {
+        out.writeDouble(json.angleJoystickRadiusDeadband);
+        writePIDF(out, json.heading);
+    }
+
+    /**
+     * Read controllerproperties.json from the snapshot.
+     *
+     * @param in Snapshot input.
+     * @return Parsed controllerproperties.json
+     * @throws IOException if the snapshot is truncated.
+     */
+    private static ControllerPropertiesJson readControllerProperties(DataInputStream in) throws IOException {
+        ControllerPropertiesJson json = new ControllerPropertiesJson();
+        json.angleJoystickRadiusDeadband = in.readDouble();
+        json.heading = readPIDF(in);
+        return json;
+    }
+
+    /**
+     * Write modules/pidfproperties.json to the snapshot.
+     *
+     * @param out  Snapshot output.
+     * @param json Parsed modules/pidfproperties.json
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    private static void writePIDFProperties(DataOutputStream out, PIDFPropertiesJson json) throws IOException {
+        writePIDF(out, json.drive);
+        writePIDF(out, json.angle);
+    }
+
+    /**
+     * Read modules/pidfproperties.json from the snapshot.
+     *
+     * @param in Snapshot input.
+     * @return Parsed modules/pidfproperties.json
+     * @throws IOException if the snapshot is truncated.
+     */
+    private static PIDFPropertiesJson readPIDFProperties(DataInputStream in) throws IOException {
+        PIDFPropertiesJson json = new PIDFPropertiesJson();
+        json.drive = readPIDF(in);
+        json.angle = readPIDF(in);
+        return json;
+    }
+
+    /**
+     * Write modules/physicalproperties.json to the snapshot.
+     *
+     * @param out  Snapshot output.
+     * @param json Parsed modules/physicalproperties.json
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    private static void writePhysicalProperties(
+        DataOutputStream out,
+        PhysicalPropertiesJson json
+    ) throws IOException {
+        writeMotorConfig(out, json.conversionFactor);
+        writeMotorConfig(out, json.friction);
+        out.writeDouble(json.steerRotationalInertia);
+        out.writeDouble(json.robotMass);
+        writeConversionFactors(out, json.conversionFactors);
+        out.writeBoolean(json.currentLimit != null);
+        if (json.currentLimit != null) {
+            out.writeInt(json.currentLimit.drive);
+            out.writeInt(json.currentLimit.angle);
+        }
+        writeMotorConfig(out, json.rampRate);
+        out.writeDouble(json.wheelGripCoefficientOfFriction);
+        out.writeDouble(json.optimalVoltage);
+    }
+
+    /**
+     * Read modules/physicalproperties.json from the snapshot.
+     *
+     * @param in Snapshot input.
+     * @return Parsed modules/physicalproperties.json
+     * @throws IOException if the snapshot is truncated.
+     */
+    private static PhysicalPropertiesJson readPhysicalProperties(DataInputStream in) throws IOException {
+        PhysicalPropertiesJson json = new PhysicalPropertiesJson();
+        json.conversionFactor = readMotorConfig(in);
+        json.friction = readMotorConfig(in);
+        json.steerRotationalInertia = in.readDouble();
+        json.robotMass = in.readDouble();
+        json.conversionFactors = readConversionFactors(in);
+        if (in.readBoolean()) {
+            json.currentLimit = new MotorConfigInt();
+            json.currentLimit.drive = in.readInt();
+            json.currentLimit.angle = in.readInt();
+        } else {
+            json.currentLimit = null;
+        }
+        json.rampRate = readMotorConfig(in);
+        json.wheelGripCoefficientOfFriction = in.readDouble();
+        json.optimalVoltage = in.readDouble();
+        return json;
+    }
+
+    /**
+     * Write a module JSON to the snapshot.
+     *
+     * @param out  Snapshot output.
+     * @param json Parsed module JSON.
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    private static void writeModule(DataOutputStream out, ModuleJson json) throws IOException {
+        writeDevice(out, json.drive);
+        writeDevice(out, json.angle);
+        writeConversionFactors(out, json.conversionFactors);
+        writeDevice(out, json.encoder);
+        out.writeBoolean(json.inverted != null);
+        if (json.inverted != null) {
+            out.writeBoolean(json.inverted.drive);
+            out.writeBoolean(json.inverted.angle);
+        }
+        out.writeDouble(json.absoluteEncoderOffset);
+        out.writeBoolean(json.absoluteEncoderInverted);
+        out.writeBoolean(json.location != null);
+        if (json.location != null) {
+            out.writeDouble(json.location.front);
+            out.writeDouble(json.location.x);
+            out.writeDouble(json.location.left);
+            out.writeDouble(json.location.y);
+        }
+        out.writeBoolean(json.useCosineCompensator);
+    }
+
+    /**
+     * Read a module JSON from the snapshot.
+     *
+     * @param in Snapshot input.
+     * @return Parsed module JSON.
+     * @throws IOException if the snapshot is truncated.
+     */
+    private static ModuleJson readModule(DataInputStream in) throws IOException {
+        ModuleJson json = new ModuleJson();
+        json.drive = readDevice(in);
+        json.angle = readDevice(in);
+        json.conversionFactors = readConversionFactors(in);
+        json.encoder = readDevice(in);
+        if (in.readBoolean()) {
+            json.inverted = new BoolMotorJson();
+            json.inverted.drive = in.readBoolean();
+            json.inverted.angle = in.readBoolean();
+        }
+        json.absoluteEncoderOffset = in.readDouble();
+        json.absoluteEncoderInverted = in.readBoolean();
+        if (in.readBoolean()) {
+            json.location = new LocationJson();
+            json.location.front = in.readDouble();
+            json.location.x = in.readDouble();
+            json.location.left = in.readDouble();
+            json.location.y = in.readDouble();
+        }
+        json.useCosineCompensator = in.readBoolean();
+        return json;
+    }
+
+    /**
+     * Write a device to the snapshot.
+     *
+     * @param out  Snapshot output.
+     * @param json Device, may be null.
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    private static void writeDevice(DataOutputStream out, DeviceJson json) throws IOException {
+        out.writeBoolean(json != null);
+        if (json != null) {
+            writeString(out, json.type);
+            out.writeInt(json.id);
+            writeString(out, json.canbus);
+        }
+    }
+
+    /**
+     * Read a device from the snapshot.
+     *
+     * @param in Snapshot input.
+     * @return Device, null if it was not defined.
+     * @throws IOException if the snapshot is truncated.
+     */
+    private static DeviceJson readDevice(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        DeviceJson json = new DeviceJson();
+        json.type = readString(in);
+        json.id = in.readInt();
+        json.canbus = readString(in);
+        return json;
+    }
+
+    /**
+     * Write a PIDF configuration to the snapshot.
+     *
+     * @param out  Snapshot output.
+     * @param pidf PIDF configuration, may be null.
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    private static void writePIDF(DataOutputStream out, PIDFConfig pidf) throws IOException {
+        out.writeBoolean(pidf != null);
+        if (pidf != null) {
+            out.writeDouble(pidf.p);
+            out.writeDouble(pidf.i);
+            out.writeDouble(pidf.d);
+            out.writeDouble(pidf.f);
+            out.writeDouble(pidf.iz);
+            out.writeBoolean(pidf.output != null);
+            if (pidf.output != null) {
+                out.writeDouble(pidf.output.min);
+                out.writeDouble(pidf.output.max);
+            }
+        }
+    }
+
+    /**
+     * Read a PIDF configuration from the snapshot.
+     *
+     * @param in Snapshot input.
+     * @return PIDF configuration, null if it was not defined.
+     * @throws IOException if the snapshot is truncated.
+     */
+    private static PIDFConfig readPIDF(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        PIDFConfig pidf = new PIDFConfig();
+        pidf.p = in.readDouble();
+        pidf.i = in.readDouble();
+        pidf.d = in.readDouble();
+        pidf.f = in.readDouble();
+        pidf.iz = in.readDouble();
+        if (in.readBoolean()) {
+            pidf.output.min = in.readDouble();
+            pidf.output.max = in.readDouble();
+        } else {
+            pidf.output = null;
+        }
+        return pidf;
+    }
+
+    /**
+     * Write a drive and angle motor value pair to the snapshot.
+     *
+     * @param out    Snapshot output.
+     * @param config Motor values, may be null.
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    private static void writeMotorConfig(DataOutputStream out, MotorConfigDouble config) throws IOException {
+        out.writeBoolean(config != null);
+        if (config != null) {
+            out.writeDouble(config.drive);
+            out.writeDouble(config.angle);
+        }
+    }
+
+    /**
+     * Read a drive and angle motor value pair from the snapshot.
+     *
+     * @param in Snapshot input.
+     * @return Motor values, null if they were not defined.
+     * @throws IOException if the snapshot is truncated.
+     */
+    private static MotorConfigDouble readMotorConfig(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        MotorConfigDouble config = new MotorConfigDouble();
+        config.drive = in.readDouble();
+        config.angle = in.readDouble();
+        return config;
+    }
+
+    /**
+     * Write conversion factors to the snapshot.
+     *
+     * @param out  Snapshot output.
+     * @param json Conversion factors, may be null.
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    private static void writeConversionFactors(DataOutputStream out, ConversionFactorsJson json) throws IOException {
+        out.writeBoolean(json != null);
+        if (json != null) {
+            out.writeBoolean(json.drive != null);
+            if (json.drive != null) {
+                out.writeDouble(json.drive.gearRatio);
+                out.writeDouble(json.drive.diameter);
+                out.writeDouble(json.drive.factor);
+            }
+            out.writeBoolean(json.angle != null);
+            if (json.angle != null) {
+                out.writeDouble(json.angle.gearRatio);
+                out.writeDouble(json.angle.factor);
+            }
+        }
+    }
+
+    /**
+     * Read conversion factors from the snapshot.
+     *
+     * @param in Snapshot input.
+     * @return Conversion factors, null if they were not defined.
+     * @throws IOException if the snapshot is truncated.
+     */
+    private static ConversionFactorsJson readConversionFactors(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        ConversionFactorsJson json = new ConversionFactorsJson();
+        if (in.readBoolean()) {
+            json.drive.gearRatio = in.readDouble();
+            json.drive.diameter = in.readDouble();
+            json.drive.factor = in.readDouble();
+        } else {
+            json.drive = null;
+        }
+        if (in.readBoolean()) {
+            json.angle.gearRatio = in.readDouble();
+            json.angle.factor = in.readDouble();
+        } else {
+            json.angle = null;
+        }
+        return json;
+    }
+
+    /**
+     * Write a string to the snapshot.
+     *
+     * @param out   Snapshot output.
+     * @param value String, may be null.
+     * @throws IOException if the snapshot couldn't be written.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Read a string from the snapshot.
+     *
+     * @param in Snapshot input.
+     * @return String, null if it was null when written.
+     * @throws IOException if the snapshot is truncated.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
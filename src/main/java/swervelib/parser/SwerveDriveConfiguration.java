@@ -10,6 +10,7 @@ import swervelib.imu.NavXSwerve;
 import swervelib.imu.Pigeon2Swerve;
 import swervelib.imu.SwerveIMU;
 import swervelib.math.SwerveMath;
+import swervelib.telemetry.SwerveStartupTiming;
 
 /**
  * Swerve drive configurations used during SwerveDrive construction.
@@ -50,11 +51,30 @@ public class SwerveDriveConfiguration {
         SwerveIMU swerveIMU,
         boolean invertedIMU,
         SwerveModulePhysicalCharacteristics physicalCharacteristics
+    ) {
+        this(moduleConfigs, swerveIMU, invertedIMU, physicalCharacteristics, new SwerveStartupTiming());
+    }
+
+    /**
+     * Create swerve drive configuration, recording how long each module took to configure.
+     *
+     * @param moduleConfigs           Module configuration.
+     * @param swerveIMU               Swerve IMU.
+     * @param invertedIMU             Invert the IMU.
+     * @param physicalCharacteristics {@link SwerveModulePhysicalCharacteristics} to store in association with self.
+     * @param timing                  {@link SwerveStartupTiming} to record module configuration time to.
+     */
+    public SwerveDriveConfiguration(
+        SwerveModuleConfiguration[] moduleConfigs,
+        SwerveIMU swerveIMU,
+        boolean invertedIMU,
+        SwerveModulePhysicalCharacteristics physicalCharacteristics,
+        SwerveStartupTiming timing
     ) {
         this.moduleCount = moduleConfigs.length;
         this.imu = swerveIMU;
         swerveIMU.setInverted(invertedIMU);
-        this.modules = createModules(moduleConfigs);
+        this.modules = createModules(moduleConfigs, timing);
         this.moduleLocationsMeters = new Translation2d[moduleConfigs.length];
         for (SwerveModule module : modules) {
             this.moduleLocationsMeters[module.moduleNumber] = module.configuration.moduleLocation;
@@ -63,16 +83,36 @@ public class SwerveDriveConfiguration {
     }
 
     /**
-     * Create modules based off of the SwerveModuleConfiguration.
+     * Create modules based off of the SwerveModuleConfiguration. Modules are configured concurrently since each one
+     * blocks on CAN acknowledgements.
      *
      * @param swerves Swerve constants.
      * @return Swerve Modules.
      */
     public SwerveModule[] createModules(SwerveModuleConfiguration[] swerves) {
+        return createModules(swerves, new SwerveStartupTiming());
+    }
+
+    /**
+     * Create modules based off of the SwerveModuleConfiguration. Modules are configured concurrently since each one
+     * blocks on CAN acknowledgements.
+     *
+     * @param swerves Swerve constants.
+     * @param timing  {@link SwerveStartupTiming} to record each module's configuration time to.
+     * @return Swerve Modules.
+     * @throws RuntimeException if any module failed to configure, after every module has finished.
+     */
+    public SwerveModule[] createModules(SwerveModuleConfiguration[] swerves, SwerveStartupTiming timing) {
         SwerveModule[] modArr = new SwerveModule[swerves.length];
+        ParallelInitializer initializer = new ParallelInitializer("module configuration", timing);
         for (int i = 0; i < swerves.length; i++) {
-            modArr[i] = new SwerveModule(i, swerves[i]);
+            int moduleNumber = i;
+            initializer.submit(
+                swerves[i].name,
+                () -> modArr[moduleNumber] = new SwerveModule(moduleNumber, swerves[moduleNumber])
+            );
         }
+        initializer.join();
         return modArr;
     }
 
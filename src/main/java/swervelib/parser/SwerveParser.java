@@ -6,14 +6,17 @@ import edu.wpi.first.math.geometry.Pose2d;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.Optional;
 import swervelib.SwerveDrive;
 import swervelib.SwerveModule;
+import swervelib.imu.SwerveIMU;
 import swervelib.math.SwerveMath;
 import swervelib.parser.json.ControllerPropertiesJson;
 import swervelib.parser.json.ModuleJson;
 import swervelib.parser.json.PIDFPropertiesJson;
 import swervelib.parser.json.PhysicalPropertiesJson;
 import swervelib.parser.json.SwerveDriveJson;
+import swervelib.telemetry.SwerveStartupTiming;
 
 /**
  * Helper class used to parse the JSON directory with specified configuration options.
@@ -44,38 +47,31 @@ public class SwerveParser {
      * Array holding the module jsons given in {@link SwerveDriveJson}.
      */
     public static ModuleJson[] moduleJsons;
+    /**
+     * Startup timing of the last swerve drive created.
+     */
+    private SwerveStartupTiming startupTiming = null;
 
     /**
-     * Construct a swerve parser. Will throw an error if there is a missing file.
+     * Construct a swerve parser. Loads the {@link SwerveConfigurationSnapshot} compiled at build time if it matches the
+     * JSON, otherwise parses the JSON. Will throw an error if there is a missing file.
      *
      * @param directory Directory with swerve configurations.
      * @throws IOException if a file doesn't exist.
      */
     public SwerveParser(File directory) throws IOException {
         checkDirectory(directory);
-        swerveDriveJson = new ObjectMapper()
-            .readValue(new File(directory, "swervedrive.json"), SwerveDriveJson.class);
-        controllerPropertiesJson = new ObjectMapper()
-            .readValue(
-                new File(directory, "controllerproperties.json"),
-                ControllerPropertiesJson.class
-            );
-        pidfPropertiesJson = new ObjectMapper()
-            .readValue(
-                new File(directory, "modules/pidfproperties.json"),
-                PIDFPropertiesJson.class
-            );
-        physicalPropertiesJson = new ObjectMapper()
-            .readValue(
-                new File(directory, "modules/physicalproperties.json"),
-                PhysicalPropertiesJson.class
-            );
-        moduleJsons = new ModuleJson[swerveDriveJson.modules.length];
+        Optional<SwerveConfigurationSnapshot> snapshot = SwerveConfigurationSnapshot.read(directory);
+        SwerveConfigurationSnapshot configuration = snapshot.isPresent()
+            ? snapshot.get()
+            : SwerveConfigurationSnapshot.parseJson(directory);
+        swerveDriveJson = configuration.swerveDrive;
+        controllerPropertiesJson = configuration.controllerProperties;
+        pidfPropertiesJson = configuration.pidfProperties;
+        physicalPropertiesJson = configuration.physicalProperties;
+        moduleJsons = configuration.modules;
         for (int i = 0; i < moduleJsons.length; i++) {
             moduleConfigs.put(swerveDriveJson.modules[i], i);
-            File moduleFile = new File(directory, "modules/" + swerveDriveJson.modules[i]);
-            assert moduleFile.exists();
-            moduleJsons[i] = new ObjectMapper().readValue(moduleFile, ModuleJson.class);
         }
     }
 
@@ -166,32 +162,64 @@ public class SwerveParser {
      * @return {@link SwerveDrive} instance.
      */
     public SwerveDrive createSwerveDrive(double maxSpeed, Pose2d initialPose) {
+        SwerveStartupTiming timing = new SwerveStartupTiming();
         SwerveModuleConfiguration[] moduleConfigurations =
             new SwerveModuleConfiguration[moduleJsons.length];
+        SwerveIMU[] imu = new SwerveIMU[1];
+
+        long deviceStart = System.nanoTime();
+        // Create the motors, encoders and IMU concurrently, each blocks on its own CAN configuration.
+        ParallelInitializer initializer = new ParallelInitializer("device creation", timing);
         for (int i = 0; i < moduleConfigurations.length; i++) {
-            ModuleJson module = moduleJsons[i];
-            moduleConfigurations[i] = module.createModuleConfiguration(
-                pidfPropertiesJson.angle,
-                pidfPropertiesJson.drive,
-                physicalPropertiesJson.createPhysicalProperties(),
-                swerveDriveJson.modules[i]
+            int moduleNumber = i;
+            initializer.submit(
+                swerveDriveJson.modules[i],
+                () -> moduleConfigurations[moduleNumber] = moduleJsons[moduleNumber].createModuleConfiguration(
+                    pidfPropertiesJson.angle,
+                    pidfPropertiesJson.drive,
+                    physicalPropertiesJson.createPhysicalProperties(),
+                    swerveDriveJson.modules[moduleNumber]
+                )
             );
         }
-        SwerveDriveConfiguration swerveDriveConfiguration = new SwerveDriveConfiguration(
-            moduleConfigurations,
-            swerveDriveJson.imu.createIMU(),
-            swerveDriveJson.invertedIMU,
-            physicalPropertiesJson.createPhysicalProperties()
+        initializer.submit("imu", () -> imu[0] = swerveDriveJson.imu.createIMU());
+        initializer.join();
+        timing.record("device creation", System.nanoTime() - deviceStart);
+
+        SwerveDriveConfiguration swerveDriveConfiguration = timing.time(
+            "module configuration",
+            () -> new SwerveDriveConfiguration(
+                moduleConfigurations,
+                imu[0],
+                swerveDriveJson.invertedIMU,
+                physicalPropertiesJson.createPhysicalProperties(),
+                timing
+            )
         );
 
-        return new SwerveDrive(
-            swerveDriveConfiguration,
-            controllerPropertiesJson.createControllerConfiguration(
+        SwerveDrive swerveDrive = timing.time(
+            "swerve drive",
+            () -> new SwerveDrive(
                 swerveDriveConfiguration,
-                maxSpeed
-            ),
-            maxSpeed,
-            initialPose
+                controllerPropertiesJson.createControllerConfiguration(
+                    swerveDriveConfiguration,
+                    maxSpeed
+                ),
+                maxSpeed,
+                initialPose
+            )
         );
+        startupTiming = timing;
+        timing.report();
+        return swerveDrive;
+    }
+
+    /**
+     * Get how long each step of the last {@link SwerveParser#createSwerveDrive(double, Pose2d)} took.
+     *
+     * @return {@link SwerveStartupTiming} of the last swerve drive created, null if none has been created.
+     */
+    public SwerveStartupTiming getStartupTiming() {
+        return startupTiming;
     }
 }
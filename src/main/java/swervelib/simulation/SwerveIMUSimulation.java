@@ -6,6 +6,7 @@ import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import java.util.Optional;
 import org.ironmaple.simulation.drivesims.GyroSimulation;
@@ -62,6 +63,15 @@ public class SwerveIMUSimulation {
         return new Rotation3d(0, 0, getYaw().getRadians());
     }
 
+    /**
+     * Fetch the simulated yaw rate of the robot.
+     *
+     * @return {@link AngularVelocity} of the yaw rate.
+     */
+    public AngularVelocity getYawAngularVelocity() {
+        return gyroSimulation.getMeasuredAngularVelocity();
+    }
+
     /**
      * Fetch the acceleration [x, y, z] from the IMU in m/s/s. If acceleration isn't supported returns empty.
      *
@@ -5,6 +5,7 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.networktables.DoubleArrayPublisher;
 import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.StringPublisher;
 import edu.wpi.first.networktables.StructArrayPublisher;
@@ -14,7 +15,9 @@ import edu.wpi.first.wpilibj.Alert.AlertType;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.Timer;
+import java.util.concurrent.atomic.AtomicLong;
 import swervelib.SwerveDrive;
+import swervelib.parser.Cache;
 
 /**
  * Telemetry to describe the {@link swervelib.SwerveDrive} following frc-web-components. (Which follows AdvantageKit)
@@ -198,10 +201,39 @@ public class SwerveDriveTelemetry {
         .getTable("SmartDashboard")
         .getDoubleTopic("swerve/controlCycleMS")
         .publish();
+    /**
+     * Number of {@link Cache} reads served without touching the hardware.
+     */
+    private static final IntegerPublisher cacheHitsPublisher = NetworkTableInstance.getDefault()
+        .getTable("SmartDashboard")
+        .getIntegerTopic("swerve/cache/hits")
+        .publish();
+    /**
+     * Number of {@link Cache} reads that went to the hardware.
+     */
+    private static final IntegerPublisher cacheMissesPublisher = NetworkTableInstance.getDefault()
+        .getTable("SmartDashboard")
+        .getIntegerTopic("swerve/cache/misses")
+        .publish();
+    /**
+     * Current {@link Cache} generation, advanced once per odometry cycle.
+     */
+    private static final IntegerPublisher cacheGenerationPublisher = NetworkTableInstance.getDefault()
+        .getTable("SmartDashboard")
+        .getIntegerTopic("swerve/cache/generation")
+        .publish();
     /**
      * Odometry timer to track cycle times.
      */
     private static final Timer odomTimer = new Timer();
+    /**
+     * {@link System#nanoTime()} at the start of the current odometry cycle, only touched by the odometry thread.
+     */
+    private static long odomCycleStartNanos = 0;
+    /**
+     * Longest odometry cycle since {@link #takeMaxOdomCycleNanos()} was last called, or -1 if there was none.
+     */
+    private static final AtomicLong maxOdomCycleNanos = new AtomicLong(-1);
     /**
      * Control timer to track cycle times.
      */
@@ -325,6 +357,7 @@ public class SwerveDriveTelemetry {
      * Start the odom cycle timer to calculate how long each odom took. Independent of periodic loops.
      */
     public static void startOdomCycle() {
+        odomCycleStartNanos = System.nanoTime();
         if (odomTimer.isRunning()) {
             odomTimer.reset();
         } else {
@@ -336,6 +369,8 @@ public class SwerveDriveTelemetry {
      * Update the odom cycle time.
      */
     public static void endOdomCycle() {
+        long cycleNanos = System.nanoTime() - odomCycleStartNanos;
+        maxOdomCycleNanos.accumulateAndGet(cycleNanos, Math::max);
         if (
             DriverStation.isTeleopEnabled() ||
             DriverStation.isAutonomousEnabled() ||
@@ -346,6 +381,15 @@ public class SwerveDriveTelemetry {
         odomTimer.reset();
     }
 
+    /**
+     * Get the longest odometry cycle since the last call. Safe to call from any thread.
+     *
+     * @return Cycle time in nanoseconds, or -1 if no odometry cycle finished since the last call.
+     */
+    public static long takeMaxOdomCycleNanos() {
+        return maxOdomCycleNanos.getAndSet(-1);
+    }
+
     /**
      * Update only the settings that infrequently or never change.
      */
@@ -408,6 +452,10 @@ public class SwerveDriveTelemetry {
         desiredChassisSpeedsStruct.set(desiredChassisSpeedsObj);
         measuredChassisSpeedsStruct.set(measuredChassisSpeedsObj);
         robotRotationStruct.set(robotRotationObj);
+
+        cacheHitsPublisher.set(Cache.getHits());
+        cacheMissesPublisher.set(Cache.getMisses());
+        cacheGenerationPublisher.set(Cache.getGeneration());
     }
 
     /**
@@ -0,0 +1,87 @@
+package swervelib.telemetry;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Wall clock time of each step of swerve drive construction, to see how long the robot takes to be ready to enable.
+ * Steps may be recorded from the initialization threads.
+ */
+public class SwerveStartupTiming {
+
+    /**
+     * Time each step took in milliseconds, in the order they were recorded.
+     */
+    private final Map<String, Double> stepMillis = new LinkedHashMap<>();
+    /**
+     * {@link System#nanoTime()} when timing started.
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Record how long a step took.
+     *
+     * @param step          Name of the step.
+     * @param durationNanos Duration of the step in nanoseconds.
+     */
+    public synchronized void record(String step, long durationNanos) {
+        stepMillis.put(step, durationNanos / 1e6);
+    }
+
+    /**
+     * Run a step and record how long it took.
+     *
+     * @param step     Name of the step.
+     * @param supplier Step to run.
+     * @param <T>      Type the step returns.
+     * @return The value returned by the step.
+     */
+    public <T> T time(String step, Supplier<T> supplier) {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            record(step, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Get the time since timing started.
+     *
+     * @return Elapsed time in milliseconds.
+     */
+    public double getTotalMillis() {
+        return (System.nanoTime() - startNanos) / 1e6;
+    }
+
+    /**
+     * Get the time each step took.
+     *
+     * @return Copy of the step durations in milliseconds, in the order they were recorded.
+     */
+    public synchronized Map<String, Double> getSteps() {
+        return new LinkedHashMap<>(stepMillis);
+    }
+
+    /**
+     * Publish every step under "swerve/startup" on the SmartDashboard and print a one line summary to the console.
+     */
+    public synchronized void report() {
+        double total = getTotalMillis();
+        StringBuilder summary = new StringBuilder("Swerve drive startup took ")
+            .append(String.format("%.1f", total))
+            .append(" ms");
+        for (Map.Entry<String, Double> step : stepMillis.entrySet()) {
+            SmartDashboard.putNumber("swerve/startup/" + step.getKey(), step.getValue());
+            summary.append(", ")
+                .append(step.getKey())
+                .append(' ')
+                .append(String.format("%.1f", step.getValue()))
+                .append(" ms");
+        }
+        SmartDashboard.putNumber("swerve/startup/total", total);
+        System.out.println(summary);
+    }
+}
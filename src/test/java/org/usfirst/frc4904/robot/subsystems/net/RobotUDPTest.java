@@ -0,0 +1,114 @@
+package org.usfirst.frc4904.robot.subsystems.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.usfirst.frc4904.robot.subsystems.net.messages.OdometryUpdate;
+import org.usfirst.frc4904.standard.subsystems.net.UDPSocket;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Streams odometry updates from a {@link RobotUDP} to a receiving socket over
+ * loopback, checks every sequence number arrives in order and reports latency
+ * and throughput.
+ */
+class RobotUDPTest {
+    private static final int UPDATES = 20_000;
+    // stays under the receive pool so the robot loop never falls behind
+    private static final int BURST = 32;
+    private static final long BURST_TIMEOUT_NANOS = 1_000_000_000L;
+
+    /** Stands in for the coprocessor, checking sequence numbers as updates arrive */
+    private static class Receiver extends UDPSocket {
+        private final OdometryUpdate update = new OdometryUpdate();
+        int expectedSequence = 0;
+        int received = 0;
+        int outOfOrder = 0;
+        long latencySumNanos = 0;
+        long maxLatencyNanos = 0;
+
+        Receiver() throws IOException {
+            super(new InetSocketAddress("127.0.0.1", 0));
+        }
+
+        @Override
+        protected void receive(SocketAddress address, ByteBuffer buffer) {
+            update.unpack(buffer);
+            if (update.sequence != expectedSequence) outOfOrder++;
+            expectedSequence = update.sequence + 1;
+            received++;
+
+            final long latency = System.nanoTime() - update.timestampMicros * 1000;
+            latencySumNanos += latency;
+            maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+        }
+    }
+
+    private Receiver receiver;
+    private RobotUDP robot;
+
+    @BeforeAll
+    static void initializeHAL() {
+        HAL.initialize(500, 0);
+    }
+
+    @BeforeEach
+    void open() throws IOException {
+        receiver = new Receiver();
+        robot = new RobotUDP(new InetSocketAddress("127.0.0.1", 0), receiver.getLocalAddress());
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        robot.close();
+        receiver.close();
+    }
+
+    @Test
+    void streamsOdometryInOrder() throws IOException {
+        final OdometryUpdate update = new OdometryUpdate();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(UDPSocket.MAX_PACKET_SIZE);
+
+        final long start = System.nanoTime();
+        for (int sent = 0; sent < UPDATES; ) {
+            for (int i = 0; i < BURST && sent < UPDATES; i++, sent++) {
+                update.sequence = sent;
+                // the timestamp carries the send time so the receiver can measure latency
+                update.timestampMicros = System.nanoTime() / 1000;
+                update.x = sent;
+                assertTrue(robot.sendOdometry(update, buffer), "send buffer full");
+            }
+
+            final long deadline = System.nanoTime() + BURST_TIMEOUT_NANOS;
+            while (receiver.received < sent && System.nanoTime() < deadline) {
+                receiver.periodic();
+            }
+            assertEquals(sent, receiver.received, "updates received");
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        System.out.printf(
+            "RobotUDP loopback: %d updates in %.1f ms, %.0f updates/s, %.1f MB/s, latency mean %.1f us max %.1f us%n",
+            UPDATES,
+            elapsed / 1e6,
+            UPDATES / (elapsed / 1e9),
+            (double) UPDATES * OdometryUpdate.SIZE / (elapsed / 1e9) / 1e6,
+            receiver.latencySumNanos / 1e3 / UPDATES,
+            receiver.maxLatencyNanos / 1e3
+        );
+        assertEquals(0, receiver.outOfOrder, "sequence gaps");
+        assertEquals(UPDATES, receiver.expectedSequence, "last sequence");
+        assertEquals(0, receiver.getDroppedReceiveCount(), "dropped receives");
+        assertEquals(0, robot.getDroppedSendCount(), "dropped sends");
+    }
+}
@@ -0,0 +1,127 @@
+package swervelib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sun.management.ThreadMXBean;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import swervelib.math.SwerveSetpointLimiter;
+import swervelib.parser.SwerveParser;
+import swervelib.telemetry.SwerveDriveTelemetry;
+import swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
+
+/**
+ * Checks the module state path, {@link SwerveDrive#getStates(SwerveModuleState[])},
+ * {@link SwerveDrive#getModulePositions(SwerveModulePosition[])} and {@link SwerveDrive#setRawModuleStates}, with and
+ * without a {@link SwerveSetpointLimiter}, allocates nothing per tick once warmed up. The drive is built from the
+ * deployed configuration on the vendor simulated devices and then switched to the hardware path, since the MapleSim
+ * module simulation allocates on its own.
+ */
+class SwerveDriveAllocationTest {
+
+    /**
+     * Ticks run before measuring, enough for the JIT to compile the path.
+     */
+    private static final int WARMUP_TICKS = 20_000;
+    /**
+     * Ticks measured.
+     */
+    private static final int MEASURED_TICKS = 1_000;
+
+    private static SwerveDrive swerveDrive;
+    private static TelemetryVerbosity verbosity;
+    private static boolean isSimulation;
+
+    private final ChassisSpeeds desiredSpeeds = new ChassisSpeeds(1, 0, 0);
+    private final SwerveModuleState[] states = new SwerveModuleState[swerveDrive.getModules().length];
+    private final SwerveModulePosition[] positions = new SwerveModulePosition[states.length];
+    private final SwerveModuleState[] desiredStates = new SwerveModuleState[states.length];
+    private double checksum;
+
+    SwerveDriveAllocationTest() {
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new SwerveModuleState();
+            positions[i] = new SwerveModulePosition();
+            desiredStates[i] = new SwerveModuleState();
+        }
+    }
+
+    @BeforeAll
+    static void createSwerveDrive() throws IOException {
+        HAL.initialize(500, 0);
+        verbosity = SwerveDriveTelemetry.verbosity;
+        isSimulation = SwerveDriveTelemetry.isSimulation;
+        SwerveDriveTelemetry.verbosity = TelemetryVerbosity.NONE;
+        swerveDrive = new SwerveParser(new File("src/main/deploy/swerve")).createSwerveDrive(3, 360, 0.0473);
+        swerveDrive.stopOdometryThread();
+        SwerveDriveTelemetry.isSimulation = false;
+    }
+
+    @AfterAll
+    static void restoreTelemetry() {
+        SwerveDriveTelemetry.verbosity = verbosity;
+        SwerveDriveTelemetry.isSimulation = isSimulation;
+    }
+
+    /**
+     * One control loop: read the module states and positions, then command every module to hold its angle at 1 m/s.
+     */
+    private void tick() {
+        swerveDrive.invalidateCache();
+        swerveDrive.getStates(states);
+        swerveDrive.getModulePositions(positions);
+        for (int i = 0; i < desiredStates.length; i++) {
+            desiredStates[i].speedMetersPerSecond = 1;
+            desiredStates[i].angle = states[i].angle;
+            checksum += positions[i].distanceMeters;
+        }
+        swerveDrive.setRawModuleStates(desiredStates, desiredSpeeds, false);
+    }
+
+    @Test
+    void steadyStateTickDoesNotAllocate() {
+        swerveDrive.setSetpointLimiter(null);
+        assertTickDoesNotAllocate("Module state path");
+    }
+
+    @Test
+    void steadyStateLimitedTickDoesNotAllocate() {
+        swerveDrive.setSetpointLimiter(SwerveSetpointLimiter.fromConfiguration(swerveDrive.swerveDriveConfiguration));
+        try {
+            assertTickDoesNotAllocate("Limited module state path");
+        } finally {
+            swerveDrive.setSetpointLimiter(null);
+        }
+    }
+
+    /**
+     * Warm up the tick, then assert it allocates nothing.
+     *
+     * @param name Name of the path, for the report.
+     */
+    private void assertTickDoesNotAllocate(String name) {
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            tick();
+        }
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            tick();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        System.out.println(
+            name + " allocated " + allocated + " bytes over " + MEASURED_TICKS + " ticks (" + checksum + ")"
+        );
+        assertEquals(0, allocated / MEASURED_TICKS, "bytes allocated per tick");
+    }
+}
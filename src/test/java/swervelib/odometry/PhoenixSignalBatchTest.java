@@ -0,0 +1,88 @@
+package swervelib.odometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import edu.wpi.first.hal.HAL;
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import swervelib.SwerveDrive;
+import swervelib.parser.SwerveParser;
+import swervelib.telemetry.SwerveDriveTelemetry;
+import swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
+
+/**
+ * Counts the Phoenix JNI calls one batched odometry loop makes, on an all TalonFX and CANcoder drive backed by the
+ * Phoenix simulation. The drive is switched to the hardware path after it is built, since batching is disabled in
+ * simulation.
+ */
+class PhoenixSignalBatchTest {
+
+    /**
+     * Odometry loops counted.
+     */
+    private static final int LOOPS = 50;
+    /**
+     * Signals per module: drive position and velocity, angle position and velocity, CANcoder position, velocity and
+     * magnet health.
+     */
+    private static final int SIGNALS_PER_MODULE = 7;
+
+    private static SwerveDrive swerveDrive;
+    private static TelemetryVerbosity verbosity;
+    private static boolean isSimulation;
+
+    private int refreshCalls;
+    private int signalsRefreshed;
+
+    @BeforeAll
+    static void createSwerveDrive() throws IOException {
+        HAL.initialize(500, 0);
+        verbosity = SwerveDriveTelemetry.verbosity;
+        isSimulation = SwerveDriveTelemetry.isSimulation;
+        SwerveDriveTelemetry.verbosity = TelemetryVerbosity.NONE;
+        swerveDrive = new SwerveParser(new File("src/test/resources/swerve/talonfx")).createSwerveDrive(3);
+        swerveDrive.stopOdometryThread();
+        SwerveDriveTelemetry.isSimulation = false;
+    }
+
+    @AfterAll
+    static void restoreTelemetry() {
+        SwerveDriveTelemetry.verbosity = verbosity;
+        SwerveDriveTelemetry.isSimulation = isSimulation;
+    }
+
+    @Test
+    void batchedLoopMakesOneJNICall() {
+        int moduleCount = swerveDrive.getModules().length;
+        assertTrue(swerveDrive.enableBatchedSignalRefresh(250), "batching should be supported");
+        try {
+            PhoenixSignalBatch batch = swerveDrive.getSignalBatch();
+            assertNotNull(batch);
+            batch.setRefresher(signals -> {
+                refreshCalls++;
+                signalsRefreshed += signals.length;
+                return BaseStatusSignal.refreshAll(signals);
+            });
+
+            for (int i = 0; i < LOOPS; i++) {
+                swerveDrive.updateOdometry();
+            }
+        } finally {
+            swerveDrive.disableBatchedSignalRefresh();
+        }
+
+        System.out.printf(
+            "Batched odometry loop: %.1f refreshAll calls covering %.1f signals per loop%n",
+            (double) refreshCalls / LOOPS,
+            (double) signalsRefreshed / LOOPS
+        );
+        assertEquals(LOOPS, refreshCalls, "one refreshAll per loop");
+        assertEquals(LOOPS * SIGNALS_PER_MODULE * moduleCount, signalsRefreshed, "every signal in each refreshAll");
+    }
+}